@@ -0,0 +1,17 @@
+#!/bin/bash
+
+# Banking System Benchmark Script
+# Usage: ./bench.sh [key=value ...]   e.g. ./bench.sh benchmarks=deposit,transfer threads=1,4 csv=before.csv
+echo "🏦 Running hot path benchmark suite..."
+
+# Always rebuild so the suite measures the current sources
+./build.sh
+if [ $? -ne 0 ]; then
+    echo "❌ Build failed!"
+    exit 1
+fi
+echo ""
+
+# A fixed heap keeps allocation and GC behaviour comparable between runs
+echo "📊 Benchmarking..."
+java -Xms2g -Xmx2g -cp build com.banking.benchmark.HotPathBenchmarkSuite "$@"
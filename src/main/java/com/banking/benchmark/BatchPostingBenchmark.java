@@ -0,0 +1,75 @@
+package com.banking.benchmark;
+
+import com.banking.model.Customer;
+import com.banking.model.Posting;
+import com.banking.service.BankingService;
+import com.banking.service.PostingBatchResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares posting a payroll-style file one deposit at a time with the batch API
+ * 
+ * The file credits every account once and then spreads the remaining credits over
+ * random accounts. Each mode runs on a fresh bank with the same accounts.
+ * 
+ * Usage: java -cp build com.banking.benchmark.BatchPostingBenchmark [postings=1000000] [accounts=100000]
+ */
+public class BatchPostingBenchmark {
+    public static void main(String[] args) throws Exception {
+        int postingCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int accountCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        
+        System.out.printf("Batch posting benchmark: %,d credits to %,d accounts, %d available processors%n",
+                          postingCount, accountCount, Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 2; round++) { // The first round is warm-up
+            double single = runSingle(postingCount, accountCount);
+            PostingBatchResult batch = runBatch(postingCount, accountCount);
+            if (round == 1) {
+                System.out.printf("%-20s %14.0f postings/sec%n", "deposit per posting", single);
+                System.out.printf("%-20s %14.0f postings/sec%n", "postBatch", batch.getPostingsPerSecond());
+                System.out.println(batch);
+            }
+        }
+    }
+    
+    private static double runSingle(int postingCount, int accountCount) throws Exception {
+        BankingService bank = new BankingService("Benchmark Bank", "BNCH01");
+        List<Posting> payroll = payroll(openAccounts(bank, accountCount), postingCount);
+        long start = System.nanoTime();
+        for (Posting posting : payroll) {
+            bank.deposit(posting.getAccountNumber(), posting.getAmountCents() / 100.0);
+        }
+        return BenchmarkHarness.opsPerSecond(postingCount, System.nanoTime() - start);
+    }
+    
+    private static PostingBatchResult runBatch(int postingCount, int accountCount) throws Exception {
+        BankingService bank = new BankingService("Benchmark Bank", "BNCH01");
+        List<Posting> payroll = payroll(openAccounts(bank, accountCount), postingCount);
+        PostingBatchResult result = bank.postBatch(payroll);
+        if (result.getPostedCount() != postingCount) {
+            throw new IllegalStateException("Only " + result.getPostedCount() + " of " + postingCount + " posted");
+        }
+        return result;
+    }
+    
+    private static String[] openAccounts(BankingService bank, int accountCount) throws Exception {
+        String[] accounts = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            Customer customer = bank.createCustomer("Payroll", "Employee" + i, "payroll" + i + "@example.com");
+            accounts[i] = bank.createCheckingAccount(customer.getCustomerId(), 0, false).getAccountNumber();
+        }
+        return accounts;
+    }
+    
+    private static List<Posting> payroll(String[] accounts, int postingCount) {
+        Random random = new Random(42);
+        List<Posting> payroll = new ArrayList<>(postingCount);
+        for (int i = 0; i < postingCount; i++) {
+            String account = i < accounts.length ? accounts[i] : accounts[random.nextInt(accounts.length)];
+            payroll.add(Posting.credit(account, 1_000 + random.nextInt(500_000) / 100.0));
+        }
+        return payroll;
+    }
+}
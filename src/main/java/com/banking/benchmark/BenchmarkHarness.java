@@ -0,0 +1,100 @@
+package com.banking.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Small harness shared by the benchmark programs
+ * Starts worker threads behind a common gate, times them, and reports deadlocks
+ * instead of hanging when the workers fail to finish
+ */
+final class BenchmarkHarness {
+    
+    /**
+     * Body executed by each benchmark thread
+     */
+    interface Worker {
+        void run(int threadIndex) throws Exception;
+    }
+    
+    private BenchmarkHarness() {
+    }
+    
+    /**
+     * Run the worker on the given number of threads and wait for all of them
+     * @param threads Number of worker threads
+     * @param worker Work executed by each thread
+     * @param timeoutMillis Maximum time to wait before checking for deadlocks
+     * @return Elapsed wall-clock time in nanoseconds
+     */
+    static long runConcurrently(int threads, Worker worker, long timeoutMillis) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        
+        for (int i = 0; i < threads; i++) {
+            final int threadIndex = i;
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    worker.run(threadIndex);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    done.countDown();
+                }
+            }, "bench-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        
+        ready.await();
+        long startTime = System.nanoTime();
+        start.countDown();
+        if (!done.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Benchmark threads did not finish: " + describeDeadlocks());
+        }
+        long elapsed = System.nanoTime() - startTime;
+        
+        if (failure.get() != null) {
+            throw new IllegalStateException("Benchmark worker failed", failure.get());
+        }
+        return elapsed;
+    }
+    
+    /**
+     * Parse a comma separated list of thread counts such as "1,2,4,8"
+     */
+    static int[] parseCounts(String arg) {
+        String[] parts = arg.split(",");
+        int[] counts = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            counts[i] = Integer.parseInt(parts[i].trim());
+        }
+        return counts;
+    }
+    
+    static double opsPerSecond(long operations, long elapsedNanos) {
+        return operations * 1_000_000_000.0 / elapsedNanos;
+    }
+    
+    private static String describeDeadlocks() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long[] deadlocked = threadBean.findDeadlockedThreads();
+        if (deadlocked == null) {
+            return "no deadlock detected (timed out)";
+        }
+        StringBuilder description = new StringBuilder("DEADLOCK between threads:");
+        for (ThreadInfo info : threadBean.getThreadInfo(deadlocked)) {
+            description.append(String.format(" [%s waiting on %s held by %s]",
+                               info.getThreadName(), info.getLockName(), info.getLockOwnerName()));
+        }
+        return description.toString();
+    }
+}
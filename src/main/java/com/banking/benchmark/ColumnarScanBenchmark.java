@@ -0,0 +1,91 @@
+package com.banking.benchmark;
+
+import com.banking.history.ColumnarTransactionLog;
+import com.banking.model.Transaction;
+import com.banking.time.Timestamps;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compares an analytics scan (total amount per transaction type) over Transaction objects
+ * with the same scan over the memory-mapped columns, sequential and parallel
+ * 
+ * Usage: java -cp build com.banking.benchmark.ColumnarScanBenchmark [transactions=5000000] [rowsPerSegment=1048576] [directory=tmp]
+ */
+public class ColumnarScanBenchmark {
+    private static final int ACCOUNTS = 10_000;
+    private static final int ROUNDS = 5;
+    private static final String[] DESCRIPTIONS = {"Cash deposit", "Cash withdrawal", "Monthly interest credit", 
+                                                  "Monthly maintenance fee"};
+    
+    public static void main(String[] args) throws Exception {
+        int transactionCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int rowsPerSegment = args.length > 1 ? Integer.parseInt(args[1]) : ColumnarTransactionLog.DEFAULT_ROWS_PER_SEGMENT;
+        boolean temporaryDirectory = args.length <= 2;
+        Path directory = temporaryDirectory ? Files.createTempDirectory("columnar-bench") : Paths.get(args[2]);
+        
+        System.out.printf("Columnar scan benchmark: %,d transactions, %,d rows per segment, directory %s%n",
+                          transactionCount, rowsPerSegment, directory);
+        
+        Transaction.TransactionType[] types = Transaction.TransactionType.values();
+        long startMicros = Timestamps.fromLocalDateTime(LocalDateTime.of(2026, 1, 1, 0, 0));
+        List<Transaction> objects = new ArrayList<>(transactionCount);
+        try (ColumnarTransactionLog log = ColumnarTransactionLog.create(directory, rowsPerSegment)) {
+            for (int i = 0; i < transactionCount; i++) {
+                int account = i % ACCOUNTS;
+                Transaction transaction = new Transaction(1_000L + i, String.valueOf(100_001 + account), 
+                                                          types[i % types.length], 100 + i % 5_000, 
+                                                          DESCRIPTIONS[i % DESCRIPTIONS.length], i, 
+                                                          startMicros + i * 1_000_000L);
+                objects.add(transaction);
+                log.append(100_001 + account, transaction);
+            }
+            
+            long[] expected = null;
+            for (int round = 0; round < ROUNDS; round++) {
+                long objectStart = System.nanoTime();
+                long[] objectSums = new long[types.length];
+                for (Transaction transaction : objects) {
+                    objectSums[transaction.getType().ordinal()] += transaction.getAmountCents();
+                }
+                long objectNanos = System.nanoTime() - objectStart;
+                
+                long sequentialStart = System.nanoTime();
+                long[] sequentialSums = new long[types.length];
+                for (ColumnarTransactionLog.Segment segment : log.getSegments()) {
+                    int rows = segment.rowCount();
+                    for (int row = 0; row < rows; row++) {
+                        sequentialSums[segment.typeOrdinal(row)] += segment.amountCents(row);
+                    }
+                }
+                long sequentialNanos = System.nanoTime() - sequentialStart;
+                
+                long parallelStart = System.nanoTime();
+                long[] parallelSums = log.sumAmountsByType();
+                long parallelNanos = System.nanoTime() - parallelStart;
+                
+                expected = objectSums;
+                boolean same = Arrays.equals(objectSums, sequentialSums) && Arrays.equals(objectSums, parallelSums);
+                System.out.printf("Round %d: objects %7.1f ms, columns %7.1f ms, columns parallel %7.1f ms (%d segments)%s%n",
+                                  round + 1, objectNanos / 1e6, sequentialNanos / 1e6, parallelNanos / 1e6,
+                                  log.getSegments().size(), same ? "" : "  MISMATCH");
+            }
+            System.out.println("Totals by type (cents): " + Arrays.toString(expected));
+        }
+        
+        if (temporaryDirectory) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
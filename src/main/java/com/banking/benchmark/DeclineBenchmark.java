@@ -0,0 +1,103 @@
+package com.banking.benchmark;
+
+import com.banking.exception.InsufficientFundsException;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.model.Account;
+import com.banking.model.Money;
+import com.banking.model.PostingStatus;
+import com.banking.model.SavingsAccount;
+import java.lang.management.ManagementFactory;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Measures the cost of a declined withdrawal
+ * 
+ * Every attempt would take a savings account below its minimum balance. The "before"
+ * case rebuilds the exception this repository used to throw, with a captured stack
+ * trace and an eagerly formatted message; the others are the current stackless
+ * exception and the status-returning tryWithdraw. Allocation is read from the
+ * thread's allocated-bytes counter.
+ * 
+ * Usage: java -cp build com.banking.benchmark.DeclineBenchmark [operations=2000000]
+ */
+public class DeclineBenchmark {
+    private static final double DECLINED_AMOUNT = 10_000.00;
+    private static volatile long sink;
+    
+    /**
+     * The decline exception as it was: full stack trace, message formatted on construction
+     */
+    private static final class EagerInsufficientFundsException extends Exception {
+        private static final long serialVersionUID = 1L;
+        
+        EagerInsufficientFundsException(double requestedAmount, double availableBalance) {
+            super("Insufficient funds. Requested: $" + String.format("%.2f", requestedAmount) + 
+                  ", Available: $" + String.format("%.2f", availableBalance));
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Account account = new SavingsAccount("Decline Bench", 500.00);
+        
+        System.out.printf("Decline benchmark: %,d declined withdrawals%n", operations);
+        System.out.printf("%-32s %12s %12s%n", "Case", "ns/op", "bytes/op");
+        for (int round = 0; round < 2; round++) { // The first round is warm-up
+            boolean report = round == 1;
+            run("before: eager exception", operations / 10, report, i -> {
+                try {
+                    if (!account.canWithdraw(DECLINED_AMOUNT)) {
+                        throw new EagerInsufficientFundsException(DECLINED_AMOUNT, account.getBalance());
+                    }
+                    return 0;
+                } catch (EagerInsufficientFundsException e) {
+                    return 1;
+                }
+            });
+            run("withdraw, stackless exception", operations, report, i -> {
+                try {
+                    account.withdraw(DECLINED_AMOUNT);
+                    return 0;
+                } catch (InsufficientFundsException e) {
+                    return 1;
+                } catch (InvalidTransactionException e) {
+                    return 2;
+                }
+            });
+            run("withdraw, exception message read", operations / 10, report, i -> {
+                try {
+                    account.withdraw(DECLINED_AMOUNT);
+                    return 0;
+                } catch (InsufficientFundsException e) {
+                    return e.getMessage().length();
+                } catch (InvalidTransactionException e) {
+                    return 2;
+                }
+            });
+            run("tryWithdraw status", operations, report,
+                i -> account.tryWithdraw(DECLINED_AMOUNT) == PostingStatus.INSUFFICIENT_FUNDS ? 1 : 0);
+        }
+        if (account.getBalanceCents() != Money.toCents(500.00)) {
+            throw new IllegalStateException("A declined withdrawal changed the balance");
+        }
+    }
+    
+    private static void run(String name, int operations, boolean report, LongUnaryOperator operation) 
+            throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < operations; i++) {
+            checksum += operation.applyAsLong(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        sink = checksum;
+        if (report) {
+            System.out.printf("%-32s %12.1f %12.1f%n", name, (double) elapsed / operations,
+                              (double) allocated / operations);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.banking.benchmark;
+
+import com.banking.history.InMemoryTransactionStore;
+import com.banking.history.TieredTransactionStore;
+import com.banking.history.TransactionStore;
+import com.banking.model.Transaction;
+import com.banking.time.Timestamps;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Compares heap footprint and full-history read time of the transaction stores
+ * 
+ * Each store receives the same synthetic postings; heap usage is sampled after a
+ * full GC so the figures reflect live data only. Off-heap bytes of the cold
+ * segments are reported separately.
+ * 
+ * Usage: java -cp build com.banking.benchmark.HistoryStoreBenchmark [accounts=10000] [transactionsPerAccount=1000]
+ */
+public class HistoryStoreBenchmark {
+    private static final String[] DESCRIPTIONS = {"Cash deposit", "Cash withdrawal", "Monthly interest credit", 
+                                                  "Monthly maintenance fee", "Check written to Utility Co"};
+    
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int transactionsPerAccount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        
+        System.out.printf("History store benchmark: %,d accounts x %,d transactions%n", accountCount, transactionsPerAccount);
+        System.out.printf("%-10s %14s %14s %16s %18s%n", "Store", "Heap (MB)", "Off-heap (MB)", "Bytes/txn", "Full read (ms)");
+        
+        run("in-memory", accountNumber -> new InMemoryTransactionStore(), accountCount, transactionsPerAccount);
+        run("tiered", TieredTransactionStore::new, accountCount, transactionsPerAccount);
+    }
+    
+    private static void run(String name, Function<String, TransactionStore> factory, int accountCount, 
+                            int transactionsPerAccount) throws InterruptedException {
+        long heapBefore = usedHeap();
+        TransactionStore[] stores = new TransactionStore[accountCount];
+        long startMicros = Timestamps.fromLocalDateTime(LocalDateTime.of(2026, 1, 1, 9, 0));
+        long transactionNumber = 1_000;
+        for (int a = 0; a < accountCount; a++) {
+            String accountNumber = String.valueOf(100_001 + a);
+            TransactionStore store = factory.apply(accountNumber);
+            long balance = 0;
+            for (int t = 0; t < transactionsPerAccount; t++) {
+                Transaction.TransactionType type = t % 3 == 1 ? Transaction.TransactionType.WITHDRAWAL 
+                                                              : Transaction.TransactionType.DEPOSIT;
+                long amount = 100 + (t * 37L + a) % 10_000;
+                balance += type.isCredit() ? amount : -amount;
+                store.append(new Transaction(transactionNumber++, accountNumber, type, amount, 
+                                             DESCRIPTIONS[t % DESCRIPTIONS.length], balance, 
+                                             startMicros + t * 17 * 60_000_000L + a));
+            }
+            stores[a] = store;
+        }
+        long heapUsed = usedHeap() - heapBefore;
+        
+        long offHeap = 0;
+        for (TransactionStore store : stores) {
+            if (store instanceof TieredTransactionStore) {
+                offHeap += ((TieredTransactionStore) store).getSealedBytes();
+            }
+        }
+        
+        long readStart = System.nanoTime();
+        long checksum = 0;
+        for (TransactionStore store : stores) {
+            for (Transaction transaction : store.getAll()) {
+                checksum += transaction.getAmountCents();
+            }
+        }
+        long readNanos = System.nanoTime() - readStart;
+        
+        long transactions = (long) accountCount * transactionsPerAccount;
+        System.out.printf("%-10s %14.1f %14.1f %16.1f %18.1f  (checksum %d)%n", name, heapUsed / 1e6, offHeap / 1e6,
+                          (double) (heapUsed + offHeap) / transactions, readNanos / 1e6, checksum);
+    }
+    
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
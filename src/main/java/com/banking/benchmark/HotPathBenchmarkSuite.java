@@ -0,0 +1,249 @@
+package com.banking.benchmark;
+
+import com.banking.model.Account;
+import com.banking.model.Customer;
+import com.banking.service.BankingService;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Regression suite for the core banking hot paths
+ * 
+ * Every benchmark runs for each combination of account count, history length and
+ * thread count, with warm-up iterations followed by measured, time-boxed iterations.
+ * Each worker thread counts its operations and reads its own allocated-bytes counter,
+ * so the report gives throughput together with the allocation per operation and the
+ * allocation rate. Results can also be written as CSV to compare two builds.
+ * 
+ * Usage: java -cp build com.banking.benchmark.HotPathBenchmarkSuite [key=value ...]
+ *   benchmarks=deposit,withdraw,transfer,createCustomer,recentTransactions,monthlyMaintenance,bankSummary,accountSummary
+ *   accounts=1000,10000  history=16,256  threads=1,4
+ *   warmup=2  iterations=5  time=1000 (milliseconds per iteration)  csv=results.csv
+ */
+public class HotPathBenchmarkSuite {
+    private static final double INITIAL_BALANCE = 1_000_000.00;
+    private static final int RECENT_COUNT = 10;
+    private static final long TIMEOUT_MILLIS = 600_000;
+    private static volatile long sink;
+    
+    /**
+     * One invocation of a benchmarked operation
+     */
+    private interface Operation {
+        void run(int threadIndex, long invocation) throws Exception;
+    }
+    
+    /**
+     * Builds the fixture for one parameter combination and returns the operation to measure
+     */
+    private interface Benchmark {
+        Operation setUp(Fixture fixture) throws Exception;
+    }
+    
+    /**
+     * Bank populated for one parameter combination
+     */
+    private static final class Fixture {
+        final int accountCount;
+        final int historyLength;
+        final int threads;
+        final BankingService bank = new BankingService("Benchmark Bank", "BNCH01");
+        final Account[] accounts;
+        
+        Fixture(int accountCount, int historyLength, int threads) throws Exception {
+            this.accountCount = accountCount;
+            this.historyLength = historyLength;
+            this.threads = threads;
+            this.accounts = new Account[accountCount];
+            for (int i = 0; i < accountCount; i++) {
+                Customer customer = bank.createCustomer("Bench", "User" + i, "suite" + i + "@example.com");
+                accounts[i] = bank.createCheckingAccount(customer.getCustomerId(), INITIAL_BALANCE, false);
+                // The opening deposit is the first history entry
+                for (int h = 1; h < historyLength; h++) {
+                    accounts[i].deposit(1.00);
+                }
+            }
+        }
+        
+        Account randomAccount() {
+            return accounts[ThreadLocalRandom.current().nextInt(accounts.length)];
+        }
+    }
+    
+    /**
+     * Measured iterations of one benchmark and parameter combination
+     */
+    private static final class Result {
+        final String benchmark;
+        final int accountCount;
+        final int historyLength;
+        final int threads;
+        final double[] opsPerSecond;
+        final double bytesPerOp;
+        final double allocationMBPerSecond;
+        
+        Result(String benchmark, Fixture fixture, double[] opsPerSecond, double bytesPerOp,
+               double allocationMBPerSecond) {
+            this.benchmark = benchmark;
+            this.accountCount = fixture.accountCount;
+            this.historyLength = fixture.historyLength;
+            this.threads = fixture.threads;
+            this.opsPerSecond = opsPerSecond;
+            this.bytesPerOp = bytesPerOp;
+            this.allocationMBPerSecond = allocationMBPerSecond;
+        }
+        
+        double mean() {
+            return Arrays.stream(opsPerSecond).average().orElse(0.0);
+        }
+        
+        double standardDeviation() {
+            double mean = mean();
+            double squares = Arrays.stream(opsPerSecond).map(score -> (score - mean) * (score - mean)).sum();
+            return opsPerSecond.length > 1 ? Math.sqrt(squares / (opsPerSecond.length - 1)) : 0.0;
+        }
+    }
+    
+    private static Map<String, Benchmark> benchmarks() {
+        Map<String, Benchmark> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("deposit", fixture -> (thread, invocation) -> fixture.randomAccount().deposit(1.00));
+        benchmarks.put("withdraw", fixture -> (thread, invocation) -> fixture.randomAccount().withdraw(0.01));
+        benchmarks.put("transfer", fixture -> (thread, invocation) -> {
+            Account from = fixture.randomAccount();
+            Account to = fixture.randomAccount();
+            if (from != to) {
+                fixture.bank.transfer(from.getAccountNumber(), to.getAccountNumber(), 0.01);
+            }
+        });
+        benchmarks.put("createCustomer", fixture -> (thread, invocation) ->
+            fixture.bank.createCustomer("New", "Customer", "new-" + thread + "-" + invocation + "@example.com"));
+        benchmarks.put("recentTransactions", fixture -> (thread, invocation) ->
+            sink += fixture.randomAccount().getRecentTransactions(RECENT_COUNT).size());
+        benchmarks.put("monthlyMaintenance", fixture -> (thread, invocation) ->
+            fixture.bank.applyMonthlyMaintenanceToAllAccounts());
+        benchmarks.put("bankSummary", fixture -> (thread, invocation) ->
+            sink += fixture.bank.getBankSummary().length());
+        benchmarks.put("accountSummary", fixture -> (thread, invocation) ->
+            sink += fixture.randomAccount().getAccountSummary().length());
+        return benchmarks;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("benchmarks", String.join(",", benchmarks().keySet()));
+        options.put("accounts", "1000,10000");
+        options.put("history", "16,256");
+        options.put("threads", "1,4");
+        options.put("warmup", "2");
+        options.put("iterations", "5");
+        options.put("time", "1000");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !options.containsKey(arg.substring(0, separator)) && !arg.startsWith("csv=")) {
+                throw new IllegalArgumentException("Unknown option " + arg + "; expected one of " + options.keySet() + " or csv");
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        
+        Map<String, Benchmark> available = benchmarks();
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int iterations = Integer.parseInt(options.get("iterations"));
+        long iterationMillis = Long.parseLong(options.get("time"));
+        
+        System.out.printf("Hot path suite: %d warm-up and %d measured iterations of %d ms, %d available processors%n",
+                          warmup, iterations, iterationMillis, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-20s %10s %9s %9s %14s %12s %12s %12s%n", "Benchmark", "(accounts)", "(history)",
+                          "(threads)", "Score ops/s", "Error", "Alloc B/op", "Alloc MB/s");
+        List<Result> results = new ArrayList<>();
+        for (String name : options.get("benchmarks").split(",")) {
+            Benchmark benchmark = available.get(name.trim());
+            if (benchmark == null) {
+                throw new IllegalArgumentException("Unknown benchmark " + name + "; expected one of " + available.keySet());
+            }
+            for (int accountCount : BenchmarkHarness.parseCounts(options.get("accounts"))) {
+                for (int historyLength : BenchmarkHarness.parseCounts(options.get("history"))) {
+                    for (int threads : BenchmarkHarness.parseCounts(options.get("threads"))) {
+                        Fixture fixture = new Fixture(accountCount, historyLength, threads);
+                        Result result = measure(name.trim(), benchmark, fixture, warmup, iterations, iterationMillis);
+                        results.add(result);
+                        System.out.printf("%-20s %10d %9d %9d %14.0f %12.0f %12.1f %12.1f%n", result.benchmark,
+                                          result.accountCount, result.historyLength, result.threads, result.mean(),
+                                          result.standardDeviation(), result.bytesPerOp, result.allocationMBPerSecond);
+                    }
+                }
+            }
+        }
+        if (options.containsKey("csv")) {
+            writeCsv(options.get("csv"), results);
+        }
+    }
+    
+    private static Result measure(String name, Benchmark benchmark, Fixture fixture, int warmup, int iterations,
+                                  long iterationMillis) throws Exception {
+        Operation operation = benchmark.setUp(fixture);
+        // Invocation numbers keep growing across iterations so generated keys stay unique
+        AtomicLongArray invocations = new AtomicLongArray(fixture.threads);
+        AtomicLongArray allocated = new AtomicLongArray(fixture.threads);
+        double[] scores = new double[iterations];
+        long totalOperations = 0;
+        long totalBytes = 0;
+        long totalNanos = 0;
+        
+        for (int iteration = 0; iteration < warmup + iterations; iteration++) {
+            long[] before = new long[fixture.threads];
+            for (int t = 0; t < fixture.threads; t++) {
+                before[t] = invocations.get(t);
+                allocated.set(t, 0);
+            }
+            long elapsed = BenchmarkHarness.runConcurrently(fixture.threads, threadIndex -> {
+                com.sun.management.ThreadMXBean threadBean =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                long threadId = Thread.currentThread().getId();
+                long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+                long deadline = System.nanoTime() + iterationMillis * 1_000_000;
+                long invocation = invocations.get(threadIndex);
+                do {
+                    operation.run(threadIndex, invocation++);
+                } while (System.nanoTime() < deadline);
+                invocations.set(threadIndex, invocation);
+                allocated.set(threadIndex, threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore);
+            }, TIMEOUT_MILLIS);
+            
+            if (iteration >= warmup) {
+                long operations = 0;
+                for (int t = 0; t < fixture.threads; t++) {
+                    operations += invocations.get(t) - before[t];
+                    totalBytes += allocated.get(t);
+                }
+                scores[iteration - warmup] = BenchmarkHarness.opsPerSecond(operations, elapsed);
+                totalOperations += operations;
+                totalNanos += elapsed;
+            }
+        }
+        double bytesPerOp = totalOperations > 0 ? (double) totalBytes / totalOperations : 0.0;
+        double allocationRate = totalNanos > 0 ? totalBytes / 1e6 / (totalNanos / 1e9) : 0.0;
+        return new Result(name, fixture, scores, bytesPerOp, allocationRate);
+    }
+    
+    private static void writeCsv(String file, List<Result> results) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(file)))) {
+            out.println("benchmark,accounts,history,threads,ops_per_sec,error,alloc_bytes_per_op,alloc_mb_per_sec");
+            for (Result result : results) {
+                out.printf("%s,%d,%d,%d,%.1f,%.1f,%.1f,%.1f%n", result.benchmark, result.accountCount,
+                           result.historyLength, result.threads, result.mean(), result.standardDeviation(),
+                           result.bytesPerOp, result.allocationMBPerSecond);
+            }
+        }
+        System.out.println("Results written to " + file);
+    }
+}
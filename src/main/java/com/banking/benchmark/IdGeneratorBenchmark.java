@@ -0,0 +1,66 @@
+package com.banking.benchmark;
+
+import com.banking.id.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the identifier generation strategies under increasing thread counts
+ * 
+ * Strategies: a single atomic counter, per-thread block leasing and time-ordered
+ * 64-bit identifiers. The "atomic+format" row adds the "TXN" + n string that every
+ * transaction used to build eagerly, to show what formatting on demand saves.
+ * 
+ * Usage: java -cp build com.banking.benchmark.IdGeneratorBenchmark [threads=1,2,4,8,16,32,64] [idsPerThread=1000000]
+ */
+public class IdGeneratorBenchmark {
+    private static final long TIMEOUT_MILLIS = 120_000;
+    private static volatile long sink;
+    
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = BenchmarkHarness.parseCounts(args.length > 0 ? args[0] : "1,2,4,8,16,32,64");
+        int idsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        
+        String[] names = {"atomic", "atomic+format", "block(1024)", "time-ordered"};
+        List<Supplier<IdGenerator>> factories = Arrays.asList(
+            () -> new AtomicIdGenerator(0),
+            () -> new AtomicIdGenerator(0),
+            () -> new BlockIdGenerator(0, 1024),
+            () -> new TimeOrderedIdGenerator(1)
+        );
+        
+        System.out.printf("Id generator benchmark: %d ids per thread, %d available processors%n",
+                          idsPerThread, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-15s", "Threads");
+        for (String name : names) {
+            System.out.printf("%16s", name);
+        }
+        System.out.println("   (million ids/sec)");
+        
+        for (int i = 0; i < names.length; i++) {
+            measure(factories.get(i).get(), i == 1, 1, idsPerThread); // Warm-up
+        }
+        for (int threads : threadCounts) {
+            System.out.printf("%-15d", threads);
+            for (int i = 0; i < names.length; i++) {
+                double opsPerSecond = measure(factories.get(i).get(), i == 1, threads, idsPerThread);
+                System.out.printf("%16.2f", opsPerSecond / 1_000_000);
+            }
+            System.out.println();
+        }
+    }
+    
+    private static double measure(IdGenerator generator, boolean format, int threads, int idsPerThread) 
+            throws InterruptedException {
+        long elapsed = BenchmarkHarness.runConcurrently(threads, threadIndex -> {
+            long accumulator = 0;
+            for (int i = 0; i < idsPerThread; i++) {
+                long id = generator.nextId();
+                accumulator ^= format ? ("TXN" + id).length() : id;
+            }
+            sink = accumulator;
+        }, TIMEOUT_MILLIS);
+        return BenchmarkHarness.opsPerSecond((long) threads * idsPerThread, elapsed);
+    }
+}
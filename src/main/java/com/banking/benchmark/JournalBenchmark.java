@@ -0,0 +1,87 @@
+package com.banking.benchmark;
+
+import com.banking.model.*;
+import com.banking.persistence.Journal;
+import com.banking.service.BankingService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * Measures journaled deposit throughput against durability level and flush interval
+ * 
+ * Every thread deposits into its own account, so the journal is the only shared
+ * resource. The records-per-force column shows how many operations group commit
+ * amortizes over a single force().
+ * 
+ * Usage: java -cp build com.banking.benchmark.JournalBenchmark [threads=8] [depositsPerThread=5000] [directory=tmp]
+ */
+public class JournalBenchmark {
+    private static final long TIMEOUT_MILLIS = 300_000;
+    private static final long[] GROUP_COMMIT_INTERVALS_MICROS = {0, 100, 1_000, 5_000};
+    
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int depositsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        boolean temporaryDirectory = args.length <= 2;
+        Path directory = temporaryDirectory ? Files.createTempDirectory("journal-bench") : Paths.get(args[2]);
+        
+        System.out.printf("Journal benchmark: %d threads x %d deposits, journal directory %s%n",
+                          threads, depositsPerThread, directory);
+        System.out.printf("%-14s %14s %12s %10s %16s%n", "Durability", "Interval(us)", "Ops/sec", "Forces", "Records/force");
+        
+        run(directory, Journal.Durability.PER_OPERATION, 0, threads, depositsPerThread);
+        for (long interval : GROUP_COMMIT_INTERVALS_MICROS) {
+            run(directory, Journal.Durability.GROUP_COMMIT, interval, threads, depositsPerThread);
+        }
+        run(directory, Journal.Durability.ASYNC, 1_000, threads, depositsPerThread);
+        
+        if (temporaryDirectory) {
+            Files.deleteIfExists(directory);
+        }
+    }
+    
+    private static void run(Path directory, Journal.Durability durability, long intervalMicros, 
+                            int threads, int depositsPerThread) throws Exception {
+        Path journalDirectory = directory.resolve("bench-" + durability + "-" + intervalMicros);
+        
+        long elapsed;
+        long appended;
+        long forces;
+        try (Journal journal = Journal.open(journalDirectory, durability, intervalMicros)) {
+            BankingService bank = new BankingService("Benchmark Bank", "BNCH01", journal);
+            String[] accountNumbers = new String[threads];
+            for (int i = 0; i < threads; i++) {
+                Customer customer = bank.createCustomer("Bench", "User" + i, "bench" + i + "@example.com");
+                accountNumbers[i] = bank.createCheckingAccount(customer.getCustomerId(), 100.00).getAccountNumber();
+            }
+            long forcesBefore = journal.getForceCount();
+            long lsnBefore = journal.getAppendedLsn();
+            
+            elapsed = BenchmarkHarness.runConcurrently(threads, threadIndex -> {
+                for (int i = 0; i < depositsPerThread; i++) {
+                    bank.deposit(accountNumbers[threadIndex], 1.00);
+                }
+            }, TIMEOUT_MILLIS);
+            
+            appended = journal.getAppendedLsn() - lsnBefore;
+            forces = journal.getForceCount() - forcesBefore;
+        }
+        deleteJournal(journalDirectory);
+        
+        System.out.printf("%-14s %14d %12.0f %10d %16.1f%n", durability, intervalMicros,
+                          BenchmarkHarness.opsPerSecond((long) threads * depositsPerThread, elapsed),
+                          forces, forces > 0 ? (double) appended / forces : 0.0);
+    }
+    
+    private static void deleteJournal(Path journalDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(journalDirectory);
+    }
+}
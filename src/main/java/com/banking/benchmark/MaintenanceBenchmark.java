@@ -0,0 +1,145 @@
+package com.banking.benchmark;
+
+import com.banking.model.*;
+import com.banking.service.BankingService;
+import com.banking.service.MaintenanceEngine;
+import com.banking.time.ManualMicroClock;
+import com.banking.time.MicroClocks;
+import com.banking.time.SystemMicroClock;
+import com.banking.time.Timestamps;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares sequential month-end maintenance with the parallel MaintenanceEngine
+ * 
+ * Two banks are filled with the same accounts, balances and timestamps from a manual
+ * clock; one closes the month with the sequential loop, the other a day later with the
+ * engine. Afterwards every account's balance and postings are compared, and the run
+ * fails if the parallel path diverges in any amount.
+ * 
+ * Usage: java -cp build com.banking.benchmark.MaintenanceBenchmark [accounts=500000] [parallelism=cores] [partitionSize=1024]
+ */
+public class MaintenanceBenchmark {
+    private static final long SEED = 7;
+    private static final YearMonth PERIOD = YearMonth.of(2026, 1);
+    private static final long SECOND_MICROS = 1_000_000L;
+    private static final long DAY_MICROS = 86_400L * SECOND_MICROS;
+    
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int partitionSize = args.length > 2 ? Integer.parseInt(args[2]) : MaintenanceEngine.DEFAULT_PARTITION_SIZE;
+        
+        System.out.printf("Maintenance benchmark: %,d accounts, parallelism %d, partition size %d%n",
+                          accountCount, parallelism, partitionSize);
+        
+        // Postings are spread over the month a second apart; maintenance runs after it ends
+        long periodStart = Timestamps.fromLocalDateTime(PERIOD.atDay(1).atStartOfDay());
+        long periodEnd = Timestamps.endOfMonth(PERIOD);
+        ManualMicroClock clock = new ManualMicroClock(periodStart, SECOND_MICROS);
+        MicroClocks.setTransactionClock(clock);
+        try {
+            run(accountCount, parallelism, partitionSize, clock, periodStart, periodEnd);
+        } finally {
+            MicroClocks.setTransactionClock(SystemMicroClock.INSTANCE);
+        }
+    }
+    
+    private static void run(int accountCount, int parallelism, int partitionSize, ManualMicroClock clock, 
+                            long periodStart, long periodEnd) throws Exception {
+        BankingService sequentialBank = new BankingService("Sequential Bank", "SEQ001");
+        List<Account> sequentialAccounts = populate(sequentialBank, accountCount);
+        clock.set(periodEnd + DAY_MICROS);
+        long start = System.nanoTime();
+        sequentialBank.applyMonthlyMaintenanceToAllAccounts(PERIOD);
+        long sequentialNanos = System.nanoTime() - start;
+        System.out.printf("Sequential: %.1f ms (%.0f accounts/sec)%n", sequentialNanos / 1e6,
+                          BenchmarkHarness.opsPerSecond(accountCount, sequentialNanos));
+        
+        clock.set(periodStart);
+        BankingService parallelBank = new BankingService("Parallel Bank", "PAR001");
+        List<Account> parallelAccounts = populate(parallelBank, accountCount);
+        clock.set(periodEnd + 2 * DAY_MICROS);
+        long reportEvery = Math.max(1, accountCount / 10);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        MaintenanceEngine engine = new MaintenanceEngine(pool, partitionSize, (timing, completed, total) -> {
+            if (completed / reportEvery != (completed - timing.getAccountCount()) / reportEvery) {
+                System.out.printf("  progress %3d%% (%,d/%,d)%n", completed * 100 / total, completed, total);
+            }
+        });
+        MaintenanceEngine.Report report = parallelBank.applyMonthlyMaintenanceToAllAccounts(PERIOD, engine);
+        pool.shutdown();
+        System.out.println("Parallel:   " + report);
+        
+        long totalPartitionNanos = 0;
+        for (MaintenanceEngine.PartitionTiming timing : report.getPartitions()) {
+            totalPartitionNanos += timing.getElapsedNanos();
+        }
+        System.out.printf("Partitions: average %.3f ms, slowest %.3f ms%n",
+                          totalPartitionNanos / 1e6 / Math.max(1, report.getPartitions().size()),
+                          report.getSlowestPartitionNanos() / 1e6);
+        
+        int mismatches = compare(sequentialAccounts, parallelAccounts);
+        if (mismatches > 0) {
+            throw new IllegalStateException("Parallel maintenance diverged from the sequential path in " 
+                                             + mismatches + " accounts");
+        }
+        System.out.println("Results identical to the sequential path");
+    }
+    
+    private static List<Account> populate(BankingService bank, int accountCount) throws Exception {
+        Random random = new Random(SEED);
+        List<Account> accounts = new ArrayList<>(accountCount);
+        Customer customer = null;
+        for (int i = 0; i < accountCount; i++) {
+            if (i % 100 == 0) {
+                customer = bank.createCustomer("Bench", "User" + i, "bench" + i + "@example.com");
+            }
+            // Balances spread around the fee waiver thresholds so every fee and interest branch runs
+            double balance = 100 + random.nextInt(300_000) / 100.0;
+            Account account = i % 2 == 0 ? bank.createSavingsAccount(customer.getCustomerId(), balance)
+                                         : bank.createCheckingAccount(customer.getCustomerId(), balance);
+            if (i % 3 == 0) {
+                // A later deposit so the average balance differs from the closing balance
+                bank.deposit(account.getAccountNumber(), random.nextInt(50_000) / 100.0 + 1);
+            }
+            accounts.add(account);
+        }
+        return accounts;
+    }
+    
+    private static int compare(List<Account> expected, List<Account> actual) {
+        int mismatches = 0;
+        for (int i = 0; i < expected.size(); i++) {
+            if (!sameState(expected.get(i), actual.get(i))) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+    
+    private static boolean sameState(Account expected, Account actual) {
+        if (expected.getBalanceCents() != actual.getBalanceCents() 
+            || expected.getPeriodActivityCount() != actual.getPeriodActivityCount()) {
+            return false;
+        }
+        List<Transaction> expectedHistory = expected.getTransactionHistory();
+        List<Transaction> actualHistory = actual.getTransactionHistory();
+        if (expectedHistory.size() != actualHistory.size()) {
+            return false;
+        }
+        for (int i = 0; i < expectedHistory.size(); i++) {
+            Transaction e = expectedHistory.get(i);
+            Transaction a = actualHistory.get(i);
+            if (e.getType() != a.getType() || e.getAmountCents() != a.getAmountCents() 
+                || e.getBalanceAfterCents() != a.getBalanceAfterCents()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
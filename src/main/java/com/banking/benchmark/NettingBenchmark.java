@@ -0,0 +1,89 @@
+package com.banking.benchmark;
+
+import com.banking.model.Customer;
+import com.banking.model.TransferInstruction;
+import com.banking.persistence.Journal;
+import com.banking.service.BankingService;
+import com.banking.service.NettingEngine;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Compares settling a batch of transfers one transfer at a time with netted settlement
+ * 
+ * The batch moves money around a small set of accounts, as sweeps and internal
+ * allocations do. Both modes run against a group-commit journal on a fresh bank.
+ * 
+ * Usage: java -cp build com.banking.benchmark.NettingBenchmark [transfers=20000] [accounts=32]
+ */
+public class NettingBenchmark {
+    private static final double INITIAL_BALANCE = 1_000_000.00;
+    private static final long FLUSH_INTERVAL_MICROS = 1_000;
+    
+    public static void main(String[] args) throws Exception {
+        int transferCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int accountCount = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        
+        System.out.printf("Netting benchmark: %,d transfers between %d accounts, group commit every %dus%n",
+                          transferCount, accountCount, FLUSH_INTERVAL_MICROS);
+        for (int round = 0; round < 2; round++) { // The first round is warm-up
+            double single = run(false, transferCount, accountCount);
+            double netted = run(true, transferCount, accountCount);
+            if (round == 1) {
+                System.out.printf("%-20s %14.0f transfers/sec%n", "transfer each", single);
+                System.out.printf("%-20s %14.0f transfers/sec%n", "netted batch", netted);
+            }
+        }
+    }
+    
+    private static double run(boolean netted, int transferCount, int accountCount) throws Exception {
+        Path directory = Files.createTempDirectory("netting-bench");
+        try (Journal journal = Journal.open(directory, Journal.Durability.GROUP_COMMIT, FLUSH_INTERVAL_MICROS)) {
+            BankingService bank = new BankingService("Benchmark Bank", "BNCH01", journal);
+            String[] accounts = new String[accountCount];
+            for (int i = 0; i < accountCount; i++) {
+                Customer customer = bank.createCustomer("Bench", "User" + i, "netting" + i + "@example.com");
+                accounts[i] = bank.createCheckingAccount(customer.getCustomerId(), INITIAL_BALANCE, false).getAccountNumber();
+            }
+            Random random = new Random(42);
+            List<TransferInstruction> transfers = new ArrayList<>(transferCount);
+            while (transfers.size() < transferCount) {
+                int from = random.nextInt(accountCount);
+                int to = random.nextInt(accountCount);
+                if (from != to) {
+                    transfers.add(TransferInstruction.of(accounts[from], accounts[to], 1 + random.nextInt(10_000) / 100.0));
+                }
+            }
+            
+            long start = System.nanoTime();
+            if (netted) {
+                NettingEngine.Result result = bank.settleNetted(transfers);
+                if (!result.isSettled()) {
+                    throw new IllegalStateException(result.toString());
+                }
+            } else {
+                for (TransferInstruction transfer : transfers) {
+                    bank.transfer(transfer.getFromAccountNumber(), transfer.getToAccountNumber(), 
+                                  transfer.getAmountCents() / 100.0);
+                }
+            }
+            return BenchmarkHarness.opsPerSecond(transferCount, System.nanoTime() - start);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+    
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
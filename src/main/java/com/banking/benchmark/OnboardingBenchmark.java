@@ -0,0 +1,100 @@
+package com.banking.benchmark;
+
+import com.banking.model.Customer;
+import com.banking.service.BankingService;
+import com.banking.exception.InvalidAccountException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures bulk customer creation with the email index against the previous linear scan
+ * 
+ * The linear scan (every new customer compared with all existing ones) is quadratic, so
+ * it is only run up to a smaller size; its rate per thousand customers shows the trend.
+ * A final run onboards the same addresses from several threads at once and checks
+ * that every address was accepted exactly once.
+ * 
+ * Usage: java -cp build com.banking.benchmark.OnboardingBenchmark [customers=1000000] [scanLimit=50000] [threads=8]
+ */
+public class OnboardingBenchmark {
+    private static final long TIMEOUT_MILLIS = 600_000;
+    
+    public static void main(String[] args) throws Exception {
+        int customerCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int scanLimit = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        
+        System.out.printf("Onboarding benchmark: %,d customers, linear scan up to %,d%n", customerCount, scanLimit);
+        System.out.printf("%-14s %12s %12s %14s%n", "Strategy", "Customers", "Millis", "Customers/sec");
+        
+        for (int size = Math.min(10_000, scanLimit); size <= scanLimit; size *= 2) {
+            report("linear scan", size, linearScan(size));
+        }
+        for (int size = 10_000; size < customerCount; size *= 10) {
+            report("email index", size, indexed(size));
+        }
+        report("email index", customerCount, indexed(customerCount));
+        
+        concurrentDuplicates(Math.min(customerCount, 100_000), threads);
+    }
+    
+    /**
+     * The duplicate check createCustomer used before the index
+     */
+    private static long linearScan(int customerCount) throws InvalidAccountException {
+        Map<String, Customer> customers = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < customerCount; i++) {
+            String email = email(i);
+            for (Customer existingCustomer : customers.values()) {
+                if (existingCustomer.getEmail().equalsIgnoreCase(email)) {
+                    throw new InvalidAccountException("Customer with email " + email + " already exists");
+                }
+            }
+            Customer customer = new Customer("Bench", "User", email);
+            customers.put(customer.getCustomerId(), customer);
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private static long indexed(int customerCount) throws InvalidAccountException {
+        BankingService bank = new BankingService("Benchmark Bank", "BNCH01");
+        long start = System.nanoTime();
+        for (int i = 0; i < customerCount; i++) {
+            bank.createCustomer("Bench", "User", email(i));
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private static void concurrentDuplicates(int customerCount, int threads) throws InterruptedException {
+        BankingService bank = new BankingService("Benchmark Bank", "BNCH01");
+        AtomicInteger rejected = new AtomicInteger();
+        // Every thread tries to onboard every address, in a different letter case per thread
+        long elapsed = BenchmarkHarness.runConcurrently(threads, threadIndex -> {
+            for (int i = 0; i < customerCount; i++) {
+                String email = threadIndex % 2 == 0 ? email(i) : email(i).toUpperCase();
+                try {
+                    bank.createCustomer("Bench", "User", email);
+                } catch (InvalidAccountException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        }, TIMEOUT_MILLIS);
+        
+        boolean correct = bank.getTotalCustomerCount() == customerCount 
+                          && rejected.get() == (threads - 1) * customerCount;
+        System.out.printf("Concurrent onboarding: %d threads, %,d attempts in %.1f ms, %,d accepted, %,d rejected: %s%n",
+                          threads, (long) threads * customerCount, elapsed / 1e6, bank.getTotalCustomerCount(), 
+                          rejected.get(), correct ? "OK" : "DUPLICATES ACCEPTED");
+    }
+    
+    private static void report(String strategy, int customers, long elapsedNanos) {
+        System.out.printf("%-14s %,12d %,12d %,14.0f%n", strategy, customers, elapsedNanos / 1_000_000,
+                          BenchmarkHarness.opsPerSecond(customers, elapsedNanos));
+    }
+    
+    private static String email(int index) {
+        return "customer" + index + "@example.com";
+    }
+}
@@ -0,0 +1,127 @@
+package com.banking.benchmark;
+
+import com.banking.model.Customer;
+import com.banking.persistence.Journal;
+import com.banking.service.BankingService;
+import com.banking.service.CommandPipeline;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Compares request threads calling a journaled BankingService directly with the same
+ * threads feeding the ring-buffer command pipeline
+ * 
+ * Every request thread issues transfers (50%), deposits and withdrawals against a small
+ * set of hot accounts. After the pipeline run the per-stage counters are printed, and
+ * a final check submits commands one at a time to confirm that each future completes
+ * only once the command's journal records are durable.
+ * 
+ * Usage: java -cp build com.banking.benchmark.PipelineBenchmark [threads=8] [opsPerThread=20000] [accounts=16]
+ */
+public class PipelineBenchmark {
+    private static final double INITIAL_BALANCE = 1_000_000.00;
+    private static final int WINDOW = 256;
+    private static final long FLUSH_INTERVAL_MICROS = 1_000;
+    private static final long TIMEOUT_MILLIS = 300_000;
+    private static final int VERIFY_OPERATIONS = 200;
+    
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int accountCount = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        
+        System.out.printf("Pipeline benchmark: %d threads x %d operations, %d accounts, group commit every %dus%n",
+                          threads, opsPerThread, accountCount, FLUSH_INTERVAL_MICROS);
+        run(false, threads, opsPerThread, accountCount); // Warm-up
+        run(true, threads, opsPerThread, accountCount);
+        System.out.printf("%-10s %12.0f ops/sec%n", "direct", run(false, threads, opsPerThread, accountCount));
+        System.out.printf("%-10s %12.0f ops/sec%n", "pipeline", run(true, threads, opsPerThread, accountCount));
+    }
+    
+    private static double run(boolean pipelined, int threads, int opsPerThread, int accountCount) throws Exception {
+        Path directory = Files.createTempDirectory("pipeline-bench");
+        long elapsed;
+        try (Journal journal = Journal.open(directory, Journal.Durability.GROUP_COMMIT, FLUSH_INTERVAL_MICROS)) {
+            BankingService bank = new BankingService("Benchmark Bank", "BNCH01", journal);
+            String[] accounts = new String[accountCount];
+            for (int i = 0; i < accountCount; i++) {
+                Customer customer = bank.createCustomer("Bench", "User" + i, "pipeline" + i + "@example.com");
+                accounts[i] = bank.createCheckingAccount(customer.getCustomerId(), INITIAL_BALANCE, false).getAccountNumber();
+            }
+            CommandPipeline pipeline = pipelined ? new CommandPipeline(bank) : null;
+            
+            elapsed = BenchmarkHarness.runConcurrently(threads, threadIndex -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                ArrayDeque<CompletableFuture<Void>> window = new ArrayDeque<>();
+                for (int i = 0; i < opsPerThread; i++) {
+                    String from = accounts[random.nextInt(accountCount)];
+                    String to = accounts[random.nextInt(accountCount)];
+                    int kind = random.nextInt(4);
+                    if (pipelined) {
+                        if (window.size() == WINDOW) {
+                            window.poll().handle((ignored, failure) -> null).join();
+                        }
+                        window.add(kind == 0 ? pipeline.deposit(from, 1.00)
+                                   : kind == 1 ? pipeline.withdraw(from, 1.00)
+                                   : pipeline.transfer(from, to, 1.00));
+                    } else {
+                        try {
+                            if (kind == 0) {
+                                bank.deposit(from, 1.00);
+                            } else if (kind == 1) {
+                                bank.withdraw(from, 1.00);
+                            } else {
+                                bank.transfer(from, to, 1.00);
+                            }
+                        } catch (Exception e) {
+                            // Declined operations count as completed work
+                        }
+                    }
+                }
+                for (CompletableFuture<Void> pending : window) {
+                    pending.handle((ignored, failure) -> null).join();
+                }
+            }, TIMEOUT_MILLIS);
+            
+            if (pipeline != null) {
+                verifyDurableOnCompletion(pipeline, journal, accounts[0]);
+                pipeline.close();
+                pipeline.getStageStats().forEach(stats -> System.out.println("  " + stats));
+            }
+        }
+        deleteDirectory(directory);
+        return BenchmarkHarness.opsPerSecond((long) threads * opsPerThread, elapsed);
+    }
+    
+    /**
+     * With a single command in flight its records are the last ones appended, so the
+     * journal must be durable up to the appended LSN when the future completes
+     */
+    private static void verifyDurableOnCompletion(CommandPipeline pipeline, Journal journal, String account) {
+        int violations = 0;
+        for (int i = 0; i < VERIFY_OPERATIONS; i++) {
+            pipeline.deposit(account, 1.00).join();
+            if (journal.getDurableLsn() < journal.getAppendedLsn()) {
+                violations++;
+            }
+        }
+        System.out.printf("  durable on completion: %d of %d commands%n", VERIFY_OPERATIONS - violations, VERIFY_OPERATIONS);
+        if (violations > 0) {
+            throw new IllegalStateException(violations + " pipeline futures completed before their records were durable");
+        }
+    }
+    
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.banking.benchmark;
+
+import com.banking.model.Account;
+import com.banking.model.Customer;
+import com.banking.model.Transaction;
+import com.banking.service.BankingService;
+import com.banking.time.ManualMicroClock;
+import com.banking.time.MicroClocks;
+import com.banking.time.SystemMicroClock;
+import java.util.Random;
+
+/**
+ * Compares a time-range query by copying and filtering the whole history against the
+ * binary-searched range stream
+ * 
+ * One account receives a posting per simulated minute; each query asks for a random
+ * one-day window.
+ * 
+ * Usage: java -cp build com.banking.benchmark.RangeQueryBenchmark [transactions=200000] [queries=200]
+ */
+public class RangeQueryBenchmark {
+    private static final long MINUTE_MICROS = 60_000_000L;
+    private static final long DAY_MICROS = 24 * 60 * MINUTE_MICROS;
+    private static volatile long sink;
+    
+    public static void main(String[] args) throws Exception {
+        int transactionCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        
+        long startMicros = 1_767_225_600_000_000L; // 2026-01-01T00:00Z
+        ManualMicroClock clock = new ManualMicroClock(startMicros, MINUTE_MICROS);
+        Account account;
+        MicroClocks.setTransactionClock(clock);
+        try {
+            BankingService bank = new BankingService("Benchmark Bank", "BB001");
+            Customer customer = bank.createCustomer("Range", "Query", "range@bench.com");
+            account = bank.createCheckingAccount(customer.getCustomerId(), 0);
+            for (int i = 0; i < transactionCount; i++) {
+                bank.deposit(account.getAccountNumber(), 1.00);
+            }
+        } finally {
+            MicroClocks.setTransactionClock(SystemMicroClock.INSTANCE);
+        }
+        long spanMicros = (long) transactionCount * MINUTE_MICROS;
+        
+        System.out.printf("Range query benchmark: %,d transactions, %d one-day queries%n", transactionCount, queries);
+        for (int round = 0; round < 2; round++) { // The first round is warm-up
+            Random random = new Random(42);
+            long scanNanos = 0;
+            long rangeNanos = 0;
+            long matched = 0;
+            for (int q = 0; q < queries; q++) {
+                long from = startMicros + (long) (random.nextDouble() * (spanMicros - DAY_MICROS));
+                long to = from + DAY_MICROS;
+                
+                long start = System.nanoTime();
+                long scanCount = 0;
+                for (Transaction transaction : account.getTransactionHistory()) {
+                    if (transaction.getTimestampMicros() >= from && transaction.getTimestampMicros() < to) {
+                        scanCount++;
+                    }
+                }
+                scanNanos += System.nanoTime() - start;
+                
+                start = System.nanoTime();
+                long rangeCount = account.streamTransactionsBetween(from, to).count();
+                rangeNanos += System.nanoTime() - start;
+                
+                if (scanCount != rangeCount) {
+                    throw new IllegalStateException("Range query returned " + rangeCount + ", expected " + scanCount);
+                }
+                matched += rangeCount;
+            }
+            sink = matched;
+            if (round == 1) {
+                System.out.printf("%-20s %12.3f ms/query%n", "copy and filter", scanNanos / 1e6 / queries);
+                System.out.printf("%-20s %12.3f ms/query  (%d matches per query)%n", "range stream",
+                                  rangeNanos / 1e6 / queries, matched / queries);
+            }
+        }
+    }
+}
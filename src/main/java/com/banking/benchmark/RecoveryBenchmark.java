@@ -0,0 +1,126 @@
+package com.banking.benchmark;
+
+import com.banking.model.*;
+import com.banking.persistence.Journal;
+import com.banking.persistence.RecoveryManager;
+import com.banking.persistence.SnapshotManager;
+import com.banking.service.BankingService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Measures startup time after a restart, replaying the whole journal versus
+ * loading a snapshot and replaying only the journal tail written after it
+ * 
+ * Large datasets need a bigger heap, roughly 1 GB per million accounts:
+ * java -Xmx12g -cp build com.banking.benchmark.RecoveryBenchmark 10000000
+ * 
+ * Usage: java -cp build com.banking.benchmark.RecoveryBenchmark [accounts=1000000] [tailOperations=100000] [directory=tmp]
+ */
+public class RecoveryBenchmark {
+    private static final int ACCOUNTS_PER_CUSTOMER = 100;
+    private static final String BANK_NAME = "Benchmark Bank";
+    private static final String BANK_CODE = "BNCH01";
+    
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int tailOperations = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        boolean temporaryDirectory = args.length <= 2;
+        Path directory = temporaryDirectory ? Files.createTempDirectory("recovery-bench") : Paths.get(args[2]);
+        Path journalDirectory = directory.resolve("journal");
+        Path snapshotDirectory = directory.resolve("snapshots");
+        
+        System.out.printf("Recovery benchmark: %,d accounts, %,d tail operations, directory %s%n",
+                          accountCount, tailOperations, directory);
+        
+        long start = System.nanoTime();
+        populate(journalDirectory, accountCount);
+        System.out.printf("Populated in %,d ms%n", millisSince(start));
+        
+        // Restart with the journal alone
+        RecoveryManager.RecoveryResult fromJournal = recover(snapshotDirectory, journalDirectory);
+        report("Journal only", fromJournal);
+        BankingService bank = fromJournal.getBank();
+        fromJournal = null;
+        
+        start = System.nanoTime();
+        Path snapshot;
+        try (SnapshotManager snapshots = new SnapshotManager(bank, snapshotDirectory)) {
+            snapshot = snapshots.takeSnapshot();
+        }
+        System.out.printf("Snapshot written in %,d ms, %,d bytes%n", millisSince(start), Files.size(snapshot));
+        
+        List<Account> accounts = bank.getAllAccounts();
+        Random random = new Random(42);
+        for (int i = 0; i < tailOperations; i++) {
+            bank.deposit(accounts.get(random.nextInt(accounts.size())).getAccountNumber(), 1.00);
+        }
+        accounts = null;
+        int expectedAccounts = bank.getTotalAccountCount();
+        double expectedBalance = bank.getTotalBankBalance();
+        bank.getJournal().close();
+        bank = null;
+        
+        // Restart with the snapshot and the journal tail
+        RecoveryManager.RecoveryResult fromSnapshot = recover(snapshotDirectory, journalDirectory);
+        report("Snapshot+tail", fromSnapshot);
+        BankingService recovered = fromSnapshot.getBank();
+        System.out.printf("State check: %s (%,d accounts, $%.2f)%n",
+                          recovered.getTotalAccountCount() == expectedAccounts 
+                          && recovered.getTotalBankBalance() == expectedBalance ? "OK" : "MISMATCH",
+                          recovered.getTotalAccountCount(), recovered.getTotalBankBalance());
+        recovered.getJournal().close();
+        
+        if (temporaryDirectory) {
+            deleteRecursively(directory);
+        }
+    }
+    
+    private static void populate(Path journalDirectory, int accountCount) throws Exception {
+        try (Journal journal = Journal.open(journalDirectory, Journal.Durability.ASYNC, 1_000)) {
+            BankingService bank = new BankingService(BANK_NAME, BANK_CODE, journal);
+            Customer customer = null;
+            for (int i = 0; i < accountCount; i++) {
+                if (i % ACCOUNTS_PER_CUSTOMER == 0) {
+                    customer = bank.createCustomer("Bench", "User" + i, "bench" + i + "@example.com");
+                }
+                if (i % 2 == 0) {
+                    bank.createSavingsAccount(customer.getCustomerId(), 500.00);
+                } else {
+                    bank.createCheckingAccount(customer.getCustomerId(), 250.00);
+                }
+            }
+        }
+    }
+    
+    private static RecoveryManager.RecoveryResult recover(Path snapshotDirectory, Path journalDirectory) throws IOException {
+        System.gc();
+        return RecoveryManager.recover(snapshotDirectory, journalDirectory, BANK_NAME, BANK_CODE, 
+                                       Journal.Durability.ASYNC, 1_000);
+    }
+    
+    private static void report(String label, RecoveryManager.RecoveryResult result) {
+        long loadMillis = result.getSnapshotLoadNanos() / 1_000_000;
+        long replayMillis = result.getReplayNanos() / 1_000_000;
+        System.out.printf("%-14s startup %,8d ms (snapshot load %,d ms, replay %,d ms of %,d records)%n",
+                          label, loadMillis + replayMillis, loadMillis, replayMillis, result.getReplayedRecords());
+    }
+    
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+    
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.banking.benchmark;
+
+import com.banking.model.Customer;
+import com.banking.service.BankingService;
+import com.banking.service.ShardedExecutor;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the lock-based BankingService with the sharded single-writer executor
+ * 
+ * Every client thread issues a mix of transfers (50%), deposits and withdrawals between
+ * random accounts. In lock-based mode the clients call the service directly; in sharded
+ * mode there is one shard per client and each client keeps a window of operations in
+ * flight. Both modes must end with the opening total plus accepted deposits minus
+ * accepted withdrawals.
+ * 
+ * Usage: java -cp build com.banking.benchmark.ShardedBenchmark [cores=1,2,4,8,16,32] [opsPerThread=100000] [accounts=1024]
+ */
+public class ShardedBenchmark {
+    private static final double INITIAL_BALANCE = 1_000_000.00;
+    private static final int WINDOW = 512;
+    private static final long TIMEOUT_MILLIS = 300_000;
+    
+    public static void main(String[] args) throws Exception {
+        int[] coreCounts = BenchmarkHarness.parseCounts(args.length > 0 ? args[0] : "1,2,4,8,16,32");
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int accountCount = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        
+        System.out.printf("Sharded benchmark: %d operations per thread, %d accounts, %d available processors%n",
+                          opsPerThread, accountCount, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %15s %15s %10s%n", "Cores", "Locks ops/sec", "Shards ops/sec", "Ratio");
+        
+        run(false, coreCounts[0], opsPerThread, accountCount); // Warm-up
+        run(true, coreCounts[0], opsPerThread, accountCount);
+        for (int cores : coreCounts) {
+            double locked = run(false, cores, opsPerThread, accountCount);
+            double sharded = run(true, cores, opsPerThread, accountCount);
+            System.out.printf("%-8d %15.0f %15.0f %9.2fx%n", cores, locked, sharded, sharded / locked);
+        }
+    }
+    
+    private static double run(boolean sharded, int threads, int opsPerThread, int accountCount) throws Exception {
+        BankingService bank = new BankingService("Benchmark Bank", "BNCH01");
+        String[] accounts = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            Customer customer = bank.createCustomer("Bench", "User" + i, "shard" + i + "@example.com");
+            accounts[i] = bank.createCheckingAccount(customer.getCustomerId(), INITIAL_BALANCE, false).getAccountNumber();
+        }
+        double totalBefore = bank.getTotalBankBalance();
+        ShardedExecutor executor = sharded ? new ShardedExecutor(bank, threads) : null;
+        LongAdder netDollars = new LongAdder();
+        
+        long elapsed = BenchmarkHarness.runConcurrently(threads, threadIndex -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            ArrayDeque<CompletableFuture<Void>> window = new ArrayDeque<>();
+            for (int i = 0; i < opsPerThread; i++) {
+                String from = accounts[random.nextInt(accountCount)];
+                String to = accounts[random.nextInt(accountCount)];
+                int kind = random.nextInt(4);
+                if (sharded) {
+                    if (window.size() == WINDOW) {
+                        window.poll().handle((ignored, failure) -> null).join();
+                    }
+                    CompletableFuture<Void> operation = kind == 0 ? executor.deposit(from, 1.00)
+                                                      : kind == 1 ? executor.withdraw(from, 1.00)
+                                                      : executor.transfer(from, to, 1.00);
+                    // Waiting on the dependent stage makes sure the tally is updated before the check
+                    window.add(kind < 2 ? operation.thenRun(() -> netDollars.add(kind == 0 ? 1 : -1)) : operation);
+                } else {
+                    try {
+                        if (kind == 0) {
+                            bank.deposit(from, 1.00);
+                            netDollars.add(1);
+                        } else if (kind == 1) {
+                            bank.withdraw(from, 1.00);
+                            netDollars.add(-1);
+                        } else {
+                            bank.transfer(from, to, 1.00);
+                        }
+                    } catch (Exception e) {
+                        // Declined operations count as completed work
+                    }
+                }
+            }
+            for (CompletableFuture<Void> pending : window) {
+                pending.handle((ignored, failure) -> null).join();
+            }
+        }, TIMEOUT_MILLIS);
+        
+        if (executor != null) {
+            executor.close();
+        }
+        double expected = totalBefore + netDollars.sum();
+        if (Math.abs(bank.getTotalBankBalance() - expected) > 0.005) {
+            throw new IllegalStateException(String.format("Balances do not add up: expected $%.2f, found $%.2f",
+                                                          expected, bank.getTotalBankBalance()));
+        }
+        return BenchmarkHarness.opsPerSecond((long) threads * opsPerThread, elapsed);
+    }
+}
@@ -0,0 +1,76 @@
+package com.banking.benchmark;
+
+import com.banking.model.Transaction;
+import com.banking.time.CoarseMicroClock;
+import com.banking.time.MicroClock;
+import com.banking.time.MicroClocks;
+import com.banking.time.SystemMicroClock;
+import com.banking.time.Timestamps;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Measures the cost of taking and rendering transaction timestamps
+ * 
+ * Compares LocalDateTime.now() with the system and coarse micro clocks, transaction
+ * creation under each clock, and formatting with a per-call ofPattern formatter against
+ * the shared formatter. Allocation is read from the thread's allocated-bytes counter.
+ * 
+ * Usage: java -cp build com.banking.benchmark.TimestampBenchmark [operations=5000000]
+ */
+public class TimestampBenchmark {
+    private static final DateTimeFormatter SHARED_FORMAT = Timestamps.systemZoneFormatter("yyyy-MM-dd HH:mm:ss");
+    private static volatile long sink;
+    
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        long micros = SystemMicroClock.INSTANCE.currentTimeMicros();
+        
+        System.out.printf("Timestamp benchmark: %,d operations%n", operations);
+        System.out.printf("%-28s %12s %12s%n", "Case", "ns/op", "bytes/op");
+        
+        try (CoarseMicroClock coarse = new CoarseMicroClock(1_000)) {
+            for (int round = 0; round < 2; round++) { // The first round is warm-up
+                boolean report = round == 1;
+                run("LocalDateTime.now()", operations, report, i -> LocalDateTime.now().getNano());
+                run("system micro clock", operations, report, i -> SystemMicroClock.INSTANCE.currentTimeMicros());
+                run("coarse micro clock", operations, report, i -> coarse.currentTimeMicros());
+                run("new Transaction (system)", operations, report, newTransaction(SystemMicroClock.INSTANCE));
+                run("new Transaction (coarse)", operations, report, newTransaction(coarse));
+                run("format, ofPattern per call", operations / 10, report,
+                    i -> Timestamps.toLocalDateTime(micros + i)
+                                   .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")).length());
+                run("format, shared formatter", operations / 10, report,
+                    i -> Timestamps.format(micros + i, SHARED_FORMAT).length());
+            }
+        } finally {
+            MicroClocks.setTransactionClock(SystemMicroClock.INSTANCE);
+        }
+    }
+    
+    private static LongUnaryOperator newTransaction(MicroClock clock) {
+        MicroClocks.setTransactionClock(clock);
+        return i -> new Transaction("100001", Transaction.TransactionType.DEPOSIT, 100, "Cash deposit", i)
+                        .getTimestampMicros();
+    }
+    
+    private static void run(String name, int operations, boolean report, LongUnaryOperator operation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < operations; i++) {
+            checksum += operation.applyAsLong(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        sink = checksum;
+        if (report) {
+            System.out.printf("%-28s %12.1f %12.1f%n", name, (double) elapsed / operations,
+                              (double) allocated / operations);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.banking.benchmark;
+
+import com.banking.model.*;
+import com.banking.service.BankingService;
+import com.banking.exception.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput benchmark for BankingService.transfer
+ * 
+ * Two scenarios are measured for each thread count:
+ * - contended: every thread transfers randomly A->B or B->A between the same two accounts,
+ *   which deadlocks immediately without ordered locking
+ * - disjoint: every thread owns its own pair of accounts, which should scale with cores
+ * 
+ * Usage: java -cp build com.banking.benchmark.TransferBenchmark [threads=1,2,4,8] [transfersPerThread=200000]
+ */
+public class TransferBenchmark {
+    private static final double INITIAL_BALANCE = 1_000_000.00;
+    private static final double TRANSFER_AMOUNT = 1.00;
+    private static final long TIMEOUT_MILLIS = 60_000;
+    
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = BenchmarkHarness.parseCounts(args.length > 0 ? args[0] : "1,2,4,8");
+        int transfersPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        
+        System.out.printf("Transfer benchmark: %d transfers per thread, %d available processors%n",
+                          transfersPerThread, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-10s %8s %15s %10s %10s%n", "Scenario", "Threads", "Transfers/sec", "Scaling", "Declined");
+        
+        for (String scenario : new String[] {"contended", "disjoint"}) {
+            run(scenario.equals("contended"), threadCounts[0], transfersPerThread); // Warm-up
+            double baseline = 0;
+            for (int threads : threadCounts) {
+                Result result = run(scenario.equals("contended"), threads, transfersPerThread);
+                if (baseline == 0) {
+                    baseline = result.opsPerSecond / threads;
+                }
+                System.out.printf("%-10s %8d %15.0f %9.2fx %10d%n", scenario, threads,
+                                  result.opsPerSecond, result.opsPerSecond / baseline, result.declined);
+            }
+        }
+    }
+    
+    private static Result run(boolean contended, int threads, int transfersPerThread) throws Exception {
+        BankingService bank = new BankingService("Benchmark Bank", "BNCH01");
+        int pairs = contended ? 1 : threads;
+        String[][] accountPairs = new String[pairs][2];
+        for (int i = 0; i < pairs; i++) {
+            Customer customer = bank.createCustomer("Bench", "User" + i, "bench" + i + "@example.com");
+            accountPairs[i][0] = bank.createCheckingAccount(customer.getCustomerId(), INITIAL_BALANCE, false).getAccountNumber();
+            accountPairs[i][1] = bank.createCheckingAccount(customer.getCustomerId(), INITIAL_BALANCE, false).getAccountNumber();
+        }
+        double totalBefore = bank.getTotalBankBalance();
+        LongAdder declined = new LongAdder();
+        
+        long elapsed = BenchmarkHarness.runConcurrently(threads, threadIndex -> {
+            String[] pair = accountPairs[contended ? 0 : threadIndex];
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < transfersPerThread; i++) {
+                boolean forward = random.nextBoolean();
+                try {
+                    bank.transfer(forward ? pair[0] : pair[1], forward ? pair[1] : pair[0], TRANSFER_AMOUNT);
+                } catch (InsufficientFundsException e) {
+                    declined.increment();
+                }
+            }
+        }, TIMEOUT_MILLIS);
+        
+        double totalAfter = bank.getTotalBankBalance();
+        if (Math.abs(totalAfter - totalBefore) > 0.005) {
+            throw new IllegalStateException(String.format("Money not conserved: before $%.2f, after $%.2f",
+                                                          totalBefore, totalAfter));
+        }
+        return new Result(BenchmarkHarness.opsPerSecond((long) threads * transfersPerThread, elapsed), declined.sum());
+    }
+    
+    private static final class Result {
+        final double opsPerSecond;
+        final long declined;
+        
+        Result(double opsPerSecond, long declined) {
+            this.opsPerSecond = opsPerSecond;
+            this.declined = declined;
+        }
+    }
+}
@@ -2,13 +2,34 @@ package com.banking.exception;
 
 /**
  * Exception thrown when an account is not found
+ * Lookups of unknown accounts are an expected outcome, so no stack trace is captured
+ * and the message is only built when it is read.
  */
 public class AccountNotFoundException extends Exception {
+    private final String accountNumber;
+    private String message;
+    
     public AccountNotFoundException(String accountNumber) {
-        super("Account not found: " + accountNumber);
+        super(null, null, true, false);
+        this.accountNumber = accountNumber;
     }
     
     public AccountNotFoundException(String message, Throwable cause) {
         super(message, cause);
+        this.accountNumber = null;
+        this.message = message;
+    }
+    
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = "Account not found: " + accountNumber;
+        }
+        return message;
+    }
+    
+    /** @return The account number that was looked up, or null if not known */
+    public String getAccountNumber() { 
+        return accountNumber; 
     }
 }
@@ -2,18 +2,31 @@ package com.banking.exception;
 
 /**
  * Exception thrown when there are insufficient funds for a transaction
+ * 
+ * Declines are an expected, frequent outcome, so the exception captures no stack trace
+ * and only formats its message when the message is read. Callers that just need the
+ * outcome can use the status-returning methods such as Account.tryWithdraw instead.
  */
 public class InsufficientFundsException extends Exception {
     private final double requestedAmount;
     private final double availableBalance;
+    private String message;
     
     public InsufficientFundsException(double requestedAmount, double availableBalance) {
-        super("Insufficient funds. Requested: $" + String.format("%.2f", requestedAmount) + 
-              ", Available: $" + String.format("%.2f", availableBalance));
+        super(null, null, true, false);
         this.requestedAmount = requestedAmount;
         this.availableBalance = availableBalance;
     }
     
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = String.format("Insufficient funds. Requested: $%.2f, Available: $%.2f", 
+                                    requestedAmount, availableBalance);
+        }
+        return message;
+    }
+    
     public double getRequestedAmount() { 
         return requestedAmount; 
     }
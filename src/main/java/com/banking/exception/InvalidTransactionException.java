@@ -2,10 +2,12 @@ package com.banking.exception;
 
 /**
  * Exception thrown for invalid transactions
+ * Rejected transactions are an expected outcome, so the message-only form captures no
+ * stack trace; the form with a cause keeps it for diagnosing the underlying failure.
  */
 public class InvalidTransactionException extends Exception {
     public InvalidTransactionException(String message) {
-        super(message);
+        super(message, null, true, false);
     }
     
     public InvalidTransactionException(String message, Throwable cause) {
@@ -0,0 +1,321 @@
+package com.banking.history;
+
+import com.banking.model.DescriptionTemplate;
+import com.banking.model.Transaction;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Memory-mapped, column-oriented log of the transactions of all accounts
+ * 
+ * Rows are appended to fixed-size segment files. Each segment stores parallel columns
+ * for transaction number, account ID, type ordinal, amount, timestamp (epoch
+ * microseconds), balance after, description template and argument, and description
+ * text ID, where texts such as check payees are kept once in a dictionary. Scans read
+ * single columns straight from the mapped files without creating Transaction objects.
+ * Different segments can be scanned in parallel.
+ * 
+ * Appends are serialized by the log; a row is visible to scans once its segment's
+ * row count has been published. The log is a secondary representation: it is created
+ * empty and refilled from the journal and snapshots on recovery.
+ */
+public class ColumnarTransactionLog implements AutoCloseable {
+    public static final int DEFAULT_ROWS_PER_SEGMENT = 1 << 20;
+    
+    private static final int MAGIC = 0x424B434C; // "BKCL"
+    private static final int HEADER_BYTES = 64;
+    private static final int ROW_COUNT_OFFSET = 8;
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+    
+    private final Path directory;
+    private final int rowsPerSegment;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> descriptionIds = new HashMap<>();
+    private volatile String[] descriptions = new String[64];
+    private int descriptionCount;
+    
+    /**
+     * One mapped segment file; all accessors read the mapped columns directly
+     */
+    public static final class Segment {
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final int numberOffset;
+        private final int accountOffset;
+        private final int typeOffset;
+        private final int amountOffset;
+        private final int timestampOffset;
+        private final int balanceOffset;
+        private final int templateOffset;
+        private final int argumentOffset;
+        private final int descriptionOffset;
+        private volatile int rowCount;
+        
+        Segment(MappedByteBuffer buffer, int capacity) {
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.numberOffset = HEADER_BYTES;
+            this.accountOffset = numberOffset + capacity * Long.BYTES;
+            this.amountOffset = accountOffset + capacity * Long.BYTES;
+            this.timestampOffset = amountOffset + capacity * Long.BYTES;
+            this.balanceOffset = timestampOffset + capacity * Long.BYTES;
+            this.argumentOffset = balanceOffset + capacity * Long.BYTES;
+            this.descriptionOffset = argumentOffset + capacity * Long.BYTES;
+            this.typeOffset = descriptionOffset + capacity * Integer.BYTES;
+            this.templateOffset = typeOffset + capacity;
+        }
+        
+        static long fileSize(int capacity) {
+            return HEADER_BYTES + (long) capacity * (6 * Long.BYTES + Integer.BYTES + 2);
+        }
+        
+        /** @return Rows readable in this segment */
+        public int rowCount() { 
+            return rowCount; 
+        }
+        
+        public long transactionNumber(int row) {
+            return buffer.getLong(numberOffset + row * Long.BYTES);
+        }
+        
+        public long accountId(int row) {
+            return buffer.getLong(accountOffset + row * Long.BYTES);
+        }
+        
+        public int typeOrdinal(int row) {
+            return buffer.get(typeOffset + row);
+        }
+        
+        public long amountCents(int row) {
+            return buffer.getLong(amountOffset + row * Long.BYTES);
+        }
+        
+        /**
+         * @return The row's timestamp in epoch microseconds
+         */
+        public long timestampMicros(int row) {
+            return buffer.getLong(timestampOffset + row * Long.BYTES);
+        }
+        
+        public long balanceAfterCents(int row) {
+            return buffer.getLong(balanceOffset + row * Long.BYTES);
+        }
+        
+        public int descriptionTemplateOrdinal(int row) {
+            return buffer.get(templateOffset + row);
+        }
+        
+        public long descriptionArgument(int row) {
+            return buffer.getLong(argumentOffset + row * Long.BYTES);
+        }
+        
+        public int descriptionId(int row) {
+            return buffer.getInt(descriptionOffset + row * Integer.BYTES);
+        }
+        
+        private void write(int row, Transaction transaction, long accountId, int descriptionId) {
+            buffer.putLong(numberOffset + row * Long.BYTES, transaction.getTransactionNumber());
+            buffer.putLong(accountOffset + row * Long.BYTES, accountId);
+            buffer.put(typeOffset + row, (byte) transaction.getType().ordinal());
+            buffer.putLong(amountOffset + row * Long.BYTES, transaction.getAmountCents());
+            buffer.putLong(timestampOffset + row * Long.BYTES, transaction.getTimestampMicros());
+            buffer.putLong(balanceOffset + row * Long.BYTES, transaction.getBalanceAfterCents());
+            buffer.put(templateOffset + row, (byte) transaction.getDescriptionTemplate().ordinal());
+            buffer.putLong(argumentOffset + row * Long.BYTES, transaction.getDescriptionArgument());
+            buffer.putInt(descriptionOffset + row * Integer.BYTES, descriptionId);
+            buffer.putInt(ROW_COUNT_OFFSET, row + 1);
+            rowCount = row + 1;
+        }
+    }
+    
+    private ColumnarTransactionLog(Path directory, int rowsPerSegment) {
+        this.directory = directory;
+        this.rowsPerSegment = rowsPerSegment;
+    }
+    
+    /**
+     * Create an empty log, replacing segment files left in the directory
+     * @param directory Directory for the segment files, created if missing
+     * @param rowsPerSegment Rows per segment file
+     * @return The new log
+     * @throws IOException if the directory cannot be prepared
+     */
+    public static ColumnarTransactionLog create(Path directory, int rowsPerSegment) throws IOException {
+        if (rowsPerSegment < 1 || Segment.fileSize(rowsPerSegment) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rows per segment must fit a 2 GB mapping");
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().startsWith("columns-")) {
+                    Files.delete(file);
+                }
+            }
+        }
+        return new ColumnarTransactionLog(directory, rowsPerSegment);
+    }
+    
+    /**
+     * Append a transaction
+     * @param accountId Numeric account ID
+     * @param transaction The transaction
+     * @return Global row number of the appended transaction
+     */
+    public synchronized long append(long accountId, Transaction transaction) {
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.rowCount == segment.capacity) {
+            segment = newSegment();
+        }
+        int row = segment.rowCount;
+        segment.write(row, transaction, accountId, descriptionId(transaction.getDescriptionText()));
+        return (long) (segments.size() - 1) * rowsPerSegment + row;
+    }
+    
+    /**
+     * Read one row's timestamp without rebuilding the transaction
+     * @param rowNumber Global row number returned by append
+     * @return Timestamp in epoch microseconds
+     */
+    public long timestampMicros(long rowNumber) {
+        return segments.get((int) (rowNumber / rowsPerSegment)).timestampMicros((int) (rowNumber % rowsPerSegment));
+    }
+    
+    /**
+     * Read one row's balance after the transaction without rebuilding the transaction
+     * @param rowNumber Global row number returned by append
+     * @return Balance in cents
+     */
+    public long balanceAfterCents(long rowNumber) {
+        return segments.get((int) (rowNumber / rowsPerSegment)).balanceAfterCents((int) (rowNumber % rowsPerSegment));
+    }
+    
+    /**
+     * Rebuild the transaction stored in a row
+     * @param rowNumber Global row number returned by append
+     * @param accountNumber Account number to put on the transaction
+     * @return A new Transaction object
+     */
+    public Transaction read(long rowNumber, String accountNumber) {
+        Segment segment = segments.get((int) (rowNumber / rowsPerSegment));
+        int row = (int) (rowNumber % rowsPerSegment);
+        return new Transaction(segment.transactionNumber(row), accountNumber, TYPES[segment.typeOrdinal(row)], 
+                               segment.amountCents(row), 
+                               DescriptionTemplate.fromOrdinal(segment.descriptionTemplateOrdinal(row)), 
+                               segment.descriptionArgument(row), description(segment.descriptionId(row)), 
+                               segment.balanceAfterCents(row), segment.timestampMicros(row));
+    }
+    
+    /**
+     * Scan every segment in parallel and combine the per-segment results
+     * @param segmentScan Computes a partial result from one segment
+     * @param combiner Merges two partial results
+     * @param identity Result for an empty log
+     * @return The combined result
+     */
+    public <R> R scan(Function<Segment, R> segmentScan, BinaryOperator<R> combiner, R identity) {
+        return new ArrayList<>(segments).parallelStream().map(segmentScan).reduce(identity, combiner);
+    }
+    
+    /**
+     * Example column scan: total amount per transaction type
+     * @return Sums in cents indexed by TransactionType ordinal
+     */
+    public long[] sumAmountsByType() {
+        return scan(segment -> {
+            long[] sums = new long[TYPES.length];
+            int rows = segment.rowCount();
+            for (int row = 0; row < rows; row++) {
+                sums[segment.typeOrdinal(row)] += segment.amountCents(row);
+            }
+            return sums;
+        }, (left, right) -> {
+            long[] sums = new long[TYPES.length];
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] = left[i] + right[i];
+            }
+            return sums;
+        }, new long[TYPES.length]);
+    }
+    
+    /**
+     * @return A transaction store for one account that keeps its history in this log
+     */
+    public TransactionStore newStore(String accountNumber) {
+        return new ColumnarTransactionStore(this, accountNumber);
+    }
+    
+    /**
+     * @param descriptionId ID from the description text column
+     * @return The description text, or null
+     */
+    public String description(int descriptionId) {
+        return descriptionId < 0 ? null : descriptions[descriptionId];
+    }
+    
+    public List<Segment> getSegments() { 
+        return new ArrayList<>(segments); 
+    }
+    
+    public long getRowCount() {
+        int count = segments.size();
+        return count == 0 ? 0 : (long) (count - 1) * rowsPerSegment + segments.get(count - 1).rowCount();
+    }
+    
+    public Path getDirectory() { 
+        return directory; 
+    }
+    
+    /**
+     * Flush the mapped segments to disk
+     */
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+    
+    private int descriptionId(String description) {
+        if (description == null) {
+            return -1;
+        }
+        Integer id = descriptionIds.get(description);
+        if (id == null) {
+            id = descriptionCount++;
+            if (id == descriptions.length) {
+                descriptions = Arrays.copyOf(descriptions, id * 2);
+            }
+            descriptions[id] = description;
+            descriptionIds.put(description, id);
+        }
+        return id;
+    }
+    
+    private Segment newSegment() {
+        Path file = directory.resolve(String.format("columns-%06d.seg", segments.size()));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, 
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Segment.fileSize(rowsPerSegment));
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, rowsPerSegment);
+            Segment segment = new Segment(buffer, rowsPerSegment);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create columnar segment " + file, e);
+        }
+    }
+}
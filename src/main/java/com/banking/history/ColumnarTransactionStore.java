@@ -0,0 +1,77 @@
+package com.banking.history;
+
+import com.banking.model.Transaction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transaction store for one account backed by a shared ColumnarTransactionLog
+ * The account only keeps the row numbers of its transactions on the heap
+ */
+public class ColumnarTransactionStore implements TransactionStore {
+    private final ColumnarTransactionLog log;
+    private final String accountNumber;
+    private final long accountId;
+    private long[] rows = new long[8];
+    private int size;
+    
+    /**
+     * @param log Log holding the transactions
+     * @param accountNumber Numeric account number
+     */
+    public ColumnarTransactionStore(ColumnarTransactionLog log, String accountNumber) {
+        this.log = log;
+        this.accountNumber = accountNumber;
+        this.accountId = Long.parseLong(accountNumber);
+    }
+    
+    @Override
+    public void append(Transaction transaction) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        rows[size++] = log.append(accountId, transaction);
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Transaction index " + index + " of " + size);
+        }
+        return log.read(rows[index], accountNumber);
+    }
+    
+    @Override
+    public long timestampMicros(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Transaction index " + index + " of " + size);
+        }
+        return log.timestampMicros(rows[index]);
+    }
+    
+    @Override
+    public long balanceAfterCents(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Transaction index " + index + " of " + size);
+        }
+        return log.balanceAfterCents(rows[index]);
+    }
+    
+    @Override
+    public List<Transaction> range(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range " + fromIndex + ".." + toIndex + " of " + size);
+        }
+        List<Transaction> result = new ArrayList<>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            result.add(log.read(rows[i], accountNumber));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package com.banking.history;
+
+import com.banking.model.Transaction;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transaction store keeping every Transaction object on the heap
+ */
+public class InMemoryTransactionStore implements TransactionStore {
+    private final List<Transaction> transactions = new ArrayList<>();
+    
+    @Override
+    public void append(Transaction transaction) {
+        transactions.add(transaction);
+    }
+    
+    @Override
+    public int size() {
+        return transactions.size();
+    }
+    
+    @Override
+    public Transaction get(int index) {
+        return transactions.get(index);
+    }
+    
+    @Override
+    public List<Transaction> range(int fromIndex, int toIndex) {
+        return new ArrayList<>(transactions.subList(fromIndex, toIndex));
+    }
+}
@@ -0,0 +1,314 @@
+package com.banking.history;
+
+import com.banking.model.DescriptionTemplate;
+import com.banking.model.Transaction;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transaction store with a hot tail of objects and compressed cold segments
+ * 
+ * The most recent transactions stay as Transaction objects. Whenever the tail grows a
+ * full segment beyond its limit, the oldest segment is encoded into off-heap memory
+ * sliced from a shared arena and its objects become garbage. Cold segments are decoded
+ * on demand, one whole segment at a time, into fresh Transaction objects. The first
+ * timestamp of every cold segment stays on the heap so time-range searches decode at
+ * most one segment.
+ * 
+ * Segment encoding, per transaction: zig-zag varint deltas of transaction number,
+ * balance after and epoch-microsecond timestamp against the previous transaction, the
+ * type ordinal, the amount as a varint, the description template ordinal and argument,
+ * and the description text either inline (first use in the segment) or as a
+ * back-reference to an earlier one.
+ */
+public class TieredTransactionStore implements TransactionStore {
+    public static final int DEFAULT_HOT_LIMIT = 64;
+    public static final int DEFAULT_SEGMENT_SIZE = 256;
+    
+    private static final int NULL_DESCRIPTION = 0;
+    private static final int INLINE_DESCRIPTION = 1;
+    private static final int FIRST_REFERENCE = 2;
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+    
+    private static final SegmentArena ARENA = new SegmentArena();
+    
+    private final String accountNumber;
+    private final int hotLimit;
+    private final int segmentSize;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private long[] segmentFirstMicros = new long[4];
+    private final ArrayList<Transaction> hot = new ArrayList<>();
+    private long sealedBytes;
+    
+    /**
+     * Off-heap memory shared by the cold segments of every store
+     * Segments are sliced from large direct chunks instead of each paying for its own
+     * allocateDirect call; sealed segments are never freed individually, so a chunk is
+     * released by the garbage collector once no segment sliced from it is reachable.
+     */
+    private static final class SegmentArena {
+        private static final int CHUNK_BYTES = 1 << 20;
+        private static final int MAX_SLICE_BYTES = CHUNK_BYTES / 8;
+        
+        private ByteBuffer chunk; // guarded by this
+        
+        /**
+         * @param encoded Encoded segment, positioned at its start
+         * @return Read-only off-heap copy of the segment
+         */
+        synchronized ByteBuffer copyOf(ByteBuffer encoded) {
+            int length = encoded.remaining();
+            ByteBuffer segment;
+            if (length > MAX_SLICE_BYTES) {
+                segment = ByteBuffer.allocateDirect(length); // Rare oversized segment gets its own buffer
+            } else {
+                if (chunk == null || chunk.remaining() < length) {
+                    chunk = ByteBuffer.allocateDirect(CHUNK_BYTES);
+                }
+                segment = chunk.slice(chunk.position(), length);
+                chunk.position(chunk.position() + length);
+            }
+            segment.put(encoded);
+            segment.flip();
+            return segment.asReadOnlyBuffer();
+        }
+    }
+    
+    public TieredTransactionStore(String accountNumber) {
+        this(accountNumber, DEFAULT_HOT_LIMIT, DEFAULT_SEGMENT_SIZE);
+    }
+    
+    /**
+     * @param accountNumber Account the transactions belong to
+     * @param hotLimit Transactions always kept as objects
+     * @param segmentSize Transactions per cold segment
+     */
+    public TieredTransactionStore(String accountNumber, int hotLimit, int segmentSize) {
+        if (hotLimit < 0 || segmentSize < 1) {
+            throw new IllegalArgumentException("Invalid tier sizes");
+        }
+        this.accountNumber = accountNumber;
+        this.hotLimit = hotLimit;
+        this.segmentSize = segmentSize;
+    }
+    
+    @Override
+    public void append(Transaction transaction) {
+        hot.add(transaction);
+        if (hot.size() >= hotLimit + segmentSize) {
+            if (segments.size() == segmentFirstMicros.length) {
+                segmentFirstMicros = Arrays.copyOf(segmentFirstMicros, segments.size() * 2);
+            }
+            segmentFirstMicros[segments.size()] = hot.get(0).getTimestampMicros();
+            ByteBuffer segment = encode(hot.subList(0, segmentSize));
+            segments.add(segment);
+            sealedBytes += segment.capacity();
+            hot.subList(0, segmentSize).clear();
+        }
+    }
+    
+    @Override
+    public int size() {
+        return sealedCount() + hot.size();
+    }
+    
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Transaction index " + index + " of " + size());
+        }
+        int sealed = sealedCount();
+        if (index >= sealed) {
+            return hot.get(index - sealed);
+        }
+        return decode(segments.get(index / segmentSize)).get(index % segmentSize);
+    }
+    
+    @Override
+    public int indexAtOrAfter(long timestampMicros) {
+        int sealed = sealedCount();
+        if (sealed == 0 || (!hot.isEmpty() && hot.get(0).getTimestampMicros() < timestampMicros)) {
+            int low = sealed;
+            int high = size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (hot.get(middle - sealed).getTimestampMicros() < timestampMicros) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+        
+        // Last segment starting before the time; the answer lies in it or at the next segment's start
+        int low = 0;
+        int high = segments.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (segmentFirstMicros[middle] < timestampMicros) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == 0) {
+            return 0;
+        }
+        int segment = low - 1;
+        List<Transaction> decoded = decode(segments.get(segment));
+        int offset = 0;
+        while (offset < decoded.size() && decoded.get(offset).getTimestampMicros() < timestampMicros) {
+            offset++;
+        }
+        return segment * segmentSize + offset;
+    }
+    
+    @Override
+    public List<Transaction> range(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range " + fromIndex + ".." + toIndex + " of " + size());
+        }
+        List<Transaction> result = new ArrayList<>(toIndex - fromIndex);
+        int sealed = sealedCount();
+        int index = fromIndex;
+        while (index < Math.min(toIndex, sealed)) {
+            int segment = index / segmentSize;
+            int segmentEnd = Math.min((segment + 1) * segmentSize, toIndex);
+            result.addAll(decode(segments.get(segment)).subList(index % segmentSize, segmentEnd - segment * segmentSize));
+            index = segmentEnd;
+        }
+        if (index < toIndex) {
+            result.addAll(hot.subList(index - sealed, toIndex - sealed));
+        }
+        return result;
+    }
+    
+    /**
+     * @return Number of transactions held in cold segments
+     */
+    public int sealedCount() {
+        return segments.size() * segmentSize;
+    }
+    
+    /**
+     * @return Off-heap bytes used by cold segments
+     */
+    public long getSealedBytes() { 
+        return sealedBytes; 
+    }
+    
+    private static ByteBuffer encode(List<Transaction> transactions) {
+        ByteBuffer buffer = ByteBuffer.allocate(transactions.size() * 32);
+        List<String> descriptions = new ArrayList<>();
+        long previousNumber = 0;
+        long previousBalance = 0;
+        long previousMicros = 0;
+        for (Transaction transaction : transactions) {
+            buffer = ensureRemaining(buffer, 64);
+            putVarLong(buffer, zigZag(transaction.getTransactionNumber() - previousNumber));
+            buffer.put((byte) transaction.getType().ordinal());
+            putVarLong(buffer, zigZag(transaction.getAmountCents()));
+            putVarLong(buffer, zigZag(transaction.getBalanceAfterCents() - previousBalance));
+            putVarLong(buffer, zigZag(transaction.getTimestampMicros() - previousMicros));
+            previousNumber = transaction.getTransactionNumber();
+            previousBalance = transaction.getBalanceAfterCents();
+            previousMicros = transaction.getTimestampMicros();
+            buffer.put((byte) transaction.getDescriptionTemplate().ordinal());
+            putVarLong(buffer, zigZag(transaction.getDescriptionArgument()));
+            
+            String description = transaction.getDescriptionText();
+            int reference = description != null ? descriptions.indexOf(description) : -1;
+            if (description == null) {
+                putVarLong(buffer, NULL_DESCRIPTION);
+            } else if (reference >= 0) {
+                putVarLong(buffer, FIRST_REFERENCE + reference);
+            } else {
+                byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+                buffer = ensureRemaining(buffer, bytes.length + 10);
+                putVarLong(buffer, INLINE_DESCRIPTION);
+                putVarLong(buffer, bytes.length);
+                buffer.put(bytes);
+                descriptions.add(description);
+            }
+        }
+        
+        buffer.flip();
+        return ARENA.copyOf(buffer);
+    }
+    
+    private List<Transaction> decode(ByteBuffer segment) {
+        ByteBuffer buffer = segment.duplicate();
+        List<Transaction> transactions = new ArrayList<>(segmentSize);
+        List<String> descriptions = new ArrayList<>();
+        long number = 0;
+        long balance = 0;
+        long micros = 0;
+        while (buffer.hasRemaining()) {
+            number += unZigZag(getVarLong(buffer));
+            Transaction.TransactionType type = TYPES[buffer.get()];
+            long amount = unZigZag(getVarLong(buffer));
+            balance += unZigZag(getVarLong(buffer));
+            micros += unZigZag(getVarLong(buffer));
+            DescriptionTemplate template = DescriptionTemplate.fromOrdinal(buffer.get());
+            long descriptionArgument = unZigZag(getVarLong(buffer));
+            
+            int code = (int) getVarLong(buffer);
+            String description;
+            if (code == NULL_DESCRIPTION) {
+                description = null;
+            } else if (code == INLINE_DESCRIPTION) {
+                byte[] bytes = new byte[(int) getVarLong(buffer)];
+                buffer.get(bytes);
+                description = new String(bytes, StandardCharsets.UTF_8);
+                descriptions.add(description);
+            } else {
+                description = descriptions.get(code - FIRST_REFERENCE);
+            }
+            transactions.add(new Transaction(number, accountNumber, type, amount, template, descriptionArgument, 
+                                             description, balance, micros));
+        }
+        return transactions;
+    }
+    
+    private static ByteBuffer ensureRemaining(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + required));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+    
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
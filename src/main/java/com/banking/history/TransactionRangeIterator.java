@@ -0,0 +1,76 @@
+package com.banking.history;
+
+import com.banking.model.Transaction;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Lazy iterator over a fixed range of positions in a transaction store
+ * Histories only ever grow, so the range stays valid while the account keeps posting;
+ * transactions are copied out one chunk at a time, each chunk under the owner's lock.
+ */
+public final class TransactionRangeIterator implements Iterator<Transaction> {
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+    
+    private final TransactionStore store;
+    private final Lock lock;
+    private final int toIndex;
+    private final int chunkSize;
+    private int nextIndex;
+    private List<Transaction> chunk = Collections.emptyList();
+    private int chunkPosition;
+    
+    /**
+     * @param store Store to read
+     * @param lock Lock guarding the store
+     * @param fromIndex First position, inclusive
+     * @param toIndex Last position, exclusive
+     */
+    public TransactionRangeIterator(TransactionStore store, Lock lock, int fromIndex, int toIndex) {
+        this(store, lock, fromIndex, toIndex, DEFAULT_CHUNK_SIZE);
+    }
+    
+    public TransactionRangeIterator(TransactionStore store, Lock lock, int fromIndex, int toIndex, int chunkSize) {
+        if (fromIndex < 0 || fromIndex > toIndex || chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid range " + fromIndex + ".." + toIndex);
+        }
+        this.store = store;
+        this.lock = lock;
+        this.nextIndex = fromIndex;
+        this.toIndex = toIndex;
+        this.chunkSize = chunkSize;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        return chunkPosition < chunk.size() || nextIndex < toIndex;
+    }
+    
+    @Override
+    public Transaction next() {
+        if (chunkPosition == chunk.size()) {
+            if (nextIndex >= toIndex) {
+                throw new NoSuchElementException();
+            }
+            lock.lock();
+            try {
+                chunk = store.range(nextIndex, Math.min(toIndex, nextIndex + chunkSize));
+            } finally {
+                lock.unlock();
+            }
+            nextIndex += chunk.size();
+            chunkPosition = 0;
+        }
+        return chunk.get(chunkPosition++);
+    }
+    
+    /**
+     * @return Number of transactions not yet returned
+     */
+    public int remaining() {
+        return toIndex - nextIndex + chunk.size() - chunkPosition;
+    }
+}
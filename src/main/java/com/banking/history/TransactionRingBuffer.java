@@ -0,0 +1,62 @@
+package com.banking.history;
+
+import com.banking.model.Transaction;
+
+/**
+ * Fixed-capacity buffer of an account's most recent transactions
+ * 
+ * Serves "last N transactions" reads without touching the full history. Once full,
+ * each append overwrites the oldest entry. Like TransactionStore it relies on the
+ * owning account's lock for thread safety.
+ */
+public final class TransactionRingBuffer {
+    public static final int DEFAULT_CAPACITY = 16;
+    
+    private final Transaction[] slots;
+    private long appended;
+    
+    public TransactionRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param capacity Number of transactions kept
+     */
+    public TransactionRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.slots = new Transaction[capacity];
+    }
+    
+    public void add(Transaction transaction) {
+        slots[(int) (appended % slots.length)] = transaction;
+        appended++;
+    }
+    
+    /**
+     * @return Number of transactions currently held
+     */
+    public int size() {
+        return (int) Math.min(appended, slots.length);
+    }
+    
+    public int capacity() {
+        return slots.length;
+    }
+    
+    /**
+     * Copy the most recent transactions, oldest first, into the caller's array
+     * @param target Destination; at most target.length transactions are copied
+     * @param count Maximum number of transactions wanted
+     * @return Number of transactions copied
+     */
+    public int copyRecent(Transaction[] target, int count) {
+        int copied = Math.min(Math.min(count, target.length), size());
+        long first = appended - copied;
+        for (int i = 0; i < copied; i++) {
+            target[i] = slots[(int) ((first + i) % slots.length)];
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,83 @@
+package com.banking.history;
+
+import com.banking.model.Transaction;
+import java.util.List;
+
+/**
+ * Complete transaction history of one account, in posting order
+ * 
+ * Posting order is also time order: timestamps never decrease along the history, which
+ * lets time-range queries binary-search instead of scanning.
+ * Implementations are not thread-safe; the owning account calls them while holding
+ * its lock. Stores may keep transactions in any representation and rebuild the
+ * Transaction objects on read.
+ */
+public interface TransactionStore {
+    
+    /**
+     * Append the next transaction of the account
+     * @param transaction The transaction
+     */
+    void append(Transaction transaction);
+    
+    /**
+     * @return Number of transactions stored
+     */
+    int size();
+    
+    /**
+     * @param index Position in posting order
+     * @return The transaction at that position
+     */
+    Transaction get(int index);
+    
+    /**
+     * Copy a range of the history
+     * @param fromIndex First position, inclusive
+     * @param toIndex Last position, exclusive
+     * @return New list with the transactions in posting order
+     */
+    List<Transaction> range(int fromIndex, int toIndex);
+    
+    /**
+     * @return New list with the whole history in posting order
+     */
+    default List<Transaction> getAll() {
+        return range(0, size());
+    }
+    
+    /**
+     * @param index Position in posting order
+     * @return Timestamp of the transaction at that position, in epoch microseconds
+     */
+    default long timestampMicros(int index) {
+        return get(index).getTimestampMicros();
+    }
+    
+    /**
+     * @param index Position in posting order
+     * @return Balance in cents after the transaction at that position
+     */
+    default long balanceAfterCents(int index) {
+        return get(index).getBalanceAfterCents();
+    }
+    
+    /**
+     * Binary search for the first transaction at or after a point in time
+     * @param timestampMicros Time in epoch microseconds
+     * @return Position of that transaction, or size() if every transaction is earlier
+     */
+    default int indexAtOrAfter(long timestampMicros) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestampMicros(middle) < timestampMicros) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
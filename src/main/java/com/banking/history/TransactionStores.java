@@ -0,0 +1,33 @@
+package com.banking.history;
+
+import java.util.function.Function;
+
+/**
+ * Registry of the factory that creates each account's transaction store
+ * The default is the TieredTransactionStore; a different backend can be installed at
+ * startup and applies to accounts created or restored afterwards
+ */
+public final class TransactionStores {
+    private static volatile Function<String, TransactionStore> factory = TieredTransactionStore::new;
+    
+    private TransactionStores() {
+    }
+    
+    /**
+     * @param accountNumber The account the store belongs to
+     * @return A new, empty store
+     */
+    public static TransactionStore newStore(String accountNumber) {
+        return factory.apply(accountNumber);
+    }
+    
+    /**
+     * @param storeFactory Creates a store for an account number
+     */
+    public static void setFactory(Function<String, TransactionStore> storeFactory) {
+        if (storeFactory == null) {
+            throw new IllegalArgumentException("Transaction store factory cannot be null");
+        }
+        factory = storeFactory;
+    }
+}
@@ -0,0 +1,33 @@
+package com.banking.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sequential identifiers from a single shared atomic counter
+ * Dense and strictly increasing, at the cost of one contended CAS per identifier
+ */
+public class AtomicIdGenerator implements IdGenerator {
+    private final AtomicLong counter;
+    
+    /**
+     * @param lastIssued Value preceding the first identifier (the first id is lastIssued + 1)
+     */
+    public AtomicIdGenerator(long lastIssued) {
+        this.counter = new AtomicLong(lastIssued);
+    }
+    
+    @Override
+    public long nextId() {
+        return counter.incrementAndGet();
+    }
+    
+    @Override
+    public long highWaterMark() {
+        return counter.get();
+    }
+    
+    @Override
+    public void advanceTo(long value) {
+        counter.accumulateAndGet(value, Math::max);
+    }
+}
@@ -0,0 +1,66 @@
+package com.banking.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Identifiers leased to threads in blocks
+ * Each thread reserves a contiguous range from the shared counter and hands identifiers
+ * out of it without any shared-memory traffic, touching the counter once per block.
+ * Identifiers are unique but only increasing per thread, and unused parts of a
+ * block are skipped when the generator is advanced or the process stops
+ */
+public class BlockIdGenerator implements IdGenerator {
+    private final AtomicLong reserved;
+    private final int blockSize;
+    private final ThreadLocal<Lease> leases;
+    private volatile int generation;
+    
+    /**
+     * Range of identifiers owned by one thread
+     */
+    private static final class Lease {
+        long next;
+        long end;
+        int generation;
+    }
+    
+    /**
+     * @param lastIssued Value preceding the first identifier
+     * @param blockSize Number of identifiers reserved per lease
+     */
+    public BlockIdGenerator(long lastIssued, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.reserved = new AtomicLong(lastIssued);
+        this.blockSize = blockSize;
+        this.leases = ThreadLocal.withInitial(Lease::new);
+    }
+    
+    @Override
+    public long nextId() {
+        Lease lease = leases.get();
+        if (lease.next >= lease.end || lease.generation != generation) {
+            lease.generation = generation;
+            long end = reserved.addAndGet(blockSize);
+            lease.next = end - blockSize + 1;
+            lease.end = end + 1;
+        }
+        return lease.next++;
+    }
+    
+    @Override
+    public long highWaterMark() {
+        return reserved.get();
+    }
+    
+    @Override
+    public void advanceTo(long value) {
+        reserved.accumulateAndGet(value, Math::max);
+        generation++; // Invalidate leases that may lie below the new floor
+    }
+    
+    public int getBlockSize() {
+        return blockSize;
+    }
+}
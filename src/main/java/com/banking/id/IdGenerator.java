@@ -0,0 +1,28 @@
+package com.banking.id;
+
+/**
+ * Source of unique numeric identifiers
+ * Implementations must be safe to call from many threads at once
+ */
+public interface IdGenerator {
+    
+    /**
+     * Issue the next identifier
+     * @return An identifier never returned before by this generator
+     */
+    long nextId();
+    
+    /**
+     * Upper bound of the identifiers handed out so far
+     * Persisting this value and passing it to {@link #advanceTo(long)} after a restart
+     * guarantees no identifier is issued twice
+     * @return The highest identifier issued or reserved so far
+     */
+    long highWaterMark();
+    
+    /**
+     * Make sure every identifier issued from now on is greater than the given value
+     * @param value Last identifier known to be in use
+     */
+    void advanceTo(long value);
+}
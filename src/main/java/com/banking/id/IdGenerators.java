@@ -0,0 +1,46 @@
+package com.banking.id;
+
+/**
+ * Registry of the identifier generators used by the domain model
+ * Defaults reproduce the historical numbering (accounts from 100001, customers from
+ * CUST1001, transactions from TXN1001); a different strategy can be installed at startup
+ */
+public final class IdGenerators {
+    private static volatile IdGenerator accountIds = new AtomicIdGenerator(100000);
+    private static volatile IdGenerator customerIds = new AtomicIdGenerator(1000);
+    private static volatile IdGenerator transactionIds = new AtomicIdGenerator(1000);
+    
+    private IdGenerators() {
+    }
+    
+    public static IdGenerator accounts() {
+        return accountIds;
+    }
+    
+    public static IdGenerator customers() {
+        return customerIds;
+    }
+    
+    public static IdGenerator transactions() {
+        return transactionIds;
+    }
+    
+    public static void setAccountIdGenerator(IdGenerator generator) {
+        accountIds = requireNonNull(generator);
+    }
+    
+    public static void setCustomerIdGenerator(IdGenerator generator) {
+        customerIds = requireNonNull(generator);
+    }
+    
+    public static void setTransactionIdGenerator(IdGenerator generator) {
+        transactionIds = requireNonNull(generator);
+    }
+    
+    private static IdGenerator requireNonNull(IdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Id generator cannot be null");
+        }
+        return generator;
+    }
+}
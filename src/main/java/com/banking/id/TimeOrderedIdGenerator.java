@@ -0,0 +1,68 @@
+package com.banking.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered 64-bit identifiers
+ * 
+ * Layout: 41 bits of milliseconds since 2020-01-01T00:00Z, 12 bits of sequence and
+ * 10 bits of node id, leaving the sign bit clear. Identifiers sort by creation time and are unique across nodes
+ * without coordination. When more than 4096 identifiers are requested within one
+ * millisecond the sequence carries into the timestamp, borrowing from the next
+ * millisecond rather than blocking.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+    public static final long CUSTOM_EPOCH_MILLIS = 1_577_836_800_000L; // 2020-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long SEQUENCE_INCREMENT = 1L << NODE_BITS;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    
+    private final long nodeId;
+    private final AtomicLong lastId;
+    
+    /**
+     * @param nodeId Identifier of this process, 0 to 1023
+     */
+    public TimeOrderedIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.lastId = new AtomicLong(0);
+    }
+    
+    @Override
+    public long nextId() {
+        long earliest = ((System.currentTimeMillis() - CUSTOM_EPOCH_MILLIS) << TIMESTAMP_SHIFT) | nodeId;
+        long last;
+        long next;
+        do {
+            last = lastId.get();
+            next = Math.max(earliest, last + SEQUENCE_INCREMENT);
+        } while (!lastId.compareAndSet(last, next));
+        return next;
+    }
+    
+    @Override
+    public long highWaterMark() {
+        return lastId.get();
+    }
+    
+    @Override
+    public void advanceTo(long value) {
+        // Keep the node bits intact so identifiers stay unique across nodes
+        long aligned = (value & ~MAX_NODE_ID) | nodeId;
+        lastId.accumulateAndGet(aligned, Math::max);
+    }
+    
+    /**
+     * Extract the creation time embedded in an identifier
+     * @param id Identifier produced by this generator
+     * @return Epoch milliseconds at which the identifier was generated
+     */
+    public static long timestampMillis(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + CUSTOM_EPOCH_MILLIS;
+    }
+}
@@ -0,0 +1,99 @@
+package com.banking.loadtest;
+
+/**
+ * Fixed-size log-linear histogram of latencies in nanoseconds
+ * 
+ * Values below 128 ns get a bucket each; above that every power of two is split into
+ * 64 buckets, so any recorded value is reported within about 1.6% of its true value.
+ * Recording is a few shifts and an array increment. Not thread-safe: each load thread
+ * records into its own histogram and the driver merges them at the end.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long totalNanos;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos;
+    
+    /**
+     * @param nanos Latency of one operation; negative values count as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[bucketOf(value)]++;
+        totalCount++;
+        totalNanos += value;
+        minNanos = Math.min(minNanos, value);
+        maxNanos = Math.max(maxNanos, value);
+    }
+    
+    /**
+     * Add every value recorded by another histogram
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        totalNanos += other.totalNanos;
+        minNanos = Math.min(minNanos, other.minNanos);
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+    
+    /**
+     * @param percentile Percentile between 0 and 100, e.g. 99.9
+     * @return Upper bound of the bucket holding that percentile, capped at the maximum; 0 if empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+    
+    public long getTotalCount() { 
+        return totalCount; 
+    }
+    
+    public double getMeanNanos() {
+        return totalCount == 0 ? 0.0 : (double) totalNanos / totalCount;
+    }
+    
+    public long getMinNanos() {
+        return totalCount == 0 ? 0 : minNanos;
+    }
+    
+    public long getMaxNanos() { 
+        return maxNanos; 
+    }
+    
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+    
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long mantissa = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
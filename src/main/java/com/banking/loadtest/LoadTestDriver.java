@@ -0,0 +1,222 @@
+package com.banking.loadtest;
+
+import com.banking.model.Account;
+import com.banking.model.PostingStatus;
+import com.banking.service.BankingService;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load-test driver for capacity planning
+ * 
+ * Generates a seeded customer population, then replays an operation mix against
+ * BankingService from many threads. Accounts are chosen with Zipfian skew, so a few
+ * accounts are hot and most are rarely touched. Each thread draws its operations from
+ * its own seeded stream, so a run is reproducible up to thread interleaving.
+ * 
+ * With rate=0 threads issue operations back to back. With a rate, each thread follows a
+ * fixed schedule and latency is measured from the scheduled start, so queueing delay
+ * behind a slow operation is counted instead of hidden.
+ * 
+ * Usage: java -Xmx<heap> -cp build com.banking.loadtest.LoadTestDriver [key=value ...]
+ *   customers=100000 savingsRatio=0.4 zipf=1.0 threads=4 duration=10 warmup=2 rate=0 seed=42
+ *   mix=deposit=30,withdraw=25,transfer=25,balance=15,history=5
+ */
+public class LoadTestDriver {
+    private static final int RECENT_COUNT = 10;
+    private static final int MAX_AMOUNT_CENTS = 200_00;
+    
+    private final BankingService bank;
+    private final WorkloadConfig config;
+    private final Account[] accounts;
+    private final int[] accountByRank;
+    private final ZipfDistribution zipf;
+    
+    /**
+     * Result of one load thread for the measured phase
+     */
+    private static final class ThreadResult {
+        final LatencyHistogram[] latencies = new LatencyHistogram[OperationType.values().length];
+        final long[] declined = new long[OperationType.values().length];
+        
+        ThreadResult() {
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new LatencyHistogram();
+            }
+        }
+    }
+    
+    /**
+     * @param bank Populated bank
+     * @param config Workload settings
+     * @param accounts Accounts by population index
+     */
+    public LoadTestDriver(BankingService bank, WorkloadConfig config, Account[] accounts) {
+        this.bank = bank;
+        this.config = config;
+        this.accounts = accounts;
+        this.zipf = new ZipfDistribution(accounts.length, config.getZipfExponent());
+        
+        // Scatter the hot ranks over the population with a seeded shuffle
+        this.accountByRank = new int[accounts.length];
+        for (int i = 0; i < accountByRank.length; i++) {
+            accountByRank[i] = i;
+        }
+        SplittableRandom random = PopulationGenerator.randomFor(~config.getSeed(), -1);
+        for (int i = accountByRank.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = accountByRank[i];
+            accountByRank[i] = accountByRank[j];
+            accountByRank[j] = swap;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        WorkloadConfig config = WorkloadConfig.fromArgs(args);
+        System.out.println("Load test " + config);
+        System.out.printf("Available processors %d, max heap %d MB%n", Runtime.getRuntime().availableProcessors(),
+                          Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        
+        BankingService bank = new BankingService("Load Test Bank", "LOAD01");
+        long start = System.nanoTime();
+        Account[] accounts = PopulationGenerator.populate(bank, config);
+        long elapsed = System.nanoTime() - start;
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("Generated %,d customers in %.1f s (%.0f customers/sec), heap in use %d MB%n", 
+                          accounts.length, elapsed / 1e9, accounts.length / (elapsed / 1e9),
+                          (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        
+        new LoadTestDriver(bank, config, accounts).run();
+    }
+    
+    /**
+     * Run the warm-up and measured phases and print the report
+     */
+    public void run() throws InterruptedException {
+        int threads = config.getThreads();
+        ThreadResult[] results = new ThreadResult[threads];
+        Thread[] workers = new Thread[threads];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long measureEnd = warmupEnd + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        
+        for (int t = 0; t < threads; t++) {
+            final int threadIndex = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    results[threadIndex] = runThread(threadIndex, warmupEnd, measureEnd);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "load-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Load thread failed", failure.get());
+        }
+        report(results);
+    }
+    
+    private ThreadResult runThread(int threadIndex, long warmupEnd, long measureEnd) {
+        SplittableRandom random = PopulationGenerator.randomFor(~config.getSeed(), threadIndex);
+        double rate = config.getRatePerThread();
+        long intervalNanos = rate > 0 ? (long) (1e9 / rate) : 0;
+        ThreadResult warmup = new ThreadResult();
+        ThreadResult measured = new ThreadResult();
+        
+        long scheduled = System.nanoTime();
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= measureEnd) {
+                return measured;
+            }
+            long start = now;
+            if (intervalNanos > 0) {
+                scheduled += intervalNanos;
+                while ((now = System.nanoTime()) < scheduled) {
+                    LockSupport.parkNanos(scheduled - now);
+                }
+                start = scheduled;
+            }
+            ThreadResult target = start < warmupEnd ? warmup : measured;
+            OperationType type = config.pick(random.nextInt(config.getTotalWeight()));
+            boolean accepted = execute(type, random);
+            target.latencies[type.ordinal()].record(System.nanoTime() - start);
+            if (!accepted) {
+                target.declined[type.ordinal()]++;
+            }
+        }
+    }
+    
+    /**
+     * @return false if the bank declined the operation
+     */
+    private boolean execute(OperationType type, SplittableRandom random) {
+        Account account = pickAccount(random);
+        double amount = (1 + random.nextInt(MAX_AMOUNT_CENTS)) / 100.0;
+        try {
+            switch (type) {
+                case DEPOSIT:
+                    return bank.tryDeposit(account.getAccountNumber(), amount) == PostingStatus.POSTED;
+                case WITHDRAW:
+                    return bank.tryWithdraw(account.getAccountNumber(), amount) == PostingStatus.POSTED;
+                case TRANSFER:
+                    Account destination = pickAccount(random);
+                    if (destination == account) {
+                        return false;
+                    }
+                    bank.transfer(account.getAccountNumber(), destination.getAccountNumber(), amount);
+                    return true;
+                case BALANCE:
+                    bank.getAccountBalance(account.getAccountNumber());
+                    return true;
+                case HISTORY:
+                    bank.getAccount(account.getAccountNumber()).getRecentTransactions(RECENT_COUNT);
+                    return true;
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + type);
+            }
+        } catch (Exception e) {
+            // Insufficient funds and similar rejections are expected outcomes under load
+            return false;
+        }
+    }
+    
+    private Account pickAccount(SplittableRandom random) {
+        return accounts[accountByRank[zipf.sample(random) - 1]];
+    }
+    
+    private void report(ThreadResult[] results) {
+        double seconds = config.getDurationSeconds();
+        LatencyHistogram all = new LatencyHistogram();
+        System.out.printf("%n%-10s %12s %12s %10s %10s %10s %10s %10s %10s%n", "Operation", "Count", "Ops/sec", 
+                          "Declined", "Mean us", "p50 us", "p99 us", "p99.9 us", "Max us");
+        for (OperationType type : OperationType.values()) {
+            LatencyHistogram merged = new LatencyHistogram();
+            long declined = 0;
+            for (ThreadResult result : results) {
+                merged.merge(result.latencies[type.ordinal()]);
+                declined += result.declined[type.ordinal()];
+            }
+            if (merged.getTotalCount() == 0) {
+                continue;
+            }
+            all.merge(merged);
+            printRow(type.name().toLowerCase(), merged, declined, seconds);
+        }
+        printRow("all", all, -1, seconds);
+    }
+    
+    private static void printRow(String name, LatencyHistogram histogram, long declined, double seconds) {
+        System.out.printf("%-10s %12d %12.0f %10s %10.1f %10.1f %10.1f %10.1f %10.1f%n", name, 
+                          histogram.getTotalCount(), histogram.getTotalCount() / seconds, 
+                          declined < 0 ? "" : Long.toString(declined), histogram.getMeanNanos() / 1e3, 
+                          histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                          histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMaxNanos() / 1e3);
+    }
+}
@@ -0,0 +1,26 @@
+package com.banking.loadtest;
+
+/**
+ * Kinds of operation the load-test driver issues against BankingService
+ */
+public enum OperationType {
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER,
+    BALANCE,
+    HISTORY;
+    
+    private static final OperationType[] VALUES = values();
+    
+    /**
+     * @param name Case-insensitive name, e.g. "transfer"
+     * @return The operation type
+     */
+    public static OperationType parse(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+    
+    static OperationType fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
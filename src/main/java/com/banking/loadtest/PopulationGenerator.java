@@ -0,0 +1,59 @@
+package com.banking.loadtest;
+
+import com.banking.model.Account;
+import com.banking.model.Customer;
+import com.banking.service.BankingService;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Creates a synthetic customer population in a BankingService
+ * 
+ * Every customer is derived from the seed and its own index alone, so the population
+ * is the same whatever order the parallel workers create it in. Each customer gets one
+ * savings or checking account with a log-normal opening balance; account numbers follow
+ * creation order, so the driver addresses accounts by population index instead.
+ */
+public final class PopulationGenerator {
+    private static final String[] FIRST_NAMES = { "Ada", "Ben", "Chen", "Dara", "Eli", "Fatima", "Goran", "Hana",
+                                                  "Ivan", "Jun", "Kofi", "Lena", "Mateo", "Nia", "Omar", "Priya" };
+    private static final String[] LAST_NAMES = { "Abe", "Brown", "Costa", "Diaz", "Evans", "Fischer", "Garcia",
+                                                 "Haddad", "Ito", "Jensen", "Kim", "Lopez", "Moreau", "Novak" };
+    private static final double SAVINGS_MINIMUM = 100.00;
+    
+    private PopulationGenerator() {
+    }
+    
+    /**
+     * @param bank Bank to populate
+     * @param config Population size, savings share and seed
+     * @return The accounts by population index
+     */
+    public static Account[] populate(BankingService bank, WorkloadConfig config) {
+        Account[] accounts = new Account[config.getCustomers()];
+        IntStream.range(0, accounts.length).parallel().forEach(index -> {
+            SplittableRandom random = randomFor(config.getSeed(), index);
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            boolean savings = random.nextDouble() < config.getSavingsRatio();
+            // Median opening balance around $1,100 with a long tail
+            double balance = Math.round(Math.exp(7.0 + 1.2 * random.nextGaussian()) * 100) / 100.0;
+            try {
+                Customer customer = bank.createCustomer(firstName, lastName, "load" + index + "@example.com");
+                accounts[index] = savings 
+                    ? bank.createSavingsAccount(customer.getCustomerId(), Math.max(balance, SAVINGS_MINIMUM))
+                    : bank.createCheckingAccount(customer.getCustomerId(), balance, random.nextBoolean());
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not create customer " + index, e);
+            }
+        });
+        return accounts;
+    }
+    
+    /**
+     * Independent random stream for one index of a seeded run
+     */
+    static SplittableRandom randomFor(long seed, long index) {
+        return new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+    }
+}
@@ -0,0 +1,133 @@
+package com.banking.loadtest;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Population and workload settings of a load test, parsed from key=value arguments
+ * 
+ * Every setting has a default, so a run only names what it changes. Two runs with the
+ * same settings and seed generate the same population and the same operation stream
+ * per thread.
+ */
+public final class WorkloadConfig {
+    private final Map<String, String> settings = new LinkedHashMap<>();
+    private final EnumMap<OperationType, Integer> mix = new EnumMap<>(OperationType.class);
+    private final int[] cumulativeWeights = new int[OperationType.values().length];
+    
+    public WorkloadConfig() {
+        settings.put("customers", "100000");
+        settings.put("savingsRatio", "0.4");
+        settings.put("zipf", "1.0");
+        settings.put("mix", "deposit=30,withdraw=25,transfer=25,balance=15,history=5");
+        settings.put("threads", "4");
+        settings.put("duration", "10");
+        settings.put("warmup", "2");
+        settings.put("rate", "0");
+        settings.put("seed", "42");
+        parseMix(settings.get("mix"));
+    }
+    
+    /**
+     * @param args Arguments of the form key=value
+     * @return The configuration with the arguments applied over the defaults
+     */
+    public static WorkloadConfig fromArgs(String[] args) {
+        WorkloadConfig config = new WorkloadConfig();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !config.settings.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown setting " + arg + "; expected one of " 
+                                                   + config.settings.keySet());
+            }
+            config.settings.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        config.parseMix(config.settings.get("mix"));
+        return config;
+    }
+    
+    private void parseMix(String value) {
+        mix.clear();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":|=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + entry);
+            }
+            mix.put(OperationType.parse(parts[0]), weight);
+        }
+        int total = 0;
+        for (OperationType type : OperationType.values()) {
+            total += mix.getOrDefault(type, 0);
+            cumulativeWeights[type.ordinal()] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Operation mix has no weight: " + value);
+        }
+    }
+    
+    /**
+     * Pick an operation type according to the mix
+     * @param roll Uniform value in [0, getTotalWeight())
+     */
+    OperationType pick(int roll) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return OperationType.fromOrdinal(i);
+            }
+        }
+        throw new IllegalArgumentException("Roll outside the mix: " + roll);
+    }
+    
+    int getTotalWeight() {
+        return cumulativeWeights[cumulativeWeights.length - 1];
+    }
+    
+    public int getCustomers() {
+        return Integer.parseInt(settings.get("customers"));
+    }
+    
+    /** @return Share of customers whose account is a savings account; the rest get checking */
+    public double getSavingsRatio() {
+        return Double.parseDouble(settings.get("savingsRatio"));
+    }
+    
+    /** @return Zipf exponent of account activity */
+    public double getZipfExponent() {
+        return Double.parseDouble(settings.get("zipf"));
+    }
+    
+    public Map<OperationType, Integer> getMix() {
+        return mix;
+    }
+    
+    public int getThreads() {
+        return Integer.parseInt(settings.get("threads"));
+    }
+    
+    /** @return Measured seconds, after the warm-up */
+    public int getDurationSeconds() {
+        return Integer.parseInt(settings.get("duration"));
+    }
+    
+    public int getWarmupSeconds() {
+        return Integer.parseInt(settings.get("warmup"));
+    }
+    
+    /**
+     * @return Target operations per second per thread, or 0 to issue operations back to back
+     */
+    public double getRatePerThread() {
+        return Double.parseDouble(settings.get("rate"));
+    }
+    
+    public long getSeed() {
+        return Long.parseLong(settings.get("seed"));
+    }
+    
+    @Override
+    public String toString() {
+        return settings.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.banking.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zipf distribution over ranks 1..n, sampled in constant time
+ * 
+ * Uses rejection-inversion sampling (Hörmann and Derflinger, 1996), so neither setup
+ * nor sampling depends on n and populations of many millions need no lookup table.
+ * Rank k is drawn with probability proportional to 1 / k^exponent.
+ */
+public final class ZipfDistribution {
+    private final int numberOfElements;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralNumberOfElements;
+    private final double s;
+    
+    /**
+     * @param numberOfElements Number of ranks
+     * @param exponent Skew; 0 would be uniform, around 1 is typical of account activity
+     */
+    public ZipfDistribution(int numberOfElements, double exponent) {
+        if (numberOfElements < 1 || !(exponent > 0)) {
+            throw new IllegalArgumentException("Zipf needs at least one element and a positive exponent");
+        }
+        this.numberOfElements = numberOfElements;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+        this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+    }
+    
+    /**
+     * @param random Source of randomness, owned by the calling thread
+     * @return A rank between 1 and the number of elements
+     */
+    public int sample(SplittableRandom random) {
+        while (true) {
+            double u = hIntegralNumberOfElements + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > numberOfElements) {
+                k = numberOfElements;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+    
+    public int getNumberOfElements() { 
+        return numberOfElements; 
+    }
+    
+    public double getExponent() { 
+        return exponent; 
+    }
+    
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+    
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1.0 - exponent) * logX) * logX;
+    }
+    
+    private double hIntegralInverse(double x) {
+        double t = Math.max(x * (1.0 - exponent), -1.0);
+        return Math.exp(log1pOverX(t) * x);
+    }
+    
+    /** log(1 + x) / x, accurate near zero */
+    private static double log1pOverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+    
+    /** (exp(x) - 1) / x, accurate near zero */
+    private static double expm1OverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x / 3.0 * (1.0 + 0.25 * x));
+    }
+}
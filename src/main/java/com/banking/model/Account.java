@@ -3,24 +3,53 @@ package com.banking.model;
 import com.banking.exception.InvalidAccountException;
 import com.banking.exception.InvalidTransactionException;
 import com.banking.exception.InsufficientFundsException;
+import com.banking.id.IdGenerators;
+import com.banking.history.TransactionRingBuffer;
+import com.banking.history.TransactionStore;
+import com.banking.history.TransactionStores;
+import com.banking.history.TransactionRangeIterator;
+import com.banking.time.MicroClocks;
+import com.banking.time.Timestamps;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Abstract Account class demonstrating abstraction and encapsulation
  * Base class for all types of bank accounts
+ * 
+ * Balances are held as a long number of cents (see Money) and only converted to
+ * dollars at the public API boundary.
+ * Every account owns its own lock; the template methods (deposit, withdraw,
+ * transferOut, transferIn) hold it for their whole duration so operations on
+ * different accounts never contend with each other.
+ * The full history lives in a TransactionStore chosen by TransactionStores; the most
+ * recent postings are also kept in a small ring buffer that serves "last N" reads.
+ * Timestamps never decrease along the history, so time-range queries binary-search it.
+ * A BalanceAccrual follows every posting so that interest can be paid on the average
+ * balance of the period instead of the balance at the moment maintenance runs.
  */
 public abstract class Account {
-    protected static int accountCounter = 100000;
-    
     // Private fields demonstrating encapsulation
     private final String accountNumber;
     private final String accountHolderName;
     private final LocalDateTime dateOpened;
-    protected double balance;
-    private boolean isActive;
-    private final List<Transaction> transactionHistory;
+    private volatile long balanceCents;
+    private volatile boolean isActive;
+    private final TransactionStore transactionHistory;
+    private final TransactionRingBuffer recentTransactions;
+    private long lastTimestampMicros = Long.MIN_VALUE;
+    private final BalanceAccrual accrual = new BalanceAccrual();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile AccountListener listener;
+    private volatile YearMonth lastMaintainedPeriod;
     
     /**
      * Protected constructor for inheritance
@@ -38,54 +67,325 @@ public abstract class Account {
         
         this.accountNumber = generateAccountNumber();
         this.accountHolderName = accountHolderName.trim();
-        this.balance = initialBalance;
+        this.balanceCents = Money.toCents(initialBalance);
         this.dateOpened = LocalDateTime.now();
         this.isActive = true;
-        this.transactionHistory = new ArrayList<>();
+        this.transactionHistory = TransactionStores.newStore(this.accountNumber);
+        this.recentTransactions = new TransactionRingBuffer();
         
         // Add initial deposit transaction if balance > 0
-        if (initialBalance > 0) {
-            addTransaction(Transaction.TransactionType.DEPOSIT, initialBalance, "Initial deposit");
+        if (balanceCents > 0) {
+            addTransaction(Transaction.TransactionType.DEPOSIT, balanceCents, DescriptionTemplate.INITIAL_DEPOSIT);
         }
     }
     
+    /**
+     * Protected constructor used when restoring an existing account from persistent state
+     * The account starts empty; balance and history are added with the restore methods
+     * @param accountNumber The existing account number
+     * @param accountHolderName Name of the account holder
+     * @param dateOpened When the account was originally opened
+     */
+    protected Account(String accountNumber, String accountHolderName, LocalDateTime dateOpened) {
+        this.accountNumber = accountNumber;
+        this.accountHolderName = accountHolderName;
+        this.dateOpened = dateOpened;
+        this.balanceCents = 0;
+        this.isActive = true;
+        this.transactionHistory = TransactionStores.newStore(this.accountNumber);
+        this.recentTransactions = new TransactionRingBuffer();
+    }
+    
     // Abstract methods to be implemented by subclasses (demonstrating abstraction)
     public abstract String getAccountType();
     public abstract double getMinimumBalance();
-    public abstract boolean canWithdraw(double amount);
-    public abstract void applyMonthlyMaintenance();
+    public abstract boolean canWithdrawCents(long amountCents);
+    public abstract void applyMonthlyMaintenance(long periodEndMicros);
     
     // Template method pattern - defines the algorithm structure
     public final void deposit(double amount) throws InvalidTransactionException {
-        validateTransactionAmount(amount);
-        performDeposit(amount);
-        addTransaction(Transaction.TransactionType.DEPOSIT, amount, "Cash deposit");
+        lock.lock();
+        try {
+            long amountCents = Money.toCents(amount);
+            validateTransactionAmount(amountCents);
+            performDeposit(amountCents);
+            addTransaction(Transaction.TransactionType.DEPOSIT, amountCents, DescriptionTemplate.CASH_DEPOSIT);
+        } finally {
+            lock.unlock();
+        }
     }
     
     public final void withdraw(double amount) throws InsufficientFundsException, InvalidTransactionException {
-        validateTransactionAmount(amount);
-        validateWithdrawal(amount);
-        performWithdrawal(amount);
-        addTransaction(Transaction.TransactionType.WITHDRAWAL, amount, "Cash withdrawal");
+        lock.lock();
+        try {
+            long amountCents = Money.toCents(amount);
+            validateTransactionAmount(amountCents);
+            validateWithdrawal(amountCents);
+            performWithdrawal(amountCents);
+            addTransaction(Transaction.TransactionType.WITHDRAWAL, amountCents, DescriptionTemplate.CASH_WITHDRAWAL);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Deposit without throwing on rejection
+     * @param amount Amount in dollars
+     * @return POSTED, or the reason the deposit was rejected
+     */
+    public final PostingStatus tryDeposit(double amount) {
+        lock.lock();
+        try {
+            long amountCents = Money.toCents(amount);
+            PostingStatus status = checkTransaction(amountCents);
+            if (status == PostingStatus.POSTED) {
+                performDeposit(amountCents);
+                addTransaction(Transaction.TransactionType.DEPOSIT, amountCents, DescriptionTemplate.CASH_DEPOSIT);
+            }
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Withdraw without throwing on rejection, for callers where a decline is a normal outcome
+     * @param amount Amount in dollars
+     * @return POSTED, or the reason the withdrawal was declined
+     */
+    public final PostingStatus tryWithdraw(double amount) {
+        lock.lock();
+        try {
+            long amountCents = Money.toCents(amount);
+            PostingStatus status = checkTransaction(amountCents);
+            if (status != PostingStatus.POSTED) {
+                return status;
+            }
+            if (!canWithdrawCents(amountCents)) {
+                return PostingStatus.INSUFFICIENT_FUNDS;
+            }
+            performWithdrawal(amountCents);
+            addTransaction(Transaction.TransactionType.WITHDRAWAL, amountCents, DescriptionTemplate.CASH_WITHDRAWAL);
+            return PostingStatus.POSTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Apply a group of batch postings under a single lock acquisition
+     * Postings are applied in order; a rejected posting is skipped and reported in
+     * statuses instead of throwing.
+     * @param postings The whole batch
+     * @param order Positions in postings; entries from..to-1 address this account
+     * @param from First entry of order to apply, inclusive
+     * @param to Last entry of order to apply, exclusive
+     * @param statuses Receives the outcome at each posting's position
+     * @return Number of postings applied
+     */
+    public final int applyPostings(Posting[] postings, int[] order, int from, int to, PostingStatus[] statuses) {
+        int posted = 0;
+        lock.lock();
+        try {
+            for (int i = from; i < to; i++) {
+                int position = order[i];
+                Posting posting = postings[position];
+                long amountCents = posting.getAmountCents();
+                PostingStatus status = checkTransaction(amountCents);
+                if (status != PostingStatus.POSTED) {
+                    statuses[position] = status;
+                } else if (posting.isCredit()) {
+                    performDeposit(amountCents);
+                    addTransaction(Transaction.TransactionType.DEPOSIT, amountCents, DescriptionTemplate.BATCH_CREDIT);
+                    statuses[position] = PostingStatus.POSTED;
+                    posted++;
+                } else if (!canWithdrawCents(amountCents)) {
+                    statuses[position] = PostingStatus.INSUFFICIENT_FUNDS;
+                } else {
+                    performWithdrawal(amountCents);
+                    addTransaction(Transaction.TransactionType.WITHDRAWAL, amountCents, DescriptionTemplate.BATCH_DEBIT);
+                    statuses[position] = PostingStatus.POSTED;
+                    posted++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return posted;
+    }
+    
+    /**
+     * Check whether this account can settle a net position of a netted transfer batch
+     * Only the net debit is checked against the withdrawal rules, not the individual legs.
+     * @param netCents Incoming minus outgoing amount in cents
+     * @return POSTED if the position can be settled, otherwise the reason it cannot
+     */
+    public final PostingStatus checkNetPosition(long netCents) {
+        lock.lock();
+        try {
+            if (!isActive) {
+                return PostingStatus.ACCOUNT_INACTIVE;
+            }
+            return netCents >= 0 || canWithdrawCents(-netCents) ? PostingStatus.POSTED : PostingStatus.INSUFFICIENT_FUNDS;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Settle this account's side of a netted transfer batch
+     * Every leg is itemized in the history, incoming legs first so the running balance only
+     * falls as low as the net position. The balance itself moves once, by the net amount,
+     * through performDeposit or performWithdrawal, so account rules such as withdrawal
+     * counters and fees see one movement per settlement.
+     * The caller checks the position with checkNetPosition while holding the lock throughout.
+     * @param incoming Transfers into this account
+     * @param outgoing Transfers out of this account
+     * @return The net amount in cents
+     */
+    public final long settleNetted(List<TransferInstruction> incoming, List<TransferInstruction> outgoing) {
+        lock.lock();
+        try {
+            long running = balanceCents;
+            for (TransferInstruction transfer : incoming) {
+                running += transfer.getAmountCents();
+                recordNettedLeg(Transaction.TransactionType.TRANSFER_IN, transfer.getAmountCents(), 
+                                DescriptionTemplate.TRANSFER_FROM, transfer.getFromAccountNumber(), running);
+            }
+            for (TransferInstruction transfer : outgoing) {
+                running -= transfer.getAmountCents();
+                recordNettedLeg(Transaction.TransactionType.TRANSFER_OUT, transfer.getAmountCents(), 
+                                DescriptionTemplate.TRANSFER_TO, transfer.getToAccountNumber(), running);
+            }
+            long netCents = running - balanceCents;
+            if (netCents > 0) {
+                performDeposit(netCents);
+            } else if (netCents < 0) {
+                performWithdrawal(-netCents);
+                // The itemized legs were journaled before the withdrawal counters moved
+                notifyStateChange();
+            }
+            return netCents;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void recordNettedLeg(Transaction.TransactionType type, long amountCents, DescriptionTemplate template, 
+                                 String counterpartyAccount, long balanceAfterCents) {
+        long accountArgument = DescriptionTemplate.accountArgument(counterpartyAccount);
+        if (accountArgument < 0) {
+            recordTransaction(type, amountCents, DescriptionTemplate.TEXT, 0, template.getPrefix() + counterpartyAccount, 
+                              balanceAfterCents);
+        } else {
+            recordTransaction(type, amountCents, template, accountArgument, null, balanceAfterCents);
+        }
+    }
+    
+    /**
+     * Apply the account's monthly maintenance while holding the account lock
+     * The interest period is closed at the current time
+     */
+    public final void runMonthlyMaintenance() {
+        lock.lock();
+        try {
+            runMonthlyMaintenance(currentTimeMicros());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Apply the account's monthly maintenance with the interest period ending at a fixed time
+     * Interest covers the period up to the cutoff only, so re-running or resuming a bank-wide
+     * run with the same cutoff pays the same amounts however long the run takes. The next
+     * period starts at the cutoff, including any postings made after it.
+     * @param periodEndMicros End of the interest period in epoch microseconds
+     */
+    public final void runMonthlyMaintenance(long periodEndMicros) {
+        lock.lock();
+        try {
+            closeInterestPeriod(periodEndMicros);
+            notifyStateChange();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Apply the monthly maintenance for a period unless the account already had it
+     * Re-running a period is therefore harmless; the period is recorded together with
+     * the maintenance postings. The interest period ends when the month ends.
+     * @param period The period being closed
+     * @return true if maintenance was applied, false if the period was already maintained
+     */
+    public final boolean runMonthlyMaintenance(YearMonth period) {
+        lock.lock();
+        try {
+            if (lastMaintainedPeriod != null && lastMaintainedPeriod.compareTo(period) >= 0) {
+                return false;
+            }
+            closeInterestPeriod(Timestamps.endOfMonth(period));
+            lastMaintainedPeriod = period;
+            notifyStateChange();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void closeInterestPeriod(long periodEndMicros) {
+        applyMonthlyMaintenance(periodEndMicros);
+        if (periodEndMicros >= lastTimestampMicros) {
+            accrual.startPeriod(periodEndMicros);
+        } else {
+            rebuildAccrual(periodEndMicros); // Postings after the cutoff belong to the new period
+        }
+    }
+    
+    /**
+     * @return The latest period closed by runMonthlyMaintenance(YearMonth), or null if none
+     */
+    public YearMonth getLastMaintainedPeriod() { 
+        return lastMaintainedPeriod; 
+    }
+    
+    /**
+     * Check whether a withdrawal would be allowed by this account's rules
+     * @param amount Amount in dollars
+     * @return true if the withdrawal would be allowed
+     */
+    public boolean canWithdraw(double amount) {
+        return canWithdrawCents(Money.toCents(amount));
     }
     
     // Protected methods for subclasses to override if needed
-    protected void performDeposit(double amount) {
-        balance += amount;
+    protected void performDeposit(long amountCents) {
+        balanceCents += amountCents;
     }
     
-    protected void performWithdrawal(double amount) {
-        balance -= amount;
+    protected void performWithdrawal(long amountCents) {
+        balanceCents -= amountCents;
     }
     
-    protected void validateWithdrawal(double amount) throws InsufficientFundsException {
-        if (!canWithdraw(amount)) {
-            throw new InsufficientFundsException(amount, balance);
+    protected void validateWithdrawal(long amountCents) throws InsufficientFundsException {
+        if (!canWithdrawCents(amountCents)) {
+            throw new InsufficientFundsException(Money.toDollars(amountCents), Money.toDollars(balanceCents));
         }
     }
     
-    protected void validateTransactionAmount(double amount) throws InvalidTransactionException {
-        if (amount <= 0) {
+    /**
+     * Non-throwing counterpart of validateTransactionAmount
+     */
+    private PostingStatus checkTransaction(long amountCents) {
+        if (amountCents <= 0) {
+            return PostingStatus.INVALID_AMOUNT;
+        }
+        return isActive ? PostingStatus.POSTED : PostingStatus.ACCOUNT_INACTIVE;
+    }
+    
+    protected void validateTransactionAmount(long amountCents) throws InvalidTransactionException {
+        if (amountCents <= 0) {
             throw new InvalidTransactionException("Transaction amount must be positive");
         }
         if (!isActive) {
@@ -95,34 +395,128 @@ public abstract class Account {
     
     // Internal transfer methods
     public void transferOut(double amount, String toAccount) throws InsufficientFundsException, InvalidTransactionException {
-        validateTransactionAmount(amount);
-        validateWithdrawal(amount);
-        performWithdrawal(amount);
-        addTransaction(Transaction.TransactionType.TRANSFER_OUT, amount, "Transfer to " + toAccount);
+        lock.lock();
+        try {
+            long amountCents = Money.toCents(amount);
+            validateTransactionAmount(amountCents);
+            validateWithdrawal(amountCents);
+            performWithdrawal(amountCents);
+            addTransaction(Transaction.TransactionType.TRANSFER_OUT, amountCents, DescriptionTemplate.TRANSFER_TO, toAccount);
+        } finally {
+            lock.unlock();
+        }
     }
     
     public void transferIn(double amount, String fromAccount) throws InvalidTransactionException {
-        validateTransactionAmount(amount);
-        performDeposit(amount);
-        addTransaction(Transaction.TransactionType.TRANSFER_IN, amount, "Transfer from " + fromAccount);
+        lock.lock();
+        try {
+            long amountCents = Money.toCents(amount);
+            validateTransactionAmount(amountCents);
+            performDeposit(amountCents);
+            addTransaction(Transaction.TransactionType.TRANSFER_IN, amountCents, DescriptionTemplate.TRANSFER_FROM, fromAccount);
+        } finally {
+            lock.unlock();
+        }
     }
     
-    protected void addTransaction(Transaction.TransactionType type, double amount, String description) {
-        Transaction transaction = new Transaction(accountNumber, type, amount, description, balance);
-        transactionHistory.add(transaction);
+    /**
+     * Check that this account could accept an incoming transfer without changing any state
+     * @param amount Amount that would be transferred in
+     * @throws InvalidTransactionException if the transfer would be rejected
+     */
+    public void validateTransferIn(double amount) throws InvalidTransactionException {
+        lock.lock();
+        try {
+            validateTransactionAmount(Money.toCents(amount));
+        } finally {
+            lock.unlock();
+        }
     }
     
-    protected void addInterestTransaction(double interestAmount) {
-        if (interestAmount > 0) {
-            balance += interestAmount;
-            addTransaction(Transaction.TransactionType.INTEREST_CREDIT, interestAmount, "Monthly interest credit");
+    /**
+     * Credit back a transfer whose destination leg failed
+     * @param amount Amount previously transferred out
+     * @param toAccount The account the transfer was addressed to
+     */
+    public void reverseTransferOut(double amount, String toAccount) {
+        lock.lock();
+        try {
+            long amountCents = Money.toCents(amount);
+            performDeposit(amountCents);
+            addTransaction(Transaction.TransactionType.TRANSFER_IN, amountCents, DescriptionTemplate.TRANSFER_REVERSAL, toAccount);
+        } finally {
+            lock.unlock();
         }
     }
     
-    protected void addFeeTransaction(double feeAmount, String description) {
-        if (feeAmount > 0) {
-            balance -= feeAmount;
-            addTransaction(Transaction.TransactionType.FEE_DEBIT, feeAmount, description);
+    protected void addTransaction(Transaction.TransactionType type, long amountCents, String description) {
+        addTransaction(type, amountCents, DescriptionTemplate.TEXT, 0, description);
+    }
+    
+    protected void addTransaction(Transaction.TransactionType type, long amountCents, DescriptionTemplate template) {
+        addTransaction(type, amountCents, template, 0, null);
+    }
+    
+    /**
+     * Record a transaction whose description names a counterparty account
+     * Numeric account numbers are stored as a long; any other falls back to plain text
+     */
+    protected void addTransaction(Transaction.TransactionType type, long amountCents, DescriptionTemplate template, 
+                                  String counterpartyAccount) {
+        long accountArgument = DescriptionTemplate.accountArgument(counterpartyAccount);
+        if (accountArgument < 0) {
+            addTransaction(type, amountCents, template.getPrefix() + counterpartyAccount);
+        } else {
+            addTransaction(type, amountCents, template, accountArgument, null);
+        }
+    }
+    
+    protected void addTransaction(Transaction.TransactionType type, long amountCents, DescriptionTemplate template, 
+                                  long descriptionArgument, String descriptionText) {
+        recordTransaction(type, amountCents, template, descriptionArgument, descriptionText, balanceCents);
+    }
+    
+    /**
+     * Append a transaction carrying an explicit running balance, which may differ from
+     * the current balance while a netted settlement is being itemized
+     */
+    private void recordTransaction(Transaction.TransactionType type, long amountCents, DescriptionTemplate template, 
+                                   long descriptionArgument, String descriptionText, long balanceAfterCents) {
+        Transaction transaction = new Transaction(accountNumber, type, amountCents, template, descriptionArgument, 
+                                                  descriptionText, balanceAfterCents, lastTimestampMicros);
+        lastTimestampMicros = transaction.getTimestampMicros();
+        accrual.record(lastTimestampMicros, balanceAfterCents);
+        transactionHistory.append(transaction);
+        recentTransactions.add(transaction);
+        
+        AccountListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.onTransaction(this, transaction);
+        }
+    }
+    
+    /**
+     * Report a change of account state that is not a posting, e.g. a status or setting change
+     * Must be called while holding the account lock
+     */
+    protected final void notifyStateChange() {
+        AccountListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.onStateChange(this);
+        }
+    }
+    
+    protected void addInterestTransaction(long interestCents) {
+        if (interestCents > 0) {
+            balanceCents += interestCents;
+            addTransaction(Transaction.TransactionType.INTEREST_CREDIT, interestCents, DescriptionTemplate.MONTHLY_INTEREST);
+        }
+    }
+    
+    protected void addFeeTransaction(long feeCents, DescriptionTemplate template) {
+        if (feeCents > 0) {
+            balanceCents -= feeCents;
+            addTransaction(Transaction.TransactionType.FEE_DEBIT, feeCents, template);
         }
     }
     
@@ -136,7 +530,11 @@ public abstract class Account {
     }
     
     public double getBalance() { 
-        return balance; 
+        return Money.toDollars(balanceCents); 
+    }
+    
+    public long getBalanceCents() { 
+        return balanceCents; 
     }
     
     public LocalDateTime getDateOpened() { 
@@ -148,34 +546,305 @@ public abstract class Account {
     }
     
     public void deactivateAccount() { 
-        this.isActive = false; 
+        setActive(false);
     }
     
     public void activateAccount() { 
-        this.isActive = true; 
+        setActive(true);
+    }
+    
+    private void setActive(boolean active) {
+        lock.lock();
+        try {
+            boolean changed = this.isActive != active;
+            this.isActive = active;
+            AccountListener currentListener = listener;
+            if (changed && currentListener != null) {
+                currentListener.onActivationChange(this, active);
+            }
+            notifyStateChange();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Counter of chargeable activity in the current month, reset by monthly maintenance
+     * (withdrawals for savings accounts, checks for checking accounts)
+     * @return The current period activity count
+     */
+    public int getPeriodActivityCount() {
+        return 0;
+    }
+    
+    protected void restorePeriodActivityCount(int count) {
+    }
+    
+    /**
+     * Recovery: append a transaction read back from a snapshot or the journal
+     * The transaction is applied only if it is the next one in the history, which makes
+     * replaying records that a snapshot already contains harmless. Listeners are not notified.
+     * @param historyIndex Position of the transaction in the history
+     * @param transaction The recorded transaction
+     * @param periodActivityCount The monthly activity counter after the transaction
+     * @return true if the transaction was applied
+     */
+    public boolean restoreTransaction(int historyIndex, Transaction transaction, int periodActivityCount) {
+        lock.lock();
+        try {
+            if (historyIndex != transactionHistory.size()) {
+                return false;
+            }
+            transactionHistory.append(transaction);
+            recentTransactions.add(transaction);
+            lastTimestampMicros = Math.max(lastTimestampMicros, transaction.getTimestampMicros());
+            balanceCents = transaction.getBalanceAfterCents();
+            accrual.record(transaction.getTimestampMicros(), balanceCents);
+            restorePeriodActivityCount(periodActivityCount);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Recovery: overwrite balance, status and monthly counters without notifying listeners
+     * @param interestPeriodStartMicros Start of the interest period, or Long.MIN_VALUE if not recorded
+     */
+    public void restoreState(long balanceCents, boolean active, int periodActivityCount, 
+                             YearMonth lastMaintainedPeriod, long interestPeriodStartMicros) {
+        lock.lock();
+        try {
+            this.balanceCents = balanceCents;
+            this.isActive = active;
+            this.lastMaintainedPeriod = lastMaintainedPeriod;
+            restorePeriodActivityCount(periodActivityCount);
+            if (interestPeriodStartMicros != Long.MIN_VALUE 
+                    && interestPeriodStartMicros != accrual.getPeriodStartMicros()) {
+                rebuildAccrual(interestPeriodStartMicros);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Recovery: overwrite status and monthly counters without notifying listeners
+     */
+    public void restoreState(boolean active, int periodActivityCount, YearMonth lastMaintainedPeriod, 
+                             long interestPeriodStartMicros) {
+        restoreState(balanceCents, active, periodActivityCount, lastMaintainedPeriod, interestPeriodStartMicros);
+    }
+    
+    /**
+     * Re-accumulate the balance-time integral from the postings made since the period started
+     */
+    private void rebuildAccrual(long periodStartMicros) {
+        int first = transactionHistory.indexAtOrAfter(periodStartMicros + 1);
+        accrual.reset(periodStartMicros, first > 0 ? transactionHistory.balanceAfterCents(first - 1) : 0);
+        for (Transaction transaction : transactionHistory.range(first, transactionHistory.size())) {
+            accrual.record(transaction.getTimestampMicros(), transaction.getBalanceAfterCents());
+        }
+    }
+    
+    /**
+     * @return Current time for the interest accrual, never earlier than the last posting
+     */
+    private long currentTimeMicros() {
+        return Math.max(MicroClocks.transactions().currentTimeMicros(), lastTimestampMicros);
+    }
+    
+    /**
+     * Time-weighted average balance since the interest period started
+     * @return Average balance in cents
+     */
+    public long getAverageBalanceCents() {
+        lock.lock();
+        try {
+            return accrual.averageBalanceCents(currentTimeMicros());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Time-weighted average balance from the start of the interest period up to a cutoff
+     * Postings after the cutoff, such as those made since the month ended, are left out
+     * @param periodEndMicros End of the averaging window in epoch microseconds
+     * @return Average balance in cents
+     */
+    public long getAverageBalanceCents(long periodEndMicros) {
+        lock.lock();
+        try {
+            if (periodEndMicros >= lastTimestampMicros) {
+                return accrual.averageBalanceCents(periodEndMicros);
+            }
+            int first = transactionHistory.indexAtOrAfter(periodEndMicros + 1);
+            long balanceAtCutoff = first > 0 ? transactionHistory.balanceAfterCents(first - 1) : 0;
+            return accrual.averageBalanceCents(periodEndMicros, balanceAtCutoff, 
+                                               transactionHistory.range(first, transactionHistory.size()));
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Interest earned so far in the current period at a simple annual rate, e.g. for a
+     * daily accrual report; read in O(1) from the balance-time integral
+     * @param annualRateBasisPoints Annual rate in basis points
+     * @return Accrued interest in cents
+     */
+    public long getAccruedInterestCents(long annualRateBasisPoints) {
+        lock.lock();
+        try {
+            return accrual.accruedInterestCents(currentTimeMicros(), annualRateBasisPoints);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return Start of the current interest period in epoch microseconds, or Long.MIN_VALUE
+     *         before the first posting
+     */
+    public long getInterestPeriodStartMicros() {
+        lock.lock();
+        try {
+            return accrual.getPeriodStartMicros();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Install the listener notified of every transaction and state change
+     * @param listener The listener, or null to stop notifications
+     */
+    public void setListener(AccountListener listener) {
+        this.listener = listener;
+    }
+    
+    /**
+     * Lock guarding this account's balance, counters and transaction history.
+     * Callers that need several accounts at once must acquire them in a consistent order.
+     * @return The account lock
+     */
+    public final ReentrantLock getLock() {
+        return lock;
     }
     
     public List<Transaction> getTransactionHistory() {
-        return new ArrayList<>(transactionHistory); // Return defensive copy
+        lock.lock();
+        try {
+            return transactionHistory.getAll(); // Return defensive copy
+        } finally {
+            lock.unlock();
+        }
     }
     
     public List<Transaction> getRecentTransactions(int count) {
-        List<Transaction> recent = new ArrayList<>();
-        int start = Math.max(0, transactionHistory.size() - count);
-        for (int i = start; i < transactionHistory.size(); i++) {
-            recent.add(transactionHistory.get(i));
+        lock.lock();
+        try {
+            if (count <= 0) {
+                return new ArrayList<>();
+            }
+            if (count <= recentTransactions.capacity()) {
+                Transaction[] recent = new Transaction[count];
+                int copied = recentTransactions.copyRecent(recent, count);
+                return new ArrayList<>(Arrays.asList(recent).subList(0, copied));
+            }
+            int start = Math.max(0, transactionHistory.size() - count);
+            return transactionHistory.range(start, transactionHistory.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Lazily stream the transactions in a time range
+     * Both ends are located by binary search, then transactions are read in chunks, each
+     * under the account lock, so the cost is O(log n + k) for k matching transactions
+     * @param fromMicros Start of the range in epoch microseconds, inclusive
+     * @param toMicros End of the range in epoch microseconds, exclusive
+     * @return Ordered stream of the matching transactions
+     */
+    public Stream<Transaction> streamTransactionsBetween(long fromMicros, long toMicros) {
+        int fromIndex;
+        int toIndex;
+        lock.lock();
+        try {
+            fromIndex = transactionHistory.indexAtOrAfter(fromMicros);
+            toIndex = Math.max(fromIndex, transactionHistory.indexAtOrAfter(toMicros));
+        } finally {
+            lock.unlock();
+        }
+        TransactionRangeIterator iterator = new TransactionRangeIterator(transactionHistory, lock, fromIndex, toIndex);
+        return StreamSupport.stream(Spliterators.spliterator(iterator, iterator.remaining(), 
+                                    Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+    
+    /**
+     * Balance at a point in time, found by binary search over the history
+     * @param timestampMicros Time in epoch microseconds
+     * @return Balance in cents after the last transaction at or before that time, or 0 if
+     *         the account had no transactions yet
+     */
+    public long getBalanceCentsAsOf(long timestampMicros) {
+        lock.lock();
+        try {
+            int count = timestampMicros == Long.MAX_VALUE ? transactionHistory.size() 
+                                                          : transactionHistory.indexAtOrAfter(timestampMicros + 1);
+            return count > 0 ? transactionHistory.balanceAfterCents(count - 1) : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Copy the transactions in a time range, e.g. for a statement period
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     * @return New list with the matching transactions in posting order
+     */
+    public List<Transaction> getTransactionsBetween(LocalDateTime from, LocalDateTime to) {
+        List<Transaction> result = new ArrayList<>();
+        streamTransactionsBetween(Timestamps.fromLocalDateTime(from), Timestamps.fromLocalDateTime(to))
+            .forEach(result::add);
+        return result;
+    }
+    
+    /**
+     * Allocation-free read of the most recent transactions, served from the recent-transactions buffer
+     * @param target Array receiving the transactions, oldest first; its length is the number wanted,
+     *               up to TransactionRingBuffer.DEFAULT_CAPACITY
+     * @return Number of transactions copied
+     */
+    public int copyRecentTransactions(Transaction[] target) {
+        lock.lock();
+        try {
+            return recentTransactions.copyRecent(target, target.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getTransactionCount() {
+        lock.lock();
+        try {
+            return transactionHistory.size();
+        } finally {
+            lock.unlock();
         }
-        return recent;
     }
     
     private String generateAccountNumber() {
-        return String.valueOf(++accountCounter);
+        return String.valueOf(IdGenerators.accounts().nextId());
     }
     
     @Override
     public String toString() {
         return String.format("Account: %s | Type: %s | Holder: %s | Balance: $%.2f | Status: %s",
-                           accountNumber, getAccountType(), accountHolderName, balance, 
+                           accountNumber, getAccountType(), accountHolderName, getBalance(), 
                            isActive ? "Active" : "Inactive");
     }
     
@@ -185,11 +854,11 @@ public abstract class Account {
         summary.append(String.format("Account Number: %s\n", accountNumber));
         summary.append(String.format("Account Type: %s\n", getAccountType()));
         summary.append(String.format("Account Holder: %s\n", accountHolderName));
-        summary.append(String.format("Current Balance: $%.2f\n", balance));
+        summary.append(String.format("Current Balance: $%.2f\n", getBalance()));
         summary.append(String.format("Minimum Balance: $%.2f\n", getMinimumBalance()));
         summary.append(String.format("Account Status: %s\n", isActive ? "Active" : "Inactive"));
         summary.append(String.format("Date Opened: %s\n", dateOpened.toLocalDate()));
-        summary.append(String.format("Total Transactions: %d\n", transactionHistory.size()));
+        summary.append(String.format("Total Transactions: %d\n", getTransactionCount()));
         return summary.toString();
     }
 }
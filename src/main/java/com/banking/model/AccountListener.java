@@ -0,0 +1,32 @@
+package com.banking.model;
+
+/**
+ * Callback interface for observing account mutations
+ * Listeners are invoked while the account lock is held, so implementations must be
+ * fast and must never try to lock another account
+ */
+public interface AccountListener {
+    
+    /**
+     * Called after a transaction has been applied to the balance and added to the history
+     * @param account The account that changed
+     * @param transaction The transaction that was recorded
+     */
+    void onTransaction(Account account, Transaction transaction);
+    
+    /**
+     * Called after a change that is not a transaction: activation, deactivation, a
+     * setting such as overdraft protection, or the reset of monthly counters by maintenance
+     * @param account The account that changed
+     */
+    void onStateChange(Account account);
+    
+    /**
+     * Called when the account actually switches between active and inactive,
+     * before the corresponding onStateChange
+     * @param account The account that changed
+     * @param active The new status
+     */
+    default void onActivationChange(Account account, boolean active) {
+    }
+}
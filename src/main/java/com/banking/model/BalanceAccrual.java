@@ -0,0 +1,168 @@
+package com.banking.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Running balance-time integral of one account over its current interest period
+ * 
+ * Every posting adds the previous balance multiplied by the time it was held, so the
+ * integral is maintained in O(1) per posting. Average balance and accrued interest for
+ * the period are read from it in O(1), without scanning the history. The integral is
+ * kept exactly, as whole cent-seconds plus a remainder in cent-microseconds.
+ * Not thread-safe; the owning account calls it while holding its lock.
+ */
+public final class BalanceAccrual {
+    public static final long MICROS_PER_SECOND = 1_000_000L;
+    public static final long SECONDS_PER_YEAR = 365L * 24 * 60 * 60;
+    
+    private long periodStartMicros = Long.MIN_VALUE;
+    private long lastUpdateMicros;
+    private long balanceCents;
+    private long centSeconds;
+    private long centMicros;
+    
+    /**
+     * Record a balance change
+     * @param timestampMicros When the new balance took effect, in epoch microseconds
+     * @param newBalanceCents The balance from then on
+     */
+    public void record(long timestampMicros, long newBalanceCents) {
+        if (periodStartMicros == Long.MIN_VALUE) {
+            periodStartMicros = timestampMicros;
+            lastUpdateMicros = timestampMicros;
+        } else {
+            advanceTo(timestampMicros);
+        }
+        balanceCents = newBalanceCents;
+    }
+    
+    /**
+     * Close the current period and start a new one holding the current balance
+     * @param timestampMicros Start of the new period in epoch microseconds
+     */
+    public void startPeriod(long timestampMicros) {
+        periodStartMicros = timestampMicros;
+        lastUpdateMicros = timestampMicros;
+        centSeconds = 0;
+        centMicros = 0;
+    }
+    
+    /**
+     * Restart the integral from a known balance, e.g. when recovery rebuilds the period
+     * @param timestampMicros Start of the period in epoch microseconds
+     * @param balanceCents Balance at the start of the period
+     */
+    public void reset(long timestampMicros, long balanceCents) {
+        startPeriod(timestampMicros);
+        this.balanceCents = balanceCents;
+    }
+    
+    /**
+     * Time-weighted average balance over the period up to the given time
+     * @param nowMicros End of the averaging window in epoch microseconds
+     * @return The average, rounded half-even to the cent; the current balance if no time has passed
+     */
+    public long averageBalanceCents(long nowMicros) {
+        long elapsedMicros = nowMicros - periodStartMicros;
+        if (periodStartMicros == Long.MIN_VALUE || elapsedMicros <= 0) {
+            return balanceCents;
+        }
+        return integralCentMicros(nowMicros).divide(BigDecimal.valueOf(elapsedMicros), 0, RoundingMode.HALF_EVEN)
+                                            .longValueExact();
+    }
+    
+    /**
+     * Time-weighted average balance over the period up to a cutoff that later postings have passed
+     * The balance-time those postings added after the cutoff is taken back out of the integral,
+     * so the cost depends on the postings since the cutoff rather than on the whole period.
+     * @param cutoffMicros End of the averaging window in epoch microseconds
+     * @param balanceAtCutoffCents Balance held at the cutoff
+     * @param postingsAfterCutoff Postings recorded after the cutoff, oldest first
+     * @return The average, rounded half-even to the cent; the balance at the cutoff if the
+     *         period had not started by then
+     */
+    public long averageBalanceCents(long cutoffMicros, long balanceAtCutoffCents, 
+                                    List<Transaction> postingsAfterCutoff) {
+        long elapsedMicros = cutoffMicros - periodStartMicros;
+        if (periodStartMicros == Long.MIN_VALUE || elapsedMicros <= 0) {
+            return balanceAtCutoffCents;
+        }
+        if (cutoffMicros >= lastUpdateMicros) {
+            return averageBalanceCents(cutoffMicros);
+        }
+        BigInteger afterCutoff = BigInteger.ZERO;
+        long heldSinceMicros = cutoffMicros;
+        long heldBalanceCents = balanceAtCutoffCents;
+        for (Transaction posting : postingsAfterCutoff) {
+            long timestampMicros = Math.min(Math.max(posting.getTimestampMicros(), heldSinceMicros), lastUpdateMicros);
+            afterCutoff = afterCutoff.add(BigInteger.valueOf(heldBalanceCents)
+                                                    .multiply(BigInteger.valueOf(timestampMicros - heldSinceMicros)));
+            heldSinceMicros = timestampMicros;
+            heldBalanceCents = posting.getBalanceAfterCents();
+        }
+        afterCutoff = afterCutoff.add(BigInteger.valueOf(heldBalanceCents)
+                                                .multiply(BigInteger.valueOf(lastUpdateMicros - heldSinceMicros)));
+        BigDecimal integral = integralCentMicros(lastUpdateMicros).subtract(new BigDecimal(afterCutoff));
+        return integral.divide(BigDecimal.valueOf(elapsedMicros), 0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+    
+    /**
+     * Interest earned over the period so far at a simple annual rate
+     * @param nowMicros End of the accrual window in epoch microseconds
+     * @param annualRateBasisPoints Annual rate in basis points
+     * @return Accrued interest, rounded half-even to the cent
+     */
+    public long accruedInterestCents(long nowMicros, long annualRateBasisPoints) {
+        if (periodStartMicros == Long.MIN_VALUE) {
+            return 0;
+        }
+        BigDecimal denominator = BigDecimal.valueOf(Money.BASIS_POINTS * SECONDS_PER_YEAR * MICROS_PER_SECOND);
+        return integralCentMicros(nowMicros).multiply(BigDecimal.valueOf(annualRateBasisPoints))
+                                            .divide(denominator, 0, RoundingMode.HALF_EVEN)
+                                            .longValueExact();
+    }
+    
+    /**
+     * @param nowMicros End of the window in epoch microseconds
+     * @return Whole cent-seconds accumulated over the period up to the given time
+     */
+    public long getCentSeconds(long nowMicros) {
+        return integralCentMicros(nowMicros).divide(BigDecimal.valueOf(MICROS_PER_SECOND), 0, RoundingMode.FLOOR)
+                                            .longValueExact();
+    }
+    
+    /**
+     * @return Start of the current period in epoch microseconds, or Long.MIN_VALUE before the first posting
+     */
+    public long getPeriodStartMicros() {
+        return periodStartMicros;
+    }
+    
+    private void advanceTo(long timestampMicros) {
+        long elapsedMicros = timestampMicros - lastUpdateMicros;
+        if (elapsedMicros <= 0) {
+            return;
+        }
+        centSeconds += balanceCents * (elapsedMicros / MICROS_PER_SECOND);
+        centMicros += balanceCents * (elapsedMicros % MICROS_PER_SECOND);
+        centSeconds += centMicros / MICROS_PER_SECOND;
+        centMicros %= MICROS_PER_SECOND;
+        lastUpdateMicros = timestampMicros;
+    }
+    
+    /**
+     * Integral up to a time, including the current balance held since the last posting
+     */
+    private BigDecimal integralCentMicros(long nowMicros) {
+        BigInteger total = BigInteger.valueOf(centSeconds).multiply(BigInteger.valueOf(MICROS_PER_SECOND))
+                                     .add(BigInteger.valueOf(centMicros));
+        long tailMicros = nowMicros - lastUpdateMicros;
+        if (tailMicros > 0) {
+            total = total.add(BigInteger.valueOf(balanceCents).multiply(BigInteger.valueOf(tailMicros)));
+        }
+        return new BigDecimal(total);
+    }
+}
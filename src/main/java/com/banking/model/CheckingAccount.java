@@ -3,20 +3,21 @@ package com.banking.model;
 import com.banking.exception.InvalidAccountException;
 import com.banking.exception.InvalidTransactionException;
 import com.banking.exception.InsufficientFundsException;
+import java.time.LocalDateTime;
 
 /**
  * CheckingAccount class demonstrating inheritance and polymorphism
  * Extends the abstract Account class with specific checking account behavior
  */
 public class CheckingAccount extends Account {
-    // Class constants for business rules
-    private static final double MINIMUM_BALANCE = 25.00;
-    private static final double MONTHLY_MAINTENANCE_FEE = 10.00;
-    private static final double OVERDRAFT_FEE = 35.00;
-    private static final double OVERDRAFT_LIMIT = 500.00;
-    private static final double MAINTENANCE_FEE_WAIVER_BALANCE = 1000.00;
-    private static final double PREMIUM_INTEREST_THRESHOLD = 5000.00;
-    private static final double PREMIUM_INTEREST_RATE = 0.001; // 0.1% annual
+    // Class constants for business rules (amounts in cents)
+    private static final long MINIMUM_BALANCE = 25_00;
+    private static final long MONTHLY_MAINTENANCE_FEE = 10_00;
+    private static final long OVERDRAFT_FEE = 35_00;
+    private static final long OVERDRAFT_LIMIT = 500_00;
+    private static final long MAINTENANCE_FEE_WAIVER_BALANCE = 1000_00;
+    private static final long PREMIUM_INTEREST_THRESHOLD = 5000_00;
+    private static final long PREMIUM_INTEREST_RATE_BASIS_POINTS = 10; // 0.1% annual
     
     // Instance variables for account-specific state
     private boolean overdraftProtection;
@@ -41,19 +42,40 @@ public class CheckingAccount extends Account {
      */
     public CheckingAccount(String accountHolderName, double initialBalance, boolean overdraftProtection) 
             throws InvalidAccountException {
-        super(accountHolderName, Math.max(initialBalance, MINIMUM_BALANCE));
+        super(accountHolderName, Math.max(initialBalance, Money.toDollars(MINIMUM_BALANCE)));
         this.overdraftProtection = overdraftProtection;
         this.checksWrittenThisMonth = 0;
         
         // If initial balance was less than minimum, add the difference
-        if (initialBalance < MINIMUM_BALANCE) {
-            double difference = MINIMUM_BALANCE - initialBalance;
+        long initialBalanceCents = Money.toCents(initialBalance);
+        if (initialBalanceCents < MINIMUM_BALANCE) {
+            long difference = MINIMUM_BALANCE - initialBalanceCents;
             super.performDeposit(difference);
             addTransaction(Transaction.TransactionType.DEPOSIT, difference, 
-                         "Minimum balance requirement deposit");
+                         DescriptionTemplate.MINIMUM_BALANCE_DEPOSIT);
         }
     }
     
+    private CheckingAccount(String accountNumber, String accountHolderName, LocalDateTime dateOpened, 
+                            boolean overdraftProtection) {
+        super(accountNumber, accountHolderName, dateOpened);
+        this.overdraftProtection = overdraftProtection;
+        this.checksWrittenThisMonth = 0;
+    }
+    
+    /**
+     * Recreate an existing checking account from persistent state
+     * @param accountNumber The existing account number
+     * @param accountHolderName Name of the account holder
+     * @param dateOpened When the account was originally opened
+     * @param overdraftProtection Whether overdraft protection is enabled
+     * @return An empty account to be filled with the restore methods
+     */
+    public static CheckingAccount restore(String accountNumber, String accountHolderName, 
+                                          LocalDateTime dateOpened, boolean overdraftProtection) {
+        return new CheckingAccount(accountNumber, accountHolderName, dateOpened, overdraftProtection);
+    }
+    
     @Override
     public String getAccountType() {
         return "Checking Account";
@@ -61,12 +83,12 @@ public class CheckingAccount extends Account {
     
     @Override
     public double getMinimumBalance() {
-        return MINIMUM_BALANCE;
+        return Money.toDollars(MINIMUM_BALANCE);
     }
     
     @Override
-    public boolean canWithdraw(double amount) {
-        double balanceAfterWithdrawal = balance - amount;
+    public boolean canWithdrawCents(long amountCents) {
+        long balanceAfterWithdrawal = getBalanceCents() - amountCents;
         
         if (balanceAfterWithdrawal >= 0) {
             return true; // Sufficient funds
@@ -74,7 +96,7 @@ public class CheckingAccount extends Account {
         
         // Check overdraft protection
         if (overdraftProtection) {
-            double overdraftAmount = Math.abs(balanceAfterWithdrawal);
+            long overdraftAmount = Math.abs(balanceAfterWithdrawal);
             return overdraftAmount <= OVERDRAFT_LIMIT;
         }
         
@@ -82,35 +104,38 @@ public class CheckingAccount extends Account {
     }
     
     @Override
-    protected void performWithdrawal(double amount) {
-        double balanceBeforeWithdrawal = balance;
-        super.performWithdrawal(amount);
+    protected void performWithdrawal(long amountCents) {
+        long balanceBeforeWithdrawal = getBalanceCents();
+        super.performWithdrawal(amountCents);
         
         // Check if withdrawal caused overdraft
-        if (balanceBeforeWithdrawal >= 0 && balance < 0 && overdraftProtection) {
-            addFeeTransaction(OVERDRAFT_FEE, "Overdraft fee");
+        if (balanceBeforeWithdrawal >= 0 && getBalanceCents() < 0 && overdraftProtection) {
+            addFeeTransaction(OVERDRAFT_FEE, DescriptionTemplate.OVERDRAFT_FEE);
         }
     }
     
     @Override
-    public void applyMonthlyMaintenance() {
+    public void applyMonthlyMaintenance(long periodEndMicros) {
         // Reset monthly counters
         checksWrittenThisMonth = 0;
         
         // Apply monthly maintenance fee if balance is below waiver threshold
+        long balance = getBalanceCents();
         if (balance < MAINTENANCE_FEE_WAIVER_BALANCE) {
             if (balance >= MONTHLY_MAINTENANCE_FEE) {
-                addFeeTransaction(MONTHLY_MAINTENANCE_FEE, "Monthly maintenance fee");
+                addFeeTransaction(MONTHLY_MAINTENANCE_FEE, DescriptionTemplate.MONTHLY_MAINTENANCE_FEE);
             } else if (balance > 0) {
                 // Partial fee if balance is insufficient for full fee
-                addFeeTransaction(balance, "Partial monthly maintenance fee");
+                addFeeTransaction(balance, DescriptionTemplate.PARTIAL_MAINTENANCE_FEE);
             }
         }
         
-        // Premium accounts earn interest on high balances
-        if (balance > PREMIUM_INTEREST_THRESHOLD) {
-            double monthlyInterest = balance * (PREMIUM_INTEREST_RATE / 12);
-            if (monthlyInterest >= 0.01) {
+        // Premium accounts earn interest on high average balances
+        long averageBalance = getAverageBalanceCents(periodEndMicros);
+        if (averageBalance > PREMIUM_INTEREST_THRESHOLD) {
+            long monthlyInterest = Money.multiply(averageBalance, PREMIUM_INTEREST_RATE_BASIS_POINTS, 
+                                                  Money.BASIS_POINTS * 12);
+            if (monthlyInterest >= 1) {
                 addInterestTransaction(monthlyInterest);
             }
         }
@@ -125,11 +150,17 @@ public class CheckingAccount extends Account {
      */
     public void writeCheck(double amount, String payee) 
             throws InsufficientFundsException, InvalidTransactionException {
-        validateTransactionAmount(amount);
-        validateWithdrawal(amount);
-        performWithdrawal(amount);
-        checksWrittenThisMonth++;
-        addTransaction(Transaction.TransactionType.WITHDRAWAL, amount, "Check written to " + payee);
+        getLock().lock();
+        try {
+            long amountCents = Money.toCents(amount);
+            validateTransactionAmount(amountCents);
+            validateWithdrawal(amountCents);
+            performWithdrawal(amountCents);
+            checksWrittenThisMonth++;
+            addTransaction(Transaction.TransactionType.WITHDRAWAL, amountCents, DescriptionTemplate.CHECK_WRITTEN, 0, payee);
+        } finally {
+            getLock().unlock();
+        }
     }
     
     // Checking account specific getter methods
@@ -138,28 +169,54 @@ public class CheckingAccount extends Account {
     }
     
     public void enableOverdraftProtection() {
-        this.overdraftProtection = true;
+        setOverdraftProtection(true);
     }
     
     public void disableOverdraftProtection() {
-        this.overdraftProtection = false;
+        setOverdraftProtection(false);
+    }
+    
+    private void setOverdraftProtection(boolean enabled) {
+        getLock().lock();
+        try {
+            if (overdraftProtection != enabled) {
+                overdraftProtection = enabled;
+                notifyStateChange();
+            }
+        } finally {
+            getLock().unlock();
+        }
+    }
+    
+    /**
+     * Recovery: apply the setting read back from the journal without journaling it again
+     * @param enabled Whether overdraft protection is enabled
+     */
+    public void restoreOverdraftProtection(boolean enabled) {
+        getLock().lock();
+        try {
+            overdraftProtection = enabled;
+        } finally {
+            getLock().unlock();
+        }
     }
     
     public double getOverdraftLimit() {
-        return OVERDRAFT_LIMIT;
+        return Money.toDollars(OVERDRAFT_LIMIT);
     }
     
     public double getOverdraftFee() {
-        return OVERDRAFT_FEE;
+        return Money.toDollars(OVERDRAFT_FEE);
     }
     
     public double getAvailableOverdraft() {
         if (!overdraftProtection) return 0.00;
         
+        long balance = getBalanceCents();
         if (balance >= 0) {
-            return OVERDRAFT_LIMIT;
+            return Money.toDollars(OVERDRAFT_LIMIT);
         } else {
-            return Math.max(0, OVERDRAFT_LIMIT + balance); // balance is negative
+            return Money.toDollars(Math.max(0, OVERDRAFT_LIMIT + balance)); // balance is negative
         }
     }
     
@@ -168,15 +225,25 @@ public class CheckingAccount extends Account {
     }
     
     public boolean isOverdrawn() {
-        return balance < 0;
+        return getBalanceCents() < 0;
     }
     
     public double getMonthlyMaintenanceFee() {
-        return MONTHLY_MAINTENANCE_FEE;
+        return Money.toDollars(MONTHLY_MAINTENANCE_FEE);
     }
     
     public double getMaintenanceFeeWaiverBalance() {
-        return MAINTENANCE_FEE_WAIVER_BALANCE;
+        return Money.toDollars(MAINTENANCE_FEE_WAIVER_BALANCE);
+    }
+    
+    @Override
+    public int getPeriodActivityCount() {
+        return checksWrittenThisMonth;
+    }
+    
+    @Override
+    protected void restorePeriodActivityCount(int count) {
+        checksWrittenThisMonth = count;
     }
     
     @Override
@@ -184,15 +251,15 @@ public class CheckingAccount extends Account {
         StringBuilder summary = new StringBuilder(super.getAccountSummary());
         summary.append(String.format("Overdraft Protection: %s\n", overdraftProtection ? "Enabled" : "Disabled"));
         if (overdraftProtection) {
-            summary.append(String.format("Overdraft Limit: $%.2f\n", OVERDRAFT_LIMIT));
+            summary.append(String.format("Overdraft Limit: $%.2f\n", getOverdraftLimit()));
             summary.append(String.format("Available Overdraft: $%.2f\n", getAvailableOverdraft()));
-            summary.append(String.format("Overdraft Fee: $%.2f\n", OVERDRAFT_FEE));
+            summary.append(String.format("Overdraft Fee: $%.2f\n", getOverdraftFee()));
         }
-        summary.append(String.format("Monthly Maintenance Fee: $%.2f\n", MONTHLY_MAINTENANCE_FEE));
-        summary.append(String.format("Fee Waiver Balance: $%.2f\n", MAINTENANCE_FEE_WAIVER_BALANCE));
+        summary.append(String.format("Monthly Maintenance Fee: $%.2f\n", getMonthlyMaintenanceFee()));
+        summary.append(String.format("Fee Waiver Balance: $%.2f\n", getMaintenanceFeeWaiverBalance()));
         summary.append(String.format("Checks Written This Month: %d\n", checksWrittenThisMonth));
         if (isOverdrawn()) {
-            summary.append(String.format("*** ACCOUNT OVERDRAWN BY $%.2f ***\n", Math.abs(balance)));
+            summary.append(String.format("*** ACCOUNT OVERDRAWN BY $%.2f ***\n", Math.abs(getBalance())));
         }
         return summary.toString();
     }
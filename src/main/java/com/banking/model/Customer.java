@@ -1,27 +1,29 @@
 package com.banking.model;
 
 import com.banking.exception.InvalidAccountException;
+import com.banking.id.IdGenerators;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Customer class demonstrating encapsulation and composition
  * Manages customer information and their associated accounts
  */
 public class Customer {
-    private static int customerCounter = 1000;
-    
     // Private fields demonstrating encapsulation
     private final String customerId;
-    private String firstName;
-    private String lastName;
-    private String email;
-    private String phoneNumber;
-    private String address;
+    private volatile String firstName;
+    private volatile String lastName;
+    private volatile String email;
+    private volatile String phoneNumber;
+    private volatile String address;
     private final LocalDateTime dateJoined;
-    private boolean isActive;
-    private final List<Account> accounts;
+    private volatile boolean isActive;
+    private final CopyOnWriteArrayList<Account> accounts;
+    private volatile CustomerListener listener;
     
     /**
      * Constructor for Customer
@@ -41,13 +43,33 @@ public class Customer {
             throw new InvalidAccountException("Valid email address is required");
         }
         
-        this.customerId = "CUST" + (++customerCounter);
+        this.customerId = "CUST" + IdGenerators.customers().nextId();
         this.firstName = firstName.trim();
         this.lastName = lastName.trim();
-        this.email = email.trim().toLowerCase();
+        this.email = normalizeEmail(email);
         this.dateJoined = LocalDateTime.now();
         this.isActive = true;
-        this.accounts = new ArrayList<>();
+        this.accounts = new CopyOnWriteArrayList<>(); // Safe to iterate while accounts are opened concurrently
+    }
+    
+    private Customer(String customerId, String firstName, String lastName, String email, 
+                     LocalDateTime dateJoined, boolean active) {
+        this.customerId = customerId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.dateJoined = dateJoined;
+        this.isActive = active;
+        this.accounts = new CopyOnWriteArrayList<>();
+    }
+    
+    /**
+     * Recreate an existing customer from persistent state, without accounts
+     * @return The restored customer
+     */
+    public static Customer restore(String customerId, String firstName, String lastName, String email, 
+                                   LocalDateTime dateJoined, boolean active) {
+        return new Customer(customerId, firstName, lastName, email, dateJoined, active);
     }
     
     // Getter methods (encapsulation)
@@ -88,40 +110,62 @@ public class Customer {
     }
     
     // Setter methods with validation
-    public void setFirstName(String firstName) throws InvalidAccountException {
+    public synchronized void setFirstName(String firstName) throws InvalidAccountException {
         if (firstName == null || firstName.trim().isEmpty()) {
             throw new InvalidAccountException("First name cannot be empty");
         }
+        String previous = this.firstName;
         this.firstName = firstName.trim();
+        notifyDetailsChange(previous, this.firstName);
     }
     
-    public void setLastName(String lastName) throws InvalidAccountException {
+    public synchronized void setLastName(String lastName) throws InvalidAccountException {
         if (lastName == null || lastName.trim().isEmpty()) {
             throw new InvalidAccountException("Last name cannot be empty");
         }
+        String previous = this.lastName;
         this.lastName = lastName.trim();
+        notifyDetailsChange(previous, this.lastName);
     }
     
-    public void setEmail(String email) throws InvalidAccountException {
+    public synchronized void setEmail(String email) throws InvalidAccountException {
         if (email == null || email.trim().isEmpty() || !isValidEmail(email)) {
             throw new InvalidAccountException("Valid email address is required");
         }
-        this.email = email.trim().toLowerCase();
+        String normalizedEmail = normalizeEmail(email);
+        CustomerListener currentListener = listener;
+        if (currentListener != null && !normalizedEmail.equals(this.email)) {
+            currentListener.onEmailChange(this, this.email, normalizedEmail);
+        }
+        String previous = this.email;
+        this.email = normalizedEmail;
+        notifyDetailsChange(previous, normalizedEmail);
     }
     
-    public void setPhoneNumber(String phoneNumber) {
+    public synchronized void setPhoneNumber(String phoneNumber) {
+        String previous = this.phoneNumber;
         this.phoneNumber = phoneNumber != null ? phoneNumber.trim() : null;
+        notifyDetailsChange(previous, this.phoneNumber);
     }
     
-    public void setAddress(String address) {
+    public synchronized void setAddress(String address) {
+        String previous = this.address;
         this.address = address != null ? address.trim() : null;
+        notifyDetailsChange(previous, this.address);
+    }
+    
+    private void notifyDetailsChange(String previous, String current) {
+        CustomerListener currentListener = listener;
+        if (currentListener != null && !Objects.equals(previous, current)) {
+            currentListener.onDetailsChange(this);
+        }
     }
     
     /**
      * Deactivate the customer and all associated accounts
      */
     public void deactivateCustomer() {
-        this.isActive = false;
+        setActive(false);
         // Also deactivate all accounts
         for (Account account : accounts) {
             account.deactivateAccount();
@@ -132,13 +176,60 @@ public class Customer {
      * Activate the customer
      */
     public void activateCustomer() {
-        this.isActive = true;
+        setActive(true);
+    }
+    
+    private synchronized void setActive(boolean active) {
+        boolean changed = this.isActive != active;
+        this.isActive = active;
+        CustomerListener currentListener = listener;
+        if (changed && currentListener != null) {
+            currentListener.onActivationChange(this, active);
+        }
+    }
+    
+    /**
+     * Recovery: apply the status read back from the journal without notifying the listener
+     * @param active Whether the customer is active
+     */
+    public synchronized void restoreActive(boolean active) {
+        this.isActive = active;
+    }
+    
+    /**
+     * Recovery: apply the name and contact details read back from the journal without notifying the listener
+     * @param email The normalized email address
+     */
+    public synchronized void restoreDetails(String firstName, String lastName, String email, 
+                                            String phoneNumber, String address) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.address = address;
+    }
+    
+    /**
+     * Install the listener notified of email, detail and status changes
+     * @param listener The listener, or null to stop notifications
+     */
+    public void setListener(CustomerListener listener) {
+        this.listener = listener;
+    }
+    
+    /**
+     * Canonical form of an email address used for storage and uniqueness checks
+     * @param email The email address as entered
+     * @return The trimmed, lower-case address
+     */
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase();
     }
     
     // Account management methods
     public void addAccount(Account account) {
-        if (account != null && !accounts.contains(account)) {
-            accounts.add(account);
+        if (account != null) {
+            accounts.addIfAbsent(account);
         }
     }
     
@@ -174,11 +265,11 @@ public class Customer {
      * @return Total balance across all customer accounts
      */
     public double getTotalBalance() {
-        double totalBalance = 0.0;
+        long totalBalanceCents = 0;
         for (Account account : accounts) {
-            totalBalance += account.getBalance();
+            totalBalanceCents += account.getBalanceCents();
         }
-        return totalBalance;
+        return Money.toDollars(totalBalanceCents);
     }
     
     public int getAccountCount() {
@@ -0,0 +1,34 @@
+package com.banking.model;
+
+import com.banking.exception.InvalidAccountException;
+
+/**
+ * Callback interface for observing customer changes that indexes must follow
+ * Listeners are invoked while the customer is locked against concurrent changes
+ */
+public interface CustomerListener {
+    
+    /**
+     * Called before a customer's email address changes; throwing rejects the change
+     * @param customer The customer being changed
+     * @param oldEmail The current normalized address
+     * @param newEmail The new normalized address
+     * @throws InvalidAccountException if the new address cannot be used
+     */
+    void onEmailChange(Customer customer, String oldEmail, String newEmail) throws InvalidAccountException;
+    
+    /**
+     * Called when the customer actually switches between active and inactive
+     * @param customer The customer that changed
+     * @param active The new status
+     */
+    default void onActivationChange(Customer customer, boolean active) {
+    }
+    
+    /**
+     * Called after the customer's name, email address, phone number or address changed
+     * @param customer The customer that changed
+     */
+    default void onDetailsChange(Customer customer) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.banking.model;
+
+/**
+ * Descriptions a transaction can carry, stored as a template plus a compact argument
+ * 
+ * Transactions keep the template and its argument (a counterparty account number as a
+ * long, or a text such as a check payee) and render the readable description only
+ * when it is asked for, so posting does not build a String per transaction.
+ */
+public enum DescriptionTemplate {
+    /** Free text held entirely in the text argument */
+    TEXT("", Argument.TEXT),
+    INITIAL_DEPOSIT("Initial deposit", Argument.NONE),
+    CASH_DEPOSIT("Cash deposit", Argument.NONE),
+    CASH_WITHDRAWAL("Cash withdrawal", Argument.NONE),
+    TRANSFER_TO("Transfer to ", Argument.ACCOUNT),
+    TRANSFER_FROM("Transfer from ", Argument.ACCOUNT),
+    TRANSFER_REVERSAL("Reversal of transfer to ", Argument.ACCOUNT),
+    CHECK_WRITTEN("Check written to ", Argument.TEXT),
+    MINIMUM_BALANCE_DEPOSIT("Minimum balance requirement deposit", Argument.NONE),
+    MONTHLY_INTEREST("Monthly interest credit", Argument.NONE),
+    MONTHLY_MAINTENANCE_FEE("Monthly maintenance fee", Argument.NONE),
+    PARTIAL_MAINTENANCE_FEE("Partial monthly maintenance fee", Argument.NONE),
+    EXCESS_WITHDRAWAL_FEE("Excess withdrawal fee", Argument.NONE),
+    OVERDRAFT_FEE("Overdraft fee", Argument.NONE),
+    BATCH_CREDIT("Batch credit", Argument.NONE),
+    BATCH_DEBIT("Batch debit", Argument.NONE);
+    
+    /**
+     * Kind of argument a template takes
+     */
+    public enum Argument {
+        NONE,
+        ACCOUNT,
+        TEXT
+    }
+    
+    private static final DescriptionTemplate[] VALUES = values();
+    
+    private final String prefix;
+    private final Argument argument;
+    
+    DescriptionTemplate(String prefix, Argument argument) {
+        this.prefix = prefix;
+        this.argument = argument;
+    }
+    
+    public Argument getArgument() { 
+        return argument; 
+    }
+    
+    /**
+     * @return The fixed text, or the text in front of the argument
+     */
+    public String getPrefix() { 
+        return prefix; 
+    }
+    
+    /**
+     * Render the readable description
+     * @param accountArgument Counterparty account number for ACCOUNT templates
+     * @param textArgument Text for TEXT templates
+     * @return The description, or null for a TEXT template without text
+     */
+    public String render(long accountArgument, String textArgument) {
+        switch (argument) {
+            case ACCOUNT:
+                return prefix + accountArgument;
+            case TEXT:
+                if (this == TEXT) {
+                    return textArgument;
+                }
+                return prefix + textArgument;
+            default:
+                return prefix;
+        }
+    }
+    
+    /**
+     * Convert an account number to an ACCOUNT argument without allocating
+     * @param accountNumber The account number
+     * @return Its value, or -1 if it does not render back to exactly the same text
+     */
+    public static long accountArgument(String accountNumber) {
+        if (accountNumber == null || accountNumber.isEmpty() || accountNumber.length() > 18 
+            || accountNumber.charAt(0) < '1' || accountNumber.charAt(0) > '9') {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < accountNumber.length(); i++) {
+            char digit = accountNumber.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+    
+    /**
+     * @param ordinal Ordinal written by a codec
+     * @return The template with that ordinal
+     */
+    public static DescriptionTemplate fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,56 @@
+package com.banking.model;
+
+/**
+ * Money helper for the fixed-point representation used by the model
+ * All balances and transaction amounts are stored as a long number of cents;
+ * the helpers here convert at the API boundary and perform rounding without allocating
+ */
+public final class Money {
+    public static final long CENTS_PER_DOLLAR = 100;
+    public static final long BASIS_POINTS = 10_000;
+    
+    private Money() {
+    }
+    
+    /**
+     * Convert a dollar amount to cents, rounding to the nearest cent
+     * @param amount Amount in dollars
+     * @return Amount in cents
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * CENTS_PER_DOLLAR);
+    }
+    
+    /**
+     * Convert cents back to a dollar amount
+     * @param cents Amount in cents
+     * @return Amount in dollars
+     */
+    public static double toDollars(long cents) {
+        return cents / (double) CENTS_PER_DOLLAR;
+    }
+    
+    /**
+     * Multiply an amount by the rational rate numerator/denominator, rounding half-even
+     * to the nearest cent so repeated interest postings do not drift
+     * @param cents Amount in cents
+     * @param numerator Rate numerator
+     * @param denominator Rate denominator (must be positive)
+     * @return The rounded product in cents
+     */
+    public static long multiply(long cents, long numerator, long denominator) {
+        long product = Math.multiplyExact(cents, numerator);
+        long quotient = product / denominator;
+        long remainder = product % denominator;
+        if (remainder == 0) {
+            return quotient;
+        }
+        
+        long twiceRemainder = Math.abs(remainder) * 2;
+        int signum = product < 0 ? -1 : 1;
+        if (twiceRemainder > denominator || (twiceRemainder == denominator && (quotient & 1) != 0)) {
+            return quotient + signum;
+        }
+        return quotient;
+    }
+}
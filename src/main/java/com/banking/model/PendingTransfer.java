@@ -0,0 +1,50 @@
+package com.banking.model;
+
+/**
+ * A transfer between two shards whose source account has been debited but whose
+ * credit or reversal has not been applied yet
+ */
+public final class PendingTransfer {
+    private final long transferId;
+    private final String fromAccountNumber;
+    private final String toAccountNumber;
+    private final long amountCents;
+    
+    /**
+     * @param transferId Identifier that matches the settlement record to the debit
+     * @param fromAccountNumber Debited account number
+     * @param toAccountNumber Account number to be credited
+     * @param amountCents Amount in cents
+     */
+    public PendingTransfer(long transferId, String fromAccountNumber, String toAccountNumber, long amountCents) {
+        this.transferId = transferId;
+        this.fromAccountNumber = fromAccountNumber;
+        this.toAccountNumber = toAccountNumber;
+        this.amountCents = amountCents;
+    }
+    
+    public long getTransferId() { 
+        return transferId;
+    }
+    
+    public String getFromAccountNumber() { 
+        return fromAccountNumber;
+    }
+    
+    public String getToAccountNumber() { 
+        return toAccountNumber;
+    }
+    
+    public long getAmountCents() { 
+        return amountCents;
+    }
+    
+    public double getAmount() { 
+        return Money.toDollars(amountCents);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("#%d %s -> %s $%.2f", transferId, fromAccountNumber, toAccountNumber, getAmount());
+    }
+}
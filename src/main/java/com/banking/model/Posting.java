@@ -0,0 +1,52 @@
+package com.banking.model;
+
+/**
+ * One credit or debit in a bulk posting file, e.g. a payroll run
+ * The amount is converted to cents once, when the posting is created.
+ */
+public final class Posting {
+    private final String accountNumber;
+    private final long amountCents;
+    private final boolean credit;
+    
+    private Posting(String accountNumber, long amountCents, boolean credit) {
+        this.accountNumber = accountNumber;
+        this.amountCents = amountCents;
+        this.credit = credit;
+    }
+    
+    /**
+     * @param accountNumber Account to credit
+     * @param amount Amount in dollars
+     * @return A credit posting
+     */
+    public static Posting credit(String accountNumber, double amount) {
+        return new Posting(accountNumber, Money.toCents(amount), true);
+    }
+    
+    /**
+     * @param accountNumber Account to debit
+     * @param amount Amount in dollars
+     * @return A debit posting
+     */
+    public static Posting debit(String accountNumber, double amount) {
+        return new Posting(accountNumber, Money.toCents(amount), false);
+    }
+    
+    public String getAccountNumber() { 
+        return accountNumber; 
+    }
+    
+    public long getAmountCents() { 
+        return amountCents; 
+    }
+    
+    public boolean isCredit() { 
+        return credit; 
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s %s $%.2f", credit ? "Credit" : "Debit", accountNumber, Money.toDollars(amountCents));
+    }
+}
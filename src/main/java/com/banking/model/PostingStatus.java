@@ -0,0 +1,17 @@
+package com.banking.model;
+
+/**
+ * Outcome of one posting in a batch
+ * Batches report failures as statuses instead of throwing, one per posting.
+ */
+public enum PostingStatus {
+    POSTED,
+    ACCOUNT_NOT_FOUND,
+    ACCOUNT_INACTIVE,
+    INVALID_AMOUNT,
+    INSUFFICIENT_FUNDS;
+    
+    public boolean isPosted() { 
+        return this == POSTED; 
+    }
+}
@@ -1,19 +1,20 @@
 package com.banking.model;
 
 import com.banking.exception.InvalidAccountException;
+import java.time.LocalDateTime;
 
 /**
  * SavingsAccount class demonstrating inheritance and polymorphism
  * Extends the abstract Account class with specific savings account behavior
  */
 public class SavingsAccount extends Account {
-    // Class constants for business rules
-    private static final double MINIMUM_BALANCE = 100.00;
-    private static final double INTEREST_RATE = 0.035; // 3.5% annual interest
-    private static final double MONTHLY_MAINTENANCE_FEE = 5.00;
+    // Class constants for business rules (amounts in cents)
+    private static final long MINIMUM_BALANCE = 100_00;
+    private static final long INTEREST_RATE_BASIS_POINTS = 350; // 3.5% annual interest
+    private static final long MONTHLY_MAINTENANCE_FEE = 5_00;
     private static final int FREE_WITHDRAWALS_PER_MONTH = 6;
-    private static final double EXCESS_WITHDRAWAL_FEE = 2.00;
-    private static final double MAINTENANCE_FEE_WAIVER_BALANCE = 500.00;
+    private static final long EXCESS_WITHDRAWAL_FEE = 2_00;
+    private static final long MAINTENANCE_FEE_WAIVER_BALANCE = 500_00;
     
     // Instance variables for account-specific state
     private int withdrawalsThisMonth;
@@ -25,18 +26,35 @@ public class SavingsAccount extends Account {
      * @throws InvalidAccountException if account data is invalid
      */
     public SavingsAccount(String accountHolderName, double initialBalance) throws InvalidAccountException {
-        super(accountHolderName, Math.max(initialBalance, MINIMUM_BALANCE));
+        super(accountHolderName, Math.max(initialBalance, Money.toDollars(MINIMUM_BALANCE)));
         this.withdrawalsThisMonth = 0;
         
         // If initial balance was less than minimum, add the difference
-        if (initialBalance < MINIMUM_BALANCE) {
-            double difference = MINIMUM_BALANCE - initialBalance;
+        long initialBalanceCents = Money.toCents(initialBalance);
+        if (initialBalanceCents < MINIMUM_BALANCE) {
+            long difference = MINIMUM_BALANCE - initialBalanceCents;
             super.performDeposit(difference);
             addTransaction(Transaction.TransactionType.DEPOSIT, difference, 
-                         "Minimum balance requirement deposit");
+                         DescriptionTemplate.MINIMUM_BALANCE_DEPOSIT);
         }
     }
     
+    private SavingsAccount(String accountNumber, String accountHolderName, LocalDateTime dateOpened) {
+        super(accountNumber, accountHolderName, dateOpened);
+        this.withdrawalsThisMonth = 0;
+    }
+    
+    /**
+     * Recreate an existing savings account from persistent state
+     * @param accountNumber The existing account number
+     * @param accountHolderName Name of the account holder
+     * @param dateOpened When the account was originally opened
+     * @return An empty account to be filled with the restore methods
+     */
+    public static SavingsAccount restore(String accountNumber, String accountHolderName, LocalDateTime dateOpened) {
+        return new SavingsAccount(accountNumber, accountHolderName, dateOpened);
+    }
+    
     @Override
     public String getAccountType() {
         return "Savings Account";
@@ -44,12 +62,12 @@ public class SavingsAccount extends Account {
     
     @Override
     public double getMinimumBalance() {
-        return MINIMUM_BALANCE;
+        return Money.toDollars(MINIMUM_BALANCE);
     }
     
     @Override
-    public boolean canWithdraw(double amount) {
-        double balanceAfterWithdrawal = balance - amount;
+    public boolean canWithdrawCents(long amountCents) {
+        long balanceAfterWithdrawal = getBalanceCents() - amountCents;
         
         // Check if withdrawal would go below minimum balance
         if (balanceAfterWithdrawal < MINIMUM_BALANCE) {
@@ -66,36 +84,45 @@ public class SavingsAccount extends Account {
     }
     
     @Override
-    protected void performWithdrawal(double amount) {
-        super.performWithdrawal(amount);
+    protected void performWithdrawal(long amountCents) {
+        super.performWithdrawal(amountCents);
         withdrawalsThisMonth++;
         
         // Apply withdrawal fee if over free limit
         if (withdrawalsThisMonth > FREE_WITHDRAWALS_PER_MONTH) {
-            addFeeTransaction(EXCESS_WITHDRAWAL_FEE, "Excess withdrawal fee");
+            addFeeTransaction(EXCESS_WITHDRAWAL_FEE, DescriptionTemplate.EXCESS_WITHDRAWAL_FEE);
         }
     }
     
     @Override
-    public void applyMonthlyMaintenance() {
+    public void applyMonthlyMaintenance(long periodEndMicros) {
         // Reset withdrawal counter
         withdrawalsThisMonth = 0;
         
         // Apply monthly maintenance fee if balance is below threshold
+        long balance = getBalanceCents();
         if (balance < MAINTENANCE_FEE_WAIVER_BALANCE && balance >= MONTHLY_MAINTENANCE_FEE) {
-            addFeeTransaction(MONTHLY_MAINTENANCE_FEE, "Monthly maintenance fee");
+            addFeeTransaction(MONTHLY_MAINTENANCE_FEE, DescriptionTemplate.MONTHLY_MAINTENANCE_FEE);
         }
         
-        // Apply monthly interest
-        double monthlyInterest = balance * (INTEREST_RATE / 12);
-        if (monthlyInterest >= 0.01) { // Only apply if at least 1 cent
+        // Apply monthly interest on the period's average balance, rounded half-even to the cent
+        long monthlyInterest = Money.multiply(getAverageBalanceCents(periodEndMicros), 
+                                              INTEREST_RATE_BASIS_POINTS, Money.BASIS_POINTS * 12);
+        if (monthlyInterest >= 1) { // Only apply if at least 1 cent
             addInterestTransaction(monthlyInterest);
         }
     }
     
     // Savings account specific methods
     public double getInterestRate() {
-        return INTEREST_RATE;
+        return INTEREST_RATE_BASIS_POINTS / (double) Money.BASIS_POINTS;
+    }
+    
+    /**
+     * @return Interest accrued so far this period at the annual rate
+     */
+    public double getAccruedInterest() {
+        return Money.toDollars(getAccruedInterestCents(INTEREST_RATE_BASIS_POINTS));
     }
     
     public int getWithdrawalsThisMonth() {
@@ -107,19 +134,29 @@ public class SavingsAccount extends Account {
     }
     
     public double getMonthlyMaintenanceFee() {
-        return MONTHLY_MAINTENANCE_FEE;
+        return Money.toDollars(MONTHLY_MAINTENANCE_FEE);
     }
     
     public double getMaintenanceFeeWaiverBalance() {
-        return MAINTENANCE_FEE_WAIVER_BALANCE;
+        return Money.toDollars(MAINTENANCE_FEE_WAIVER_BALANCE);
+    }
+    
+    @Override
+    public int getPeriodActivityCount() {
+        return withdrawalsThisMonth;
+    }
+    
+    @Override
+    protected void restorePeriodActivityCount(int count) {
+        withdrawalsThisMonth = count;
     }
     
     @Override
     public String getAccountSummary() {
         StringBuilder summary = new StringBuilder(super.getAccountSummary());
-        summary.append(String.format("Interest Rate: %.2f%% annually\n", INTEREST_RATE * 100));
-        summary.append(String.format("Monthly Maintenance Fee: $%.2f\n", MONTHLY_MAINTENANCE_FEE));
-        summary.append(String.format("Fee Waiver Balance: $%.2f\n", MAINTENANCE_FEE_WAIVER_BALANCE));
+        summary.append(String.format("Interest Rate: %.2f%% annually\n", getInterestRate() * 100));
+        summary.append(String.format("Monthly Maintenance Fee: $%.2f\n", getMonthlyMaintenanceFee()));
+        summary.append(String.format("Fee Waiver Balance: $%.2f\n", getMaintenanceFeeWaiverBalance()));
         summary.append(String.format("Withdrawals This Month: %d\n", withdrawalsThisMonth));
         summary.append(String.format("Free Withdrawals Remaining: %d\n", getRemainingFreeWithdrawals()));
         return summary.toString();
@@ -1,22 +1,33 @@
 package com.banking.model;
 
+import com.banking.id.IdGenerators;
+import com.banking.time.MicroClocks;
+import com.banking.time.Timestamps;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 /**
  * Transaction class to represent individual banking transactions
  * Demonstrates encapsulation and data management
+ * 
+ * The description is held as a DescriptionTemplate with its argument and is only
+ * rendered to text by getDescription, toString and getFormattedTransaction.
+ * The timestamp is epoch microseconds taken from MicroClocks.transactions().
  */
 public class Transaction {
-    private static int transactionCounter = 1000;
+    private static final String ID_PREFIX = "TXN";
+    private static final DateTimeFormatter ROW_FORMAT = Timestamps.systemZoneFormatter("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter STATEMENT_FORMAT = Timestamps.systemZoneFormatter("MMM dd, yyyy HH:mm");
     
-    private final String transactionId;
+    private final long transactionNumber;
     private final String accountNumber;
     private final TransactionType type;
-    private final double amount;
-    private final LocalDateTime timestamp;
-    private final String description;
-    private final double balanceAfterTransaction;
+    private final long amountCents;
+    private final long timestampMicros;
+    private final DescriptionTemplate descriptionTemplate;
+    private final long descriptionArgument;
+    private final String descriptionText;
+    private final long balanceAfterCents;
     
     /**
      * Enum for transaction types
@@ -39,30 +50,111 @@ public class Transaction {
         public String toString() {
             return description;
         }
+        
+        /**
+         * @return true if this type adds to the balance, false if it takes from it
+         */
+        public boolean isCredit() {
+            return this == DEPOSIT || this == TRANSFER_IN || this == INTEREST_CREDIT;
+        }
     }
     
     /**
      * Constructor for creating a transaction
      * @param accountNumber The account number
      * @param type The transaction type
-     * @param amount The transaction amount
+     * @param amountCents The transaction amount in cents
      * @param description The transaction description
-     * @param balanceAfterTransaction The account balance after this transaction
+     * @param balanceAfterCents The account balance after this transaction in cents
+     */
+    public Transaction(String accountNumber, TransactionType type, long amountCents, 
+                      String description, long balanceAfterCents) {
+        this(accountNumber, type, amountCents, DescriptionTemplate.TEXT, 0, description, balanceAfterCents);
+    }
+    
+    /**
+     * Constructor for creating a transaction with a templated description
+     * @param accountNumber The account number
+     * @param type The transaction type
+     * @param amountCents The transaction amount in cents
+     * @param descriptionTemplate The description template
+     * @param descriptionArgument Counterparty account number for ACCOUNT templates, otherwise 0
+     * @param descriptionText Text for TEXT templates, otherwise null
+     * @param balanceAfterCents The account balance after this transaction in cents
+     */
+    public Transaction(String accountNumber, TransactionType type, long amountCents, 
+                      DescriptionTemplate descriptionTemplate, long descriptionArgument, String descriptionText, 
+                      long balanceAfterCents) {
+        this(accountNumber, type, amountCents, descriptionTemplate, descriptionArgument, descriptionText, 
+             balanceAfterCents, Long.MIN_VALUE);
+    }
+    
+    /**
+     * Constructor for a new transaction stamped no earlier than a given time, so that an
+     * account history stays in time order even if the wall clock steps back
+     * @param notBeforeMicros Lower bound of the timestamp in epoch microseconds
+     */
+    Transaction(String accountNumber, TransactionType type, long amountCents, 
+                DescriptionTemplate descriptionTemplate, long descriptionArgument, String descriptionText, 
+                long balanceAfterCents, long notBeforeMicros) {
+        this(IdGenerators.transactions().nextId(), accountNumber, type, amountCents, descriptionTemplate, 
+             descriptionArgument, descriptionText, balanceAfterCents, 
+             Math.max(MicroClocks.transactions().currentTimeMicros(), notBeforeMicros));
+    }
+    
+    /**
+     * Constructor for restoring a recorded transaction from persistent state
+     * @param transactionNumber The original transaction number
+     * @param accountNumber The account number
+     * @param type The transaction type
+     * @param amountCents The transaction amount in cents
+     * @param description The transaction description
+     * @param balanceAfterCents The account balance after this transaction in cents
+     * @param timestampMicros When the transaction originally happened, in epoch microseconds
+     */
+    public Transaction(long transactionNumber, String accountNumber, TransactionType type, long amountCents, 
+                      String description, long balanceAfterCents, long timestampMicros) {
+        this(transactionNumber, accountNumber, type, amountCents, DescriptionTemplate.TEXT, 0, description, 
+             balanceAfterCents, timestampMicros);
+    }
+    
+    /**
+     * Constructor for restoring a recorded transaction with a templated description
+     * @param transactionNumber The original transaction number
+     * @param accountNumber The account number
+     * @param type The transaction type
+     * @param amountCents The transaction amount in cents
+     * @param descriptionTemplate The description template
+     * @param descriptionArgument Counterparty account number for ACCOUNT templates, otherwise 0
+     * @param descriptionText Text for TEXT templates, otherwise null
+     * @param balanceAfterCents The account balance after this transaction in cents
+     * @param timestampMicros When the transaction originally happened, in epoch microseconds
      */
-    public Transaction(String accountNumber, TransactionType type, double amount, 
-                      String description, double balanceAfterTransaction) {
-        this.transactionId = "TXN" + (++transactionCounter);
+    public Transaction(long transactionNumber, String accountNumber, TransactionType type, long amountCents, 
+                      DescriptionTemplate descriptionTemplate, long descriptionArgument, String descriptionText, 
+                      long balanceAfterCents, long timestampMicros) {
+        this.transactionNumber = transactionNumber;
         this.accountNumber = accountNumber;
         this.type = type;
-        this.amount = amount;
-        this.description = description;
-        this.balanceAfterTransaction = balanceAfterTransaction;
-        this.timestamp = LocalDateTime.now();
+        this.amountCents = amountCents;
+        this.descriptionTemplate = descriptionTemplate;
+        this.descriptionArgument = descriptionArgument;
+        this.descriptionText = descriptionText;
+        this.balanceAfterCents = balanceAfterCents;
+        this.timestampMicros = timestampMicros;
     }
     
     // Getter methods (encapsulation)
+    /**
+     * Display form of the transaction identifier, formatted on demand
+     * @return Identifier such as "TXN1001"
+     */
     public String getTransactionId() { 
-        return transactionId; 
+        return ID_PREFIX + transactionNumber; 
+    }
+    
+    public long getTransactionNumber() { 
+        return transactionNumber; 
     }
     
     public String getAccountNumber() { 
@@ -74,27 +166,66 @@ public class Transaction {
     }
     
     public double getAmount() { 
-        return amount; 
+        return Money.toDollars(amountCents); 
+    }
+    
+    public long getAmountCents() { 
+        return amountCents; 
     }
     
+    /**
+     * Local date-time of the transaction, converted from the stored epoch microseconds on each call
+     * @return The timestamp in the system default zone
+     */
     public LocalDateTime getTimestamp() { 
-        return timestamp; 
+        return Timestamps.toLocalDateTime(timestampMicros); 
+    }
+    
+    public long getTimestampMicros() { 
+        return timestampMicros; 
     }
     
+    /**
+     * Readable description, rendered from the template on each call
+     * @return The description
+     */
     public String getDescription() { 
-        return description; 
+        return descriptionTemplate.render(descriptionArgument, descriptionText); 
+    }
+    
+    public DescriptionTemplate getDescriptionTemplate() { 
+        return descriptionTemplate; 
+    }
+    
+    public long getDescriptionArgument() { 
+        return descriptionArgument; 
+    }
+    
+    public String getDescriptionText() { 
+        return descriptionText; 
     }
     
     public double getBalanceAfterTransaction() { 
-        return balanceAfterTransaction; 
+        return Money.toDollars(balanceAfterCents); 
+    }
+    
+    /**
+     * @return The amount in cents, negative for debits
+     */
+    public long getSignedAmountCents() {
+        return type.isCredit() ? amountCents : -amountCents;
+    }
+    
+    public long getBalanceAfterCents() { 
+        return balanceAfterCents; 
     }
     
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         return String.format("%-10s | %-15s | %10.2f | %20s | %10.2f | %s", 
-                           transactionId, type, amount, 
-                           timestamp.format(formatter), balanceAfterTransaction, description);
+                           getTransactionId(), type, getAmount(), 
+                           Timestamps.format(timestampMicros, ROW_FORMAT), getBalanceAfterTransaction(), 
+                           getDescription());
     }
     
     /**
@@ -102,9 +233,8 @@ public class Transaction {
      * @return Formatted transaction string
      */
     public String getFormattedTransaction() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
         return String.format("%s - %s: $%.2f (Balance: $%.2f) [%s]",
-                           timestamp.format(formatter), type, amount, 
-                           balanceAfterTransaction, description);
+                           Timestamps.format(timestampMicros, STATEMENT_FORMAT), type, getAmount(), 
+                           getBalanceAfterTransaction(), getDescription());
     }
 }
@@ -0,0 +1,44 @@
+package com.banking.model;
+
+/**
+ * One transfer in a batch settled by netting, e.g. a sweep or an internal allocation
+ * The amount is converted to cents once, when the instruction is created.
+ */
+public final class TransferInstruction {
+    private final String fromAccountNumber;
+    private final String toAccountNumber;
+    private final long amountCents;
+    
+    private TransferInstruction(String fromAccountNumber, String toAccountNumber, long amountCents) {
+        this.fromAccountNumber = fromAccountNumber;
+        this.toAccountNumber = toAccountNumber;
+        this.amountCents = amountCents;
+    }
+    
+    /**
+     * @param fromAccountNumber Source account number
+     * @param toAccountNumber Destination account number
+     * @param amount Amount in dollars
+     * @return The instruction
+     */
+    public static TransferInstruction of(String fromAccountNumber, String toAccountNumber, double amount) {
+        return new TransferInstruction(fromAccountNumber, toAccountNumber, Money.toCents(amount));
+    }
+    
+    public String getFromAccountNumber() { 
+        return fromAccountNumber; 
+    }
+    
+    public String getToAccountNumber() { 
+        return toAccountNumber; 
+    }
+    
+    public long getAmountCents() { 
+        return amountCents; 
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s -> %s $%.2f", fromAccountNumber, toAccountNumber, Money.toDollars(amountCents));
+    }
+}
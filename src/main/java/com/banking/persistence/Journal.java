@@ -0,0 +1,546 @@
+package com.banking.persistence;
+
+import com.banking.model.*;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead journal of every customer and account mutation
+ * 
+ * Each thread encodes its records into a private buffer and then copies them into the
+ * shared pending buffer under a short append lock, where they receive their sequence
+ * numbers (LSNs) and checksums. A background flusher writes everything appended since
+ * the previous flush with one FileChannel write and one force() (group commit), and
+ * callers that need durability wait for the LSN of the last record they appended.
+ * 
+ * Records appended between beginGroup() and endGroup() on one thread are published
+ * together and followed by a commit record; recovery ignores a group whose commit
+ * record never reached the disk, so a multi-posting operation such as a transfer or a
+ * withdrawal with an overdraft fee is replayed completely or not at all. Callers end a
+ * group while they still hold the locks of the accounts it touches, so the records of
+ * one account are journaled in the order of its history.
+ * 
+ * The journal is a directory of segment files; rollOver() starts a new segment so
+ * that segments made obsolete by a snapshot can be deleted.
+ */
+public class Journal implements AutoCloseable {
+    
+    /**
+     * How long an operation waits for its records to reach the disk
+     */
+    public enum Durability {
+        /** Each publish is written and forced before the operation returns; no sharing */
+        PER_OPERATION,
+        /** Operations wait for a force() that is shared by every concurrent operation */
+        GROUP_COMMIT,
+        /** Operations never wait; a crash can lose up to one flush interval */
+        ASYNC
+    }
+    
+    private static final int INITIAL_BUFFER_BYTES = 1 << 20;
+    private static final int INITIAL_LOCAL_BUFFER_BYTES = 1 << 10;
+    
+    /**
+     * Records encoded by one thread that have not been published yet
+     */
+    private static final class LocalRecords {
+        ByteBuffer buffer = ByteBuffer.allocate(INITIAL_LOCAL_BUFFER_BYTES);
+        int groupDepth;
+        int frameCount;
+        int frameStart;
+        long lastLsn;
+    }
+    
+    private final Path directory;
+    private final ReentrantLock writeLock = new ReentrantLock(); // Acquired before appendLock
+    private FileChannel channel;       // guarded by writeLock
+    private long segmentFirstLsn;      // guarded by writeLock
+    private final Durability durability;
+    private final long flushIntervalNanos;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition recordsAppended = appendLock.newCondition();
+    private final Object durableMonitor = new Object();
+    private final CRC32C crc = new CRC32C(); // guarded by appendLock
+    private final ThreadLocal<LocalRecords> localRecords = ThreadLocal.withInitial(LocalRecords::new);
+    private final LongAdder forceCount = new LongAdder();
+    private final Thread flusher;
+    
+    private ByteBuffer pending;  // guarded by appendLock
+    private ByteBuffer writing;  // owned by the flusher
+    private long appendedLsn;    // guarded by appendLock
+    private volatile long durableLsn;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    
+    private Journal(Path directory, FileChannel channel, long segmentFirstLsn, long lastLsn, 
+                    Durability durability, long flushIntervalMicros) {
+        this.directory = directory;
+        this.channel = channel;
+        this.segmentFirstLsn = segmentFirstLsn;
+        this.durability = durability;
+        this.flushIntervalNanos = TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros);
+        this.pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        this.writing = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        this.appendedLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        
+        if (durability == Durability.PER_OPERATION) {
+            this.flusher = null;
+        } else {
+            this.flusher = new Thread(this::runFlusher, "journal-flusher");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        }
+    }
+    
+    /**
+     * Open a journal for appending, discarding a torn frame or an uncommitted group
+     * left at the end of the last segment by a crash
+     * @param directory Journal directory, created if missing
+     * @param durability Durability level for operations
+     * @param flushIntervalMicros Time the flusher waits to gather records before each force()
+     * @return The open journal
+     * @throws IOException if the journal cannot be opened
+     */
+    public static Journal open(Path directory, Durability durability, long flushIntervalMicros) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = JournalSegments.list(directory);
+        Path segment = segments.isEmpty() ? JournalSegments.path(directory, 1) : segments.get(segments.size() - 1);
+        long firstLsn = JournalSegments.firstLsn(segment);
+        
+        JournalReader.ScanResult scan = JournalReader.replayFile(segment, Long.MAX_VALUE, new JournalVisitor() { });
+        FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(scan.getValidLength());
+        channel.position(scan.getValidLength());
+        long lastLsn = scan.getLastLsn() > 0 ? scan.getLastLsn() : firstLsn - 1;
+        return new Journal(directory, channel, firstLsn, lastLsn, durability, flushIntervalMicros);
+    }
+    
+    /**
+     * Close the current segment and continue in a new one
+     * Every record published before the call is durable in the closed segment when this returns
+     * @return LSN of the last record in the closed segment
+     * @throws IOException if the segment cannot be written or created
+     */
+    public long rollOver() throws IOException {
+        writeLock.lock();
+        try {
+            long lastLsn;
+            appendLock.lock();
+            try {
+                checkUsable();
+                writeAndForce(pending);
+                lastLsn = appendedLsn;
+                if (segmentFirstLsn <= lastLsn) {
+                    channel.close();
+                    segmentFirstLsn = lastLsn + 1;
+                    channel = FileChannel.open(JournalSegments.path(directory, segmentFirstLsn), 
+                                               StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            publishDurable(lastLsn);
+            return lastLsn;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Delete closed segments that only contain records up to the given LSN
+     * @param lsn Records up to this sequence number are no longer needed
+     * @return Number of segments deleted
+     * @throws IOException if a segment cannot be deleted
+     */
+    public int deleteSegmentsUpTo(long lsn) throws IOException {
+        List<Path> segments = JournalSegments.list(directory);
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (JournalSegments.firstLsn(segments.get(i + 1)) <= lsn + 1) {
+                Files.delete(segments.get(i));
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+    
+    public void appendCustomerCreated(Customer customer) {
+        LocalRecords local = beginRecord(JournalCodec.CUSTOMER_CREATED, JournalCodec.maxFrameSize(
+                customer.getCustomerId(), customer.getFirstName(), customer.getLastName(), customer.getEmail()));
+        try {
+            JournalCodec.writeCustomerCreated(local.buffer, customer);
+        } catch (RuntimeException e) {
+            local.buffer.position(local.frameStart); // Drop the partially encoded frame
+            throw e;
+        }
+        endRecord(local);
+    }
+    
+    public void appendCustomerState(Customer customer) {
+        LocalRecords local = beginRecord(JournalCodec.CUSTOMER_STATE, JournalCodec.maxFrameSize(
+                customer.getCustomerId(), customer.getFirstName(), customer.getLastName(), customer.getEmail(), 
+                customer.getPhoneNumber(), customer.getAddress()));
+        try {
+            JournalCodec.writeCustomerState(local.buffer, customer);
+        } catch (RuntimeException e) {
+            local.buffer.position(local.frameStart); // Drop the partially encoded frame
+            throw e;
+        }
+        endRecord(local);
+    }
+    
+    public void appendAccountOpened(Account account, String customerId) {
+        LocalRecords local = beginRecord(JournalCodec.ACCOUNT_OPENED, JournalCodec.maxFrameSize(
+                account.getAccountNumber(), customerId, account.getAccountHolderName()));
+        try {
+            JournalCodec.writeAccountOpened(local.buffer, account, customerId);
+        } catch (RuntimeException e) {
+            local.buffer.position(local.frameStart); // Drop the partially encoded frame
+            throw e;
+        }
+        endRecord(local);
+    }
+    
+    /**
+     * Append a posting; must be called while holding the account lock
+     * @param historyIndex Position of the transaction in the account history
+     */
+    public void appendPosting(Account account, Transaction transaction, int historyIndex) {
+        LocalRecords local = beginRecord(JournalCodec.POSTING, JournalCodec.maxFrameSize(
+                account.getAccountNumber(), transaction.getDescriptionText()));
+        try {
+            JournalCodec.writePosting(local.buffer, account, transaction, historyIndex);
+        } catch (RuntimeException e) {
+            local.buffer.position(local.frameStart); // Drop the partially encoded frame
+            throw e;
+        }
+        endRecord(local);
+    }
+    
+    public void appendAccountState(Account account) {
+        LocalRecords local = beginRecord(JournalCodec.ACCOUNT_STATE, JournalCodec.maxFrameSize(account.getAccountNumber()));
+        try {
+            JournalCodec.writeAccountState(local.buffer, account);
+        } catch (RuntimeException e) {
+            local.buffer.position(local.frameStart); // Drop the partially encoded frame
+            throw e;
+        }
+        endRecord(local);
+    }
+    
+    /**
+     * Append the debit phase of a cross-shard transfer; must be in the same group as the debit
+     */
+    public void appendTransferPending(PendingTransfer transfer) {
+        LocalRecords local = beginRecord(JournalCodec.TRANSFER_PENDING, JournalCodec.maxFrameSize(
+                transfer.getFromAccountNumber(), transfer.getToAccountNumber()));
+        try {
+            JournalCodec.writeTransferPending(local.buffer, transfer);
+        } catch (RuntimeException e) {
+            local.buffer.position(local.frameStart); // Drop the partially encoded frame
+            throw e;
+        }
+        endRecord(local);
+    }
+    
+    /**
+     * Append the end of a pending transfer; must be in the same group as its credit or reversal
+     */
+    public void appendTransferSettled(long transferId) {
+        LocalRecords local = beginRecord(JournalCodec.TRANSFER_SETTLED, JournalCodec.maxFrameSize());
+        local.buffer.putLong(transferId);
+        endRecord(local);
+    }
+    
+    /**
+     * Start a group of records on the calling thread; groups may nest
+     */
+    public void beginGroup() {
+        localRecords.get().groupDepth++;
+    }
+    
+    /**
+     * End the current group, publishing its records followed by a commit record
+     */
+    public void endGroup() {
+        LocalRecords local = localRecords.get();
+        if (local.groupDepth == 0) {
+            throw new IllegalStateException("No journal group in progress");
+        }
+        if (--local.groupDepth == 0 && local.frameCount > 0) {
+            LocalRecords commit = beginRecord(JournalCodec.GROUP_COMMIT, JournalCodec.maxFrameSize());
+            endRecord(commit);
+        }
+    }
+    
+    /**
+     * Reserve room for a frame in the thread's buffer and write the frame prefix;
+     * length, LSN and checksum are filled in when the frame is published
+     */
+    private LocalRecords beginRecord(byte recordType, int maxFrameSize) {
+        checkUsable();
+        LocalRecords local = localRecords.get();
+        local.buffer = ensureCapacity(local.buffer, maxFrameSize);
+        ByteBuffer buffer = local.buffer;
+        local.frameStart = buffer.position();
+        buffer.putInt(0);  // Body length
+        buffer.putInt(0);  // Checksum
+        buffer.putLong(0); // LSN
+        buffer.put(local.groupDepth > 0 ? (byte) (recordType | JournalCodec.GROUPED) : recordType);
+        return local;
+    }
+    
+    private void endRecord(LocalRecords local) {
+        int bodyLength = local.buffer.position() - local.frameStart - JournalCodec.FRAME_HEADER_BYTES;
+        local.buffer.putInt(local.frameStart, bodyLength);
+        local.frameCount++;
+        if (local.groupDepth == 0) {
+            publish(local);
+        }
+    }
+    
+    /**
+     * Assign LSNs and checksums to the thread's frames and move them to the shared buffer
+     */
+    private void publish(LocalRecords local) {
+        ByteBuffer frames = local.buffer;
+        frames.flip();
+        boolean writesInline = durability == Durability.PER_OPERATION;
+        if (writesInline) {
+            writeLock.lock();
+        }
+        appendLock.lock();
+        try {
+            int position = 0;
+            while (position < frames.limit()) {
+                int bodyStart = position + JournalCodec.FRAME_HEADER_BYTES;
+                int bodyLength = frames.getInt(position);
+                frames.putLong(bodyStart, ++appendedLsn);
+                crc.reset();
+                crc.update(frames.array(), frames.arrayOffset() + bodyStart, bodyLength);
+                frames.putInt(position + 4, (int) crc.getValue());
+                position = bodyStart + bodyLength;
+            }
+            
+            pending = ensureCapacity(pending, frames.remaining());
+            pending.put(frames);
+            local.lastLsn = appendedLsn;
+            
+            if (durability == Durability.PER_OPERATION) {
+                try {
+                    writeAndForce(pending);
+                } catch (IOException e) {
+                    fail(e);
+                    throw new UncheckedIOException(e);
+                }
+                publishDurable(appendedLsn);
+            } else {
+                recordsAppended.signal();
+            }
+        } finally {
+            appendLock.unlock();
+            if (writesInline) {
+                writeLock.unlock();
+            }
+            frames.clear();
+            local.frameCount = 0;
+        }
+    }
+    
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + required));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+    
+    /**
+     * Wait until the last record published by the calling thread is durable
+     * A thread that has published nothing waits for every record appended so far, since
+     * its work may have been journaled by other threads. Returns immediately in ASYNC mode.
+     */
+    public void awaitDurable() {
+        if (durability != Durability.ASYNC) {
+            long lastLsn = localRecords.get().lastLsn;
+            awaitDurable(lastLsn > 0 ? lastLsn : getAppendedLsn());
+        }
+    }
+    
+    /**
+     * @return LSN of the last record published by the calling thread, or 0 if it has published none
+     */
+    public long getLastLsn() {
+        return localRecords.get().lastLsn;
+    }
+    
+    /**
+     * Wait until every record up to the given sequence number has been forced to disk
+     * @param lsn Sequence number to wait for
+     */
+    public void awaitDurable(long lsn) {
+        if (durableLsn >= lsn) {
+            return;
+        }
+        synchronized (durableMonitor) {
+            while (durableLsn < lsn) {
+                checkUsable();
+                try {
+                    durableMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for journal"));
+                }
+            }
+        }
+    }
+    
+    private void runFlusher() {
+        try {
+            while (true) {
+                appendLock.lock();
+                try {
+                    while (appendedLsn <= durableLsn && !closed) {
+                        recordsAppended.await();
+                    }
+                    if (appendedLsn <= durableLsn) {
+                        return; // Closed and fully flushed
+                    }
+                } finally {
+                    appendLock.unlock();
+                }
+                
+                if (flushIntervalNanos > 0 && !closed) {
+                    LockSupport.parkNanos(flushIntervalNanos); // Let more records join this force
+                }
+                
+                long batchLsn;
+                writeLock.lock();
+                try {
+                    appendLock.lock();
+                    try {
+                        ByteBuffer filled = pending;
+                        pending = writing;
+                        writing = filled;
+                        batchLsn = appendedLsn;
+                    } finally {
+                        appendLock.unlock();
+                    }
+                    writeAndForce(writing);
+                } finally {
+                    writeLock.unlock();
+                }
+                publishDurable(batchLsn);
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void writeAndForce(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        channel.force(false);
+        forceCount.increment();
+    }
+    
+    private void publishDurable(long lsn) {
+        synchronized (durableMonitor) {
+            durableLsn = lsn;
+            durableMonitor.notifyAll();
+        }
+    }
+    
+    private void fail(IOException e) {
+        failure = e;
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+    }
+    
+    private void checkUsable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal is unusable after a write failure", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+    
+    /**
+     * Flush outstanding records and close the file
+     */
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            closed = true;
+            recordsAppended.signal();
+        } finally {
+            appendLock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writeLock.lock();
+        try {
+            channel.close();
+        } finally {
+            writeLock.unlock();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    public Path getDirectory() { 
+        return directory; 
+    }
+    
+    public Durability getDurability() { 
+        return durability; 
+    }
+    
+    public long getDurableLsn() { 
+        return durableLsn; 
+    }
+    
+    public long getAppendedLsn() {
+        appendLock.lock();
+        try {
+            return appendedLsn;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    /** @return Number of force() calls issued so far */
+    public long getForceCount() { 
+        return forceCount.sum(); 
+    }
+}
@@ -0,0 +1,217 @@
+package com.banking.persistence;
+
+import com.banking.model.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+
+/**
+ * Binary layout of journal records
+ * 
+ * Frame: [int bodyLength][int crc32c(body)][body]
+ * Body:  [long lsn][byte recordType][payload]
+ * Records of an atomic group carry the GROUPED flag and are followed by a GROUP_COMMIT record
+ * Strings are written as a short byte length (-1 for null) followed by UTF-8 bytes
+ */
+final class JournalCodec {
+    static final int FRAME_HEADER_BYTES = 8;
+    static final int BODY_HEADER_BYTES = 9;
+    
+    static final byte CUSTOMER_CREATED = 1;
+    static final byte ACCOUNT_OPENED = 2;
+    static final byte POSTING = 3;
+    static final byte ACCOUNT_STATE = 4;
+    static final byte GROUP_COMMIT = 5;
+    static final byte TRANSFER_PENDING = 6;
+    static final byte TRANSFER_SETTLED = 7;
+    static final byte CUSTOMER_STATE = 8;
+    
+    /** Flag on the record type of records that belong to an atomic group */
+    static final byte GROUPED = (byte) 0x80;
+    
+    static final byte SAVINGS_ACCOUNT = 'S';
+    static final byte CHECKING_ACCOUNT = 'C';
+    
+    private static final int FIXED_PAYLOAD_ESTIMATE = 64;
+    
+    private JournalCodec() {
+    }
+    
+    /**
+     * Upper bound of the encoded size of a frame containing the given strings
+     */
+    static int maxFrameSize(String... strings) {
+        int size = FRAME_HEADER_BYTES + BODY_HEADER_BYTES + FIXED_PAYLOAD_ESTIMATE;
+        for (String value : strings) {
+            size += 2 + (value != null ? value.length() * 3 : 0);
+        }
+        return size;
+    }
+    
+    static void writeCustomerCreated(ByteBuffer buffer, Customer customer) {
+        writeString(buffer, customer.getCustomerId());
+        writeString(buffer, customer.getFirstName());
+        writeString(buffer, customer.getLastName());
+        writeString(buffer, customer.getEmail());
+        buffer.putLong(toEpochMillis(customer.getDateJoined()));
+    }
+    
+    static void writeAccountOpened(ByteBuffer buffer, Account account, String customerId) {
+        writeString(buffer, account.getAccountNumber());
+        writeString(buffer, customerId);
+        buffer.put(kindOf(account));
+        writeString(buffer, account.getAccountHolderName());
+        buffer.put((byte) (account instanceof CheckingAccount 
+                           && ((CheckingAccount) account).isOverdraftProtectionEnabled() ? 1 : 0));
+        buffer.putLong(toEpochMillis(account.getDateOpened()));
+    }
+    
+    static void writePosting(ByteBuffer buffer, Account account, Transaction transaction, int historyIndex) {
+        writeString(buffer, account.getAccountNumber());
+        buffer.putInt(historyIndex);
+        buffer.putLong(transaction.getTransactionNumber());
+        buffer.put((byte) transaction.getType().ordinal());
+        buffer.putLong(transaction.getAmountCents());
+        buffer.putLong(transaction.getBalanceAfterCents());
+        buffer.putLong(transaction.getTimestampMicros());
+        buffer.putInt(account.getPeriodActivityCount());
+        buffer.put((byte) transaction.getDescriptionTemplate().ordinal());
+        buffer.putLong(transaction.getDescriptionArgument());
+        writeString(buffer, transaction.getDescriptionText());
+    }
+    
+    static void writeAccountState(ByteBuffer buffer, Account account) {
+        writeString(buffer, account.getAccountNumber());
+        buffer.putInt(account.getTransactionCount());
+        buffer.put((byte) (account.isActive() ? 1 : 0));
+        buffer.putInt(account.getPeriodActivityCount());
+        buffer.putInt(periodKey(account.getLastMaintainedPeriod()));
+        buffer.putLong(account.getInterestPeriodStartMicros());
+        buffer.put((byte) (account instanceof CheckingAccount 
+                           && ((CheckingAccount) account).isOverdraftProtectionEnabled() ? 1 : 0));
+    }
+    
+    static void writeCustomerState(ByteBuffer buffer, Customer customer) {
+        writeString(buffer, customer.getCustomerId());
+        writeString(buffer, customer.getFirstName());
+        writeString(buffer, customer.getLastName());
+        writeString(buffer, customer.getEmail());
+        writeString(buffer, customer.getPhoneNumber());
+        writeString(buffer, customer.getAddress());
+        buffer.put((byte) (customer.isActive() ? 1 : 0));
+    }
+    
+    static void writeTransferPending(ByteBuffer buffer, PendingTransfer transfer) {
+        buffer.putLong(transfer.getTransferId());
+        writeString(buffer, transfer.getFromAccountNumber());
+        writeString(buffer, transfer.getToAccountNumber());
+        buffer.putLong(transfer.getAmountCents());
+    }
+    
+    /**
+     * Decode one record body and dispatch it to the visitor
+     * @param body Buffer positioned at the start of the body
+     */
+    static void dispatch(ByteBuffer body, JournalVisitor visitor) {
+        long lsn = body.getLong();
+        byte recordType = (byte) (body.get() & ~GROUPED);
+        switch (recordType) {
+            case CUSTOMER_CREATED:
+                visitor.customerCreated(lsn, readString(body), readString(body), readString(body), 
+                                        readString(body), body.getLong());
+                break;
+            case ACCOUNT_OPENED: {
+                String accountNumber = readString(body);
+                String customerId = readString(body);
+                byte kind = body.get();
+                String holderName = readString(body);
+                boolean overdraftProtection = body.get() != 0;
+                visitor.accountOpened(lsn, accountNumber, customerId, kind, holderName, 
+                                      overdraftProtection, body.getLong());
+                break;
+            }
+            case POSTING: {
+                String accountNumber = readString(body);
+                int historyIndex = body.getInt();
+                long transactionNumber = body.getLong();
+                Transaction.TransactionType type = Transaction.TransactionType.values()[body.get()];
+                long amountCents = body.getLong();
+                long balanceAfterCents = body.getLong();
+                long timestamp = body.getLong();
+                int periodActivityCount = body.getInt();
+                DescriptionTemplate template = DescriptionTemplate.fromOrdinal(body.get());
+                long descriptionArgument = body.getLong();
+                visitor.posting(lsn, accountNumber, historyIndex, transactionNumber, type, amountCents, 
+                                balanceAfterCents, timestamp, periodActivityCount, template, 
+                                descriptionArgument, readString(body));
+                break;
+            }
+            case ACCOUNT_STATE:
+                visitor.accountState(lsn, readString(body), body.getInt(), body.get() != 0, body.getInt(), 
+                                     fromPeriodKey(body.getInt()), body.getLong(), body.get() != 0);
+                break;
+            case CUSTOMER_STATE:
+                visitor.customerState(lsn, readString(body), readString(body), readString(body), readString(body), 
+                                      readString(body), readString(body), body.get() != 0);
+                break;
+            case TRANSFER_PENDING:
+                visitor.transferPending(lsn, body.getLong(), readString(body), readString(body), body.getLong());
+                break;
+            case TRANSFER_SETTLED:
+                visitor.transferSettled(lsn, body.getLong());
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type: " + recordType);
+        }
+    }
+    
+    static byte kindOf(Account account) {
+        return account instanceof SavingsAccount ? SAVINGS_ACCOUNT : CHECKING_ACCOUNT;
+    }
+    
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    /**
+     * @return The period as yyyymm, or 0 for none
+     */
+    static int periodKey(YearMonth period) {
+        return period != null ? period.getYear() * 100 + period.getMonthValue() : 0;
+    }
+    
+    static YearMonth fromPeriodKey(int key) {
+        return key != 0 ? YearMonth.of(key / 100, key % 100) : null;
+    }
+    
+    static void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long for journal record: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+    
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, 
+                                  StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,152 @@
+package com.banking.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Sequential reader for journal files
+ * Reading stops at the first torn or corrupt frame, which is how an interrupted
+ * final write shows up after a crash; everything before it is replayed except the
+ * records of a group whose commit record is missing
+ */
+public final class JournalReader {
+    private static final int MAX_BODY_BYTES = 1 << 24;
+    
+    /**
+     * Outcome of reading a journal file
+     */
+    public static final class ScanResult {
+        private final long lastLsn;
+        private final long validLength;
+        private final long recordCount;
+        
+        ScanResult(long lastLsn, long validLength, long recordCount) {
+            this.lastLsn = lastLsn;
+            this.validLength = validLength;
+            this.recordCount = recordCount;
+        }
+        
+        /** @return Sequence number of the last intact record, 0 if none */
+        public long getLastLsn() { 
+            return lastLsn; 
+        }
+        
+        /** @return Length in bytes of the intact, fully committed prefix of the file */
+        public long getValidLength() { 
+            return validLength; 
+        }
+        
+        /** @return Number of records dispatched to the visitor */
+        public long getRecordCount() { 
+            return recordCount; 
+        }
+    }
+    
+    private JournalReader() {
+    }
+    
+    /**
+     * Replay every intact record of a journal directory with a sequence number greater than afterLsn
+     * Segments that lie entirely at or below afterLsn are not read at all
+     * @param directory Journal directory
+     * @param afterLsn Records up to and including this sequence number are skipped
+     * @param visitor Receiver of the decoded records
+     * @return Scan result; the valid length refers to the last segment
+     * @throws IOException if a segment cannot be read
+     */
+    public static ScanResult replay(Path directory, long afterLsn, JournalVisitor visitor) throws IOException {
+        List<Path> segments = JournalSegments.list(directory);
+        long lastLsn = 0;
+        long recordCount = 0;
+        long validLength = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && JournalSegments.firstLsn(segments.get(i + 1)) <= afterLsn + 1) {
+                continue;
+            }
+            ScanResult segmentScan = replayFile(segments.get(i), afterLsn, visitor);
+            lastLsn = Math.max(lastLsn, segmentScan.getLastLsn());
+            recordCount += segmentScan.getRecordCount();
+            validLength = segmentScan.getValidLength();
+        }
+        return new ScanResult(lastLsn, validLength, recordCount);
+    }
+    
+    /**
+     * Replay every intact record of one segment file with a sequence number greater than afterLsn
+     */
+    static ScanResult replayFile(Path path, long afterLsn, JournalVisitor visitor) throws IOException {
+        if (!Files.exists(path)) {
+            return new ScanResult(0, 0, 0);
+        }
+        
+        long lastLsn = 0;
+        long validLength = 0;
+        long recordCount = 0;
+        long pendingLength = 0;
+        byte[] body = new byte[4096];
+        List<byte[]> group = new ArrayList<>();
+        CRC32C crc = new CRC32C();
+        
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (true) {
+                int length;
+                int expectedCrc;
+                try {
+                    length = in.readInt();
+                    expectedCrc = in.readInt();
+                    if (length < JournalCodec.BODY_HEADER_BYTES || length > MAX_BODY_BYTES) {
+                        break;
+                    }
+                    if (body.length < length) {
+                        body = new byte[Math.max(length, body.length * 2)];
+                    }
+                    in.readFully(body, 0, length);
+                } catch (EOFException e) {
+                    break; // Torn final frame
+                }
+                
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                
+                ByteBuffer buffer = ByteBuffer.wrap(body, 0, length);
+                long lsn = buffer.getLong(0);
+                byte recordType = buffer.get(8);
+                pendingLength += JournalCodec.FRAME_HEADER_BYTES + length;
+                
+                if ((recordType & JournalCodec.GROUPED) != 0) {
+                    group.add(Arrays.copyOf(body, length)); // Held back until the group commits
+                    continue;
+                }
+                if (recordType == JournalCodec.GROUP_COMMIT) {
+                    for (byte[] groupedBody : group) {
+                        ByteBuffer groupedBuffer = ByteBuffer.wrap(groupedBody);
+                        if (groupedBuffer.getLong(0) > afterLsn) {
+                            JournalCodec.dispatch(groupedBuffer, visitor);
+                            recordCount++;
+                        }
+                    }
+                    group.clear();
+                } else if (lsn > afterLsn) {
+                    JournalCodec.dispatch(buffer, visitor);
+                    recordCount++;
+                }
+                lastLsn = lsn;
+                validLength += pendingLength;
+                pendingLength = 0;
+            }
+        }
+        return new ScanResult(lastLsn, validLength, recordCount);
+    }
+}
@@ -0,0 +1,47 @@
+package com.banking.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Naming of journal segment files
+ * A journal directory holds segments named after the LSN of their first record,
+ * so sorting the names gives log order and a segment's LSN range is bounded by its successor
+ */
+final class JournalSegments {
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    
+    private JournalSegments() {
+    }
+    
+    static Path path(Path directory, long firstLsn) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstLsn, SUFFIX));
+    }
+    
+    static long firstLsn(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+    
+    /**
+     * @return Segment files of the directory in log order
+     */
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().forEach(segments::add);
+        }
+        return segments;
+    }
+}
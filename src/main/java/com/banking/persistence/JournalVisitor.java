@@ -0,0 +1,67 @@
+package com.banking.persistence;
+
+import com.banking.model.DescriptionTemplate;
+import com.banking.model.Transaction;
+import java.time.YearMonth;
+
+/**
+ * Receives decoded journal records in log order
+ * All methods default to ignoring the record so readers only implement what they need
+ */
+public interface JournalVisitor {
+    
+    default void customerCreated(long lsn, String customerId, String firstName, String lastName, 
+                                 String email, long joinedEpochMillis) {
+    }
+    
+    /**
+     * @param phoneNumber Phone number, or null if none is on file
+     * @param address Postal address, or null if none is on file
+     */
+    default void customerState(long lsn, String customerId, String firstName, String lastName, String email, 
+                               String phoneNumber, String address, boolean active) {
+    }
+    
+    /**
+     * @param accountKind 'S' for savings, 'C' for checking
+     */
+    default void accountOpened(long lsn, String accountNumber, String customerId, byte accountKind, 
+                               String holderName, boolean overdraftProtection, long openedEpochMillis) {
+    }
+    
+    /**
+     * @param historyIndex Position of the transaction in the account history
+     * @param periodActivityCount The account's monthly activity counter after the posting
+     * @param descriptionTemplate Template of the description, with its account and text arguments
+     */
+    default void posting(long lsn, String accountNumber, int historyIndex, long transactionNumber, 
+                         Transaction.TransactionType type, long amountCents, long balanceAfterCents, 
+                         long timestampMicros, int periodActivityCount, 
+                         DescriptionTemplate descriptionTemplate, long descriptionArgument, 
+                         String descriptionText) {
+    }
+    
+    /**
+     * @param historySize Length of the account history when the state was recorded
+     * @param lastMaintainedPeriod Latest period closed by month-end maintenance, or null
+     * @param interestPeriodStartMicros Start of the account's interest accrual period
+     * @param overdraftProtection Overdraft protection setting; always false for savings accounts
+     */
+    default void accountState(long lsn, String accountNumber, int historySize, boolean active, 
+                              int periodActivityCount, YearMonth lastMaintainedPeriod, 
+                              long interestPeriodStartMicros, boolean overdraftProtection) {
+    }
+    
+    /**
+     * The source account of a cross-shard transfer was debited in the same group
+     */
+    default void transferPending(long lsn, long transferId, String fromAccountNumber, String toAccountNumber, 
+                                 long amountCents) {
+    }
+    
+    /**
+     * The credit or the reversal of a pending transfer was applied in the same group
+     */
+    default void transferSettled(long lsn, long transferId) {
+    }
+}
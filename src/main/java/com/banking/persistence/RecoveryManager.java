@@ -0,0 +1,306 @@
+package com.banking.persistence;
+
+import com.banking.model.*;
+import com.banking.service.BankingService;
+import com.banking.exception.AccountNotFoundException;
+import com.banking.id.IdGenerators;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebuilds a BankingService after a restart or crash
+ * 
+ * Recovery loads the newest intact snapshot and replays only the journal records written
+ * after it, so startup time depends on the snapshot size and the journal tail rather than
+ * on the whole history of the bank. Without a snapshot the complete journal is replayed.
+ * Cross-shard transfers whose debit was replayed without a matching settlement are then
+ * completed or reversed, so no debit is left without its credit; any that can be neither
+ * are returned in the result.
+ */
+public final class RecoveryManager {
+    
+    /**
+     * Outcome and timings of a recovery
+     */
+    public static final class RecoveryResult {
+        private final BankingService bank;
+        private final Path snapshot;
+        private final List<Path> skippedSnapshots;
+        private final long snapshotLsn;
+        private final long replayedRecords;
+        private final long snapshotLoadNanos;
+        private final long replayNanos;
+        private final int resolvedTransfers;
+        private final List<PendingTransfer> unresolvedTransfers;
+        
+        RecoveryResult(BankingService bank, Path snapshot, List<Path> skippedSnapshots, long snapshotLsn, 
+                       long replayedRecords, long snapshotLoadNanos, long replayNanos, int resolvedTransfers, 
+                       List<PendingTransfer> unresolvedTransfers) {
+            this.bank = bank;
+            this.snapshot = snapshot;
+            this.skippedSnapshots = skippedSnapshots;
+            this.snapshotLsn = snapshotLsn;
+            this.replayedRecords = replayedRecords;
+            this.snapshotLoadNanos = snapshotLoadNanos;
+            this.replayNanos = replayNanos;
+            this.resolvedTransfers = resolvedTransfers;
+            this.unresolvedTransfers = unresolvedTransfers;
+        }
+        
+        public BankingService getBank() { 
+            return bank; 
+        }
+        
+        /** @return The snapshot that was loaded, or null if recovery used the journal alone */
+        public Path getSnapshot() { 
+            return snapshot; 
+        }
+        
+        /** @return Newer snapshots that could not be read and were passed over, newest first */
+        public List<Path> getSkippedSnapshots() { 
+            return skippedSnapshots; 
+        }
+        
+        public long getSnapshotLsn() { 
+            return snapshotLsn; 
+        }
+        
+        public long getReplayedRecords() { 
+            return replayedRecords; 
+        }
+        
+        public long getSnapshotLoadNanos() { 
+            return snapshotLoadNanos; 
+        }
+        
+        public long getReplayNanos() { 
+            return replayNanos; 
+        }
+        
+        /** @return Cross-shard transfers left between their phases that recovery completed or reversed */
+        public int getResolvedTransfers() { 
+            return resolvedTransfers; 
+        }
+        
+        /** @return Cross-shard transfers that could be neither credited nor reversed and are still pending */
+        public List<PendingTransfer> getUnresolvedTransfers() { 
+            return unresolvedTransfers; 
+        }
+    }
+    
+    private RecoveryManager() {
+    }
+    
+    /**
+     * Recover a bank from its snapshot and journal directories
+     * The journal is reopened for appending and attached to the recovered bank
+     * @param snapshotDirectory Directory written by SnapshotManager
+     * @param journalDirectory Journal directory
+     * @param bankName Bank name used when no snapshot exists
+     * @param bankCode Bank code used when no snapshot exists
+     * @param durability Durability level of the reopened journal
+     * @param flushIntervalMicros Flush interval of the reopened journal
+     * @return The recovered bank with timings
+     * @throws IOException if the journal cannot be opened or read, or is missing records of an account
+     */
+    public static RecoveryResult recover(Path snapshotDirectory, Path journalDirectory, String bankName, 
+                                         String bankCode, Journal.Durability durability, 
+                                         long flushIntervalMicros) throws IOException {
+        Journal journal = Journal.open(journalDirectory, durability, flushIntervalMicros);
+        
+        // Newest snapshot first; a damaged one falls back to its predecessor
+        long loadStart = System.nanoTime();
+        BankingService bank = null;
+        Path loaded = null;
+        long snapshotLsn = 0;
+        List<Path> skipped = new ArrayList<>();
+        List<Path> snapshots = SnapshotStore.list(snapshotDirectory);
+        for (int i = snapshots.size() - 1; i >= 0 && bank == null; i--) {
+            BankingService candidate = new BankingService(bankName, bankCode, journal);
+            try {
+                SnapshotStore.SnapshotInfo info = SnapshotStore.load(snapshots.get(i), candidate);
+                bank = candidate;
+                loaded = snapshots.get(i);
+                snapshotLsn = info.getJournalLsn();
+            } catch (IOException | RuntimeException e) {
+                skipped.add(snapshots.get(i));
+            }
+        }
+        if (bank == null) {
+            bank = new BankingService(bankName, bankCode, journal);
+        }
+        long loadNanos = System.nanoTime() - loadStart;
+        
+        long replayStart = System.nanoTime();
+        ReplayVisitor visitor = new ReplayVisitor(bank);
+        JournalReader.ScanResult scan = JournalReader.replay(journalDirectory, snapshotLsn, visitor);
+        if (visitor.inconsistency != null) {
+            journal.close();
+            throw new IOException(visitor.inconsistency);
+        }
+        visitor.advanceIdGenerators();
+        bank.rebuildAggregates();
+        int resolvedTransfers = bank.resolvePendingTransfers();
+        long replayNanos = System.nanoTime() - replayStart;
+        
+        return new RecoveryResult(bank, loaded, skipped, snapshotLsn, scan.getRecordCount(), loadNanos, 
+                                  replayNanos, resolvedTransfers, bank.getPendingTransfers());
+    }
+    
+    /**
+     * Applies journal records on top of the snapshot state
+     * Records the snapshot already contains are recognised and skipped. Groups are published
+     * while their accounts are locked, so each account's records arrive in history order;
+     * a record ahead of the account's history means the journal lost records before it.
+     * Such inconsistencies fail the recovery rather than leave a silently shortened bank.
+     */
+    private static final class ReplayVisitor implements JournalVisitor {
+        
+        private final BankingService bank;
+        /** Description of the first record that could not be applied, or null */
+        String inconsistency;
+        private long maxAccountId;
+        private long maxCustomerId;
+        private long maxTransactionId;
+        
+        ReplayVisitor(BankingService bank) {
+            this.bank = bank;
+        }
+        
+        @Override
+        public void customerCreated(long lsn, String customerId, String firstName, String lastName, 
+                                    String email, long joinedEpochMillis) {
+            maxCustomerId = Math.max(maxCustomerId, numericSuffix(customerId));
+            if (find(customerId) == null) {
+                bank.restoreCustomer(Customer.restore(customerId, firstName, lastName, email, 
+                                                      JournalCodec.fromEpochMillis(joinedEpochMillis), true));
+            }
+        }
+        
+        @Override
+        public void customerState(long lsn, String customerId, String firstName, String lastName, String email, 
+                                  String phoneNumber, String address, boolean active) {
+            Customer customer = find(customerId);
+            if (customer != null) {
+                bank.restoreCustomerDetails(customer, firstName, lastName, email, phoneNumber, address);
+                customer.restoreActive(active);
+            }
+        }
+        
+        @Override
+        public void accountOpened(long lsn, String accountNumber, String customerId, byte accountKind, 
+                                  String holderName, boolean overdraftProtection, long openedEpochMillis) {
+            maxAccountId = Math.max(maxAccountId, numericSuffix(accountNumber));
+            if (account(accountNumber) != null) {
+                return;
+            }
+            Account account = SnapshotStore.newAccount(accountKind, accountNumber, holderName, 
+                                                       openedEpochMillis, overdraftProtection);
+            try {
+                bank.restoreAccount(customerId, account);
+            } catch (AccountNotFoundException e) {
+                reportInconsistency("Journal record " + lsn + " opens account " + accountNumber 
+                                    + " for unknown customer " + customerId);
+            }
+        }
+        
+        @Override
+        public void posting(long lsn, String accountNumber, int historyIndex, long transactionNumber, 
+                            Transaction.TransactionType type, long amountCents, long balanceAfterCents, 
+                            long timestampMicros, int periodActivityCount, 
+                            DescriptionTemplate descriptionTemplate, long descriptionArgument, 
+                            String descriptionText) {
+            maxTransactionId = Math.max(maxTransactionId, transactionNumber);
+            Account account = account(accountNumber);
+            if (account == null || historyIndex < account.getTransactionCount()) {
+                return;
+            }
+            if (historyIndex > account.getTransactionCount()) {
+                reportGap(lsn, account, historyIndex);
+                return;
+            }
+            account.restoreTransaction(historyIndex, new Transaction(transactionNumber, accountNumber, type, 
+                                                                     amountCents, descriptionTemplate, 
+                                                                     descriptionArgument, descriptionText, 
+                                                                     balanceAfterCents, timestampMicros), 
+                                       periodActivityCount);
+        }
+        
+        @Override
+        public void accountState(long lsn, String accountNumber, int historySize, boolean active, 
+                                 int periodActivityCount, YearMonth lastMaintainedPeriod, 
+                                 long interestPeriodStartMicros, boolean overdraftProtection) {
+            // A snapshot copied after later postings already holds a newer state
+            Account account = account(accountNumber);
+            if (account == null || historySize < account.getTransactionCount()) {
+                return;
+            }
+            if (historySize > account.getTransactionCount()) {
+                reportGap(lsn, account, historySize);
+                return;
+            }
+            account.restoreState(active, periodActivityCount, lastMaintainedPeriod, interestPeriodStartMicros);
+            if (account instanceof CheckingAccount) {
+                ((CheckingAccount) account).restoreOverdraftProtection(overdraftProtection);
+            }
+        }
+        
+        @Override
+        public void transferPending(long lsn, long transferId, String fromAccountNumber, String toAccountNumber, 
+                                    long amountCents) {
+            maxTransactionId = Math.max(maxTransactionId, transferId);
+            bank.restorePendingTransfer(new PendingTransfer(transferId, fromAccountNumber, toAccountNumber, 
+                                                            amountCents));
+        }
+        
+        @Override
+        public void transferSettled(long lsn, long transferId) {
+            bank.removePendingTransfer(transferId);
+        }
+        
+        private void reportGap(long lsn, Account account, int historyIndex) {
+            reportInconsistency("Journal record " + lsn + " for " + account.getAccountNumber() + " expects " 
+                                + historyIndex + " earlier transactions but only " 
+                                + account.getTransactionCount() + " were recovered");
+        }
+        
+        private void reportInconsistency(String description) {
+            if (inconsistency == null) {
+                inconsistency = description;
+            }
+        }
+        
+        void advanceIdGenerators() {
+            IdGenerators.accounts().advanceTo(maxAccountId);
+            IdGenerators.customers().advanceTo(maxCustomerId);
+            IdGenerators.transactions().advanceTo(maxTransactionId);
+        }
+        
+        private Customer find(String customerId) {
+            try {
+                return bank.getCustomer(customerId);
+            } catch (AccountNotFoundException e) {
+                return null;
+            }
+        }
+        
+        private Account account(String accountNumber) {
+            try {
+                return bank.getAccount(accountNumber);
+            } catch (AccountNotFoundException e) {
+                return null;
+            }
+        }
+        
+        private static long numericSuffix(String id) {
+            int start = id.length();
+            while (start > 0 && Character.isDigit(id.charAt(start - 1))) {
+                start--;
+            }
+            return start < id.length() ? Long.parseLong(id.substring(start)) : 0;
+        }
+    }
+}
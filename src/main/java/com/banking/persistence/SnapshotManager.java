@@ -0,0 +1,118 @@
+package com.banking.persistence;
+
+import com.banking.service.BankingService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes periodic snapshots of a running bank and trims the journal behind them
+ * 
+ * Each snapshot starts by rolling the journal over to a new segment; the snapshot covers
+ * everything before that segment, so once a newer snapshot exists the older segments
+ * can be deleted.
+ */
+public class SnapshotManager implements AutoCloseable {
+    private final BankingService bank;
+    private final Path directory;
+    private final int retainedSnapshots;
+    private ScheduledExecutorService scheduler;
+    private volatile IOException lastFailure;
+    
+    /**
+     * @param bank The bank to snapshot; its journal is trimmed after each snapshot
+     * @param directory Snapshot directory
+     * @param retainedSnapshots Number of snapshots kept, at least 1
+     */
+    public SnapshotManager(BankingService bank, Path directory, int retainedSnapshots) {
+        if (retainedSnapshots < 1) {
+            throw new IllegalArgumentException("At least one snapshot must be retained");
+        }
+        this.bank = bank;
+        this.directory = directory;
+        this.retainedSnapshots = retainedSnapshots;
+    }
+    
+    public SnapshotManager(BankingService bank, Path directory) {
+        this(bank, directory, 2);
+    }
+    
+    /**
+     * Write a snapshot while operations continue, then drop old snapshots and journal segments
+     * @return Path of the new snapshot
+     * @throws IOException if the journal or the snapshot cannot be written
+     */
+    public synchronized Path takeSnapshot() throws IOException {
+        Journal journal = bank.getJournal();
+        long journalLsn = journal != null ? journal.rollOver() : 0;
+        Path snapshot = SnapshotStore.write(bank, directory, journalLsn);
+        
+        List<Path> snapshots = SnapshotStore.list(directory);
+        int excess = snapshots.size() - retainedSnapshots;
+        for (int i = 0; i < excess; i++) {
+            Files.delete(snapshots.get(i));
+        }
+        if (journal != null) {
+            // Keep the journal needed by the oldest retained snapshot in case the newest is damaged
+            journal.deleteSegmentsUpTo(SnapshotStore.journalLsn(snapshots.get(Math.max(excess, 0))));
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Take a snapshot at a fixed interval on a background thread
+     * @param interval Time between snapshots
+     * @param unit Unit of the interval
+     */
+    public synchronized void scheduleEvery(long interval, TimeUnit unit) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Snapshots are already scheduled");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                takeSnapshot();
+                lastFailure = null;
+            } catch (IOException e) {
+                lastFailure = e;
+                System.err.println("Snapshot failed: " + e.getMessage());
+            }
+        }, interval, interval, unit);
+    }
+    
+    /**
+     * @return The error of the most recent scheduled snapshot, or null if it succeeded
+     */
+    public IOException getLastFailure() { 
+        return lastFailure; 
+    }
+    
+    public Path getDirectory() { 
+        return directory; 
+    }
+    
+    @Override
+    public void close() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = scheduler;
+            scheduler = null;
+        }
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
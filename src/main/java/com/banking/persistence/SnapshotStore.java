@@ -0,0 +1,366 @@
+package com.banking.persistence;
+
+import com.banking.model.*;
+import com.banking.service.BankingService;
+import com.banking.exception.AccountNotFoundException;
+import com.banking.id.IdGenerators;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot files of the complete BankingService state
+ * 
+ * A snapshot is taken while traffic continues: each account is copied under its own
+ * lock, and the snapshot records the journal LSN it starts from. Every change made
+ * after that LSN is replayed from the journal, and replay is idempotent for changes
+ * that the snapshot happened to capture as well.
+ * 
+ * Layout: header (magic, version, journal LSN, id high-water marks, bank name and code),
+ * one CUSTOMER entry per customer with its accounts and their histories nested inside,
+ * an END tag, the pending cross-shard transfers and a CRC32C of everything before it.
+ * Pending transfers are copied after the accounts, so a transfer settled while the
+ * snapshot was written is either absent or removed again by its replayed settlement.
+ */
+public final class SnapshotStore {
+    private static final int MAGIC = 0x424B534E; // "BKSN"
+    private static final int VERSION = 6;
+    private static final byte CUSTOMER_TAG = 1;
+    private static final byte END_TAG = 0;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final int BUFFER_BYTES = 1 << 16;
+    
+    /**
+     * Header information of a loaded snapshot
+     */
+    public static final class SnapshotInfo {
+        private final long journalLsn;
+        private final String bankName;
+        private final String bankCode;
+        private final long customerCount;
+        private final long accountCount;
+        
+        SnapshotInfo(long journalLsn, String bankName, String bankCode, long customerCount, long accountCount) {
+            this.journalLsn = journalLsn;
+            this.bankName = bankName;
+            this.bankCode = bankCode;
+            this.customerCount = customerCount;
+            this.accountCount = accountCount;
+        }
+        
+        /** @return Journal records up to this LSN are contained in the snapshot */
+        public long getJournalLsn() { 
+            return journalLsn; 
+        }
+        
+        public String getBankName() { 
+            return bankName; 
+        }
+        
+        public String getBankCode() { 
+            return bankCode; 
+        }
+        
+        public long getCustomerCount() { 
+            return customerCount; 
+        }
+        
+        public long getAccountCount() { 
+            return accountCount; 
+        }
+    }
+    
+    private SnapshotStore() {
+    }
+    
+    /**
+     * Write a snapshot of the bank into the directory
+     * The file is written under a temporary name and atomically renamed once complete and
+     * once every journal record it captured is durable
+     * @param bank The bank to snapshot
+     * @param directory Snapshot directory
+     * @param journalLsn Every journal record up to this LSN must already be applied to the bank
+     * @return Path of the new snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static Path write(BankingService bank, Path directory, long journalLsn) throws IOException {
+        Files.createDirectories(directory);
+        Path target = path(directory, journalLsn);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        
+        CRC32C crc = new CRC32C();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_BYTES), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalLsn);
+            out.writeLong(IdGenerators.accounts().highWaterMark());
+            out.writeLong(IdGenerators.customers().highWaterMark());
+            out.writeLong(IdGenerators.transactions().highWaterMark());
+            out.writeUTF(bank.getBankName());
+            out.writeUTF(bank.getBankCode());
+            
+            for (Customer customer : bank.getAllCustomers()) {
+                out.writeByte(CUSTOMER_TAG);
+                writeCustomer(out, customer);
+            }
+            out.writeByte(END_TAG);
+            
+            List<PendingTransfer> pendingTransfers = bank.getPendingTransfers();
+            out.writeInt(pendingTransfers.size());
+            for (PendingTransfer transfer : pendingTransfers) {
+                out.writeLong(transfer.getTransferId());
+                out.writeUTF(transfer.getFromAccountNumber());
+                out.writeUTF(transfer.getToAccountNumber());
+                out.writeLong(transfer.getAmountCents());
+            }
+            out.writeInt((int) crc.getValue());
+        }
+        
+        // Every copied record was published before its account was unlocked; once those
+        // records are durable the snapshot cannot hold part of a group that is later lost
+        Journal journal = bank.getJournal();
+        if (journal != null) {
+            journal.awaitDurable(journal.getAppendedLsn());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(directory); // The rename must be durable before older journal segments are deleted
+        return target;
+    }
+    
+    /**
+     * Make a rename durable by forcing the directory entry to disk
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms cannot open or force a directory; the rename is then as durable as the OS makes it
+        }
+    }
+    
+    private static void writeCustomer(DataOutputStream out, Customer customer) throws IOException {
+        out.writeUTF(customer.getCustomerId());
+        out.writeUTF(customer.getFirstName());
+        out.writeUTF(customer.getLastName());
+        out.writeUTF(customer.getEmail());
+        writeNullable(out, customer.getPhoneNumber());
+        writeNullable(out, customer.getAddress());
+        out.writeLong(JournalCodec.toEpochMillis(customer.getDateJoined()));
+        out.writeBoolean(customer.isActive());
+        
+        List<Account> accounts = customer.getAccounts();
+        out.writeInt(accounts.size());
+        for (Account account : accounts) {
+            writeAccount(out, account);
+        }
+    }
+    
+    private static void writeAccount(DataOutputStream out, Account account) throws IOException {
+        long balanceCents;
+        boolean active;
+        int periodActivityCount;
+        YearMonth lastMaintainedPeriod;
+        long interestPeriodStartMicros;
+        List<Transaction> history;
+        
+        // Copy a consistent view under the account lock, write it outside
+        account.getLock().lock();
+        try {
+            balanceCents = account.getBalanceCents();
+            active = account.isActive();
+            periodActivityCount = account.getPeriodActivityCount();
+            lastMaintainedPeriod = account.getLastMaintainedPeriod();
+            interestPeriodStartMicros = account.getInterestPeriodStartMicros();
+            history = account.getTransactionHistory();
+        } finally {
+            account.getLock().unlock();
+        }
+        
+        out.writeByte(JournalCodec.kindOf(account));
+        out.writeUTF(account.getAccountNumber());
+        out.writeUTF(account.getAccountHolderName());
+        out.writeLong(JournalCodec.toEpochMillis(account.getDateOpened()));
+        out.writeBoolean(account instanceof CheckingAccount 
+                         && ((CheckingAccount) account).isOverdraftProtectionEnabled());
+        out.writeLong(balanceCents);
+        out.writeBoolean(active);
+        out.writeInt(periodActivityCount);
+        out.writeInt(JournalCodec.periodKey(lastMaintainedPeriod));
+        out.writeLong(interestPeriodStartMicros);
+        
+        out.writeInt(history.size());
+        for (Transaction transaction : history) {
+            out.writeLong(transaction.getTransactionNumber());
+            out.writeByte(transaction.getType().ordinal());
+            out.writeLong(transaction.getAmountCents());
+            out.writeLong(transaction.getBalanceAfterCents());
+            out.writeLong(transaction.getTimestampMicros());
+            out.writeByte(transaction.getDescriptionTemplate().ordinal());
+            out.writeLong(transaction.getDescriptionArgument());
+            writeNullable(out, transaction.getDescriptionText());
+        }
+    }
+    
+    /**
+     * Load a snapshot into an empty bank
+     * @param file Snapshot file
+     * @param bank Bank receiving the restored customers and accounts
+     * @return Header information of the snapshot
+     * @throws IOException if the file is unreadable or fails its checksum
+     */
+    public static SnapshotInfo load(Path file, BankingService bank) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a supported snapshot file: " + file);
+            }
+            long journalLsn = in.readLong();
+            IdGenerators.accounts().advanceTo(in.readLong());
+            IdGenerators.customers().advanceTo(in.readLong());
+            IdGenerators.transactions().advanceTo(in.readLong());
+            String bankName = in.readUTF();
+            String bankCode = in.readUTF();
+            
+            long customerCount = 0;
+            long accountCount = 0;
+            while (in.readByte() == CUSTOMER_TAG) {
+                accountCount += readCustomer(in, bank);
+                customerCount++;
+            }
+            int pendingCount = in.readInt();
+            for (int i = 0; i < pendingCount; i++) {
+                bank.restorePendingTransfer(new PendingTransfer(in.readLong(), in.readUTF(), in.readUTF(), 
+                                                                in.readLong()));
+            }
+            
+            int expectedCrc = (int) crc.getValue();
+            if (in.readInt() != expectedCrc) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            return new SnapshotInfo(journalLsn, bankName, bankCode, customerCount, accountCount);
+        }
+    }
+    
+    private static int readCustomer(DataInputStream in, BankingService bank) throws IOException {
+        String customerId = in.readUTF();
+        String firstName = in.readUTF();
+        String lastName = in.readUTF();
+        String email = in.readUTF();
+        String phoneNumber = readNullable(in);
+        String address = readNullable(in);
+        long joined = in.readLong();
+        boolean active = in.readBoolean();
+        
+        Customer customer = Customer.restore(customerId, firstName, lastName, email, 
+                                             JournalCodec.fromEpochMillis(joined), active);
+        customer.setPhoneNumber(phoneNumber);
+        customer.setAddress(address);
+        bank.restoreCustomer(customer);
+        
+        int accountCount = in.readInt();
+        for (int i = 0; i < accountCount; i++) {
+            Account account = readAccount(in);
+            try {
+                bank.restoreAccount(customerId, account);
+            } catch (AccountNotFoundException e) {
+                throw new IOException("Snapshot account without customer: " + customerId, e);
+            }
+        }
+        return accountCount;
+    }
+    
+    private static Account readAccount(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        String accountNumber = in.readUTF();
+        String holderName = in.readUTF();
+        long opened = in.readLong();
+        boolean overdraftProtection = in.readBoolean();
+        long balanceCents = in.readLong();
+        boolean active = in.readBoolean();
+        int periodActivityCount = in.readInt();
+        YearMonth lastMaintainedPeriod = JournalCodec.fromPeriodKey(in.readInt());
+        long interestPeriodStartMicros = in.readLong();
+        
+        Account account = newAccount(kind, accountNumber, holderName, opened, overdraftProtection);
+        Transaction.TransactionType[] types = Transaction.TransactionType.values();
+        int historySize = in.readInt();
+        for (int i = 0; i < historySize; i++) {
+            long transactionNumber = in.readLong();
+            Transaction.TransactionType type = types[in.readByte()];
+            long amountCents = in.readLong();
+            long balanceAfterCents = in.readLong();
+            long timestampMicros = in.readLong();
+            DescriptionTemplate template = DescriptionTemplate.fromOrdinal(in.readByte());
+            long descriptionArgument = in.readLong();
+            String descriptionText = readNullable(in);
+            account.restoreTransaction(i, new Transaction(transactionNumber, accountNumber, type, amountCents, 
+                                                          template, descriptionArgument, descriptionText, 
+                                                          balanceAfterCents, timestampMicros), 0);
+        }
+        account.restoreState(balanceCents, active, periodActivityCount, lastMaintainedPeriod, 
+                             interestPeriodStartMicros);
+        return account;
+    }
+    
+    static Account newAccount(byte kind, String accountNumber, String holderName, long openedEpochMillis, 
+                              boolean overdraftProtection) {
+        if (kind == JournalCodec.SAVINGS_ACCOUNT) {
+            return SavingsAccount.restore(accountNumber, holderName, JournalCodec.fromEpochMillis(openedEpochMillis));
+        }
+        return CheckingAccount.restore(accountNumber, holderName, JournalCodec.fromEpochMillis(openedEpochMillis), 
+                                       overdraftProtection);
+    }
+    
+    /**
+     * @return Snapshot files of the directory, oldest first
+     */
+    public static List<Path> list(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().forEach(snapshots::add);
+        }
+        return snapshots;
+    }
+    
+    static long journalLsn(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+    
+    private static Path path(Path directory, long journalLsn) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, journalLsn, SUFFIX));
+    }
+    
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
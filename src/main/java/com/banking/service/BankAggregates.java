@@ -0,0 +1,87 @@
+package com.banking.service;
+
+import com.banking.model.Account;
+import com.banking.model.Customer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bank-wide totals kept up to date as accounts and customers change
+ * 
+ * Updates come from the account and customer listeners and go to striped LongAdder
+ * counters, so concurrent postings on different accounts do not contend on one
+ * cache line, and reads cost a handful of additions instead of a table scan.
+ * The totals are exact once operations have completed; a read that races with a
+ * transfer may see one leg without the other.
+ */
+final class BankAggregates {
+    private final LongAdder totalBalanceCents = new LongAdder();
+    private final LongAdder activeAccounts = new LongAdder();
+    private final LongAdder activeCustomers = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> accountTypeCounts = new ConcurrentHashMap<>();
+    
+    void accountAdded(Account account) {
+        totalBalanceCents.add(account.getBalanceCents());
+        if (account.isActive()) {
+            activeAccounts.increment();
+        }
+        accountTypeCounts.computeIfAbsent(account.getAccountType(), type -> new LongAdder()).increment();
+    }
+    
+    void customerAdded(Customer customer) {
+        if (customer.isActive()) {
+            activeCustomers.increment();
+        }
+    }
+    
+    void balanceChanged(long deltaCents) {
+        totalBalanceCents.add(deltaCents);
+    }
+    
+    void accountActivationChanged(boolean active) {
+        activeAccounts.add(active ? 1 : -1);
+    }
+    
+    void customerActivationChanged(boolean active) {
+        activeCustomers.add(active ? 1 : -1);
+    }
+    
+    /**
+     * Recompute every total from scratch, for state loaded without notifications
+     */
+    synchronized void rebuild(Collection<Account> accounts, Collection<Customer> customers) {
+        totalBalanceCents.reset();
+        activeAccounts.reset();
+        activeCustomers.reset();
+        accountTypeCounts.clear();
+        for (Account account : accounts) {
+            accountAdded(account);
+        }
+        for (Customer customer : customers) {
+            customerAdded(customer);
+        }
+    }
+    
+    long getTotalBalanceCents() {
+        return totalBalanceCents.sum();
+    }
+    
+    int getActiveAccountCount() {
+        return activeAccounts.intValue();
+    }
+    
+    int getActiveCustomerCount() {
+        return activeCustomers.intValue();
+    }
+    
+    Map<String, Integer> getAccountTypeCounts() {
+        Map<String, Integer> typeCounts = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : accountTypeCounts.entrySet()) {
+            typeCounts.put(entry.getKey(), entry.getValue().intValue());
+        }
+        return typeCounts;
+    }
+}
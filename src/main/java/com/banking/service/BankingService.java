@@ -2,20 +2,50 @@ package com.banking.service;
 
 import com.banking.model.*;
 import com.banking.exception.*;
-import java.util.HashMap;
+import com.banking.persistence.Journal;
+import com.banking.id.IdGenerators;
+import com.banking.time.MicroClocks;
+import com.banking.time.Timestamps;
+import java.time.Instant;
+import java.time.YearMonth;
 import java.util.Map;
+import java.util.HashMap;
+import java.util.TreeMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * BankingService class demonstrating composition, aggregation, and high-level banking operations
  * Manages customers, accounts, and provides banking services
+ * 
+ * The service is safe for use from multiple threads: the registries are concurrent maps
+ * and each account serializes its own mutations, so no service-wide lock is required.
+ * 
+ * When a Journal is supplied every mutation is written ahead to it; each operation is
+ * journaled as one atomic group and returns once the journal reports it durable.
  */
 public class BankingService {
+    /** Batches at least this large apply their accounts in parallel */
+    public static final int PARALLEL_BATCH_THRESHOLD = 8_192;
+    
     private final String bankName;
     private final String bankCode;
     private final Map<String, Customer> customers;
     private final Map<String, Account> accounts;
+    private final ConcurrentHashMap<String, String> customerIdsByEmail;
+    private final TransferEngine transferEngine;
+    private final NettingEngine nettingEngine;
+    private final Journal journal;
+    private final AccountListener accountEventHandler;
+    private final CustomerListener customerEventHandler;
+    private final BankAggregates aggregates;
+    private final Map<Long, PendingTransfer> pendingTransfers;
     
     /**
      * Constructor for BankingService
@@ -23,10 +53,28 @@ public class BankingService {
      * @param bankCode Bank's unique identifier code
      */
     public BankingService(String bankName, String bankCode) {
+        this(bankName, bankCode, null);
+    }
+    
+    /**
+     * Constructor for BankingService with a write-ahead journal
+     * @param bankName Name of the bank
+     * @param bankCode Bank's unique identifier code
+     * @param journal Journal receiving every mutation, or null to keep state in memory only
+     */
+    public BankingService(String bankName, String bankCode, Journal journal) {
         this.bankName = bankName;
         this.bankCode = bankCode;
-        this.customers = new HashMap<>();
-        this.accounts = new HashMap<>();
+        this.customers = new ConcurrentHashMap<>();
+        this.accounts = new ConcurrentHashMap<>();
+        this.customerIdsByEmail = new ConcurrentHashMap<>();
+        this.transferEngine = new TransferEngine();
+        this.nettingEngine = new NettingEngine();
+        this.journal = journal;
+        this.accountEventHandler = new AccountEventHandler();
+        this.customerEventHandler = new CustomerEventHandler();
+        this.pendingTransfers = new ConcurrentHashMap<>();
+        this.aggregates = new BankAggregates();
     }
     
     /**
@@ -39,15 +87,22 @@ public class BankingService {
      */
     public Customer createCustomer(String firstName, String lastName, String email) 
             throws InvalidAccountException {
-        // Check if customer already exists with same email
-        for (Customer existingCustomer : customers.values()) {
-            if (existingCustomer.getEmail().equalsIgnoreCase(email)) {
-                throw new InvalidAccountException("Customer with email " + email + " already exists");
-            }
+        // Cheap rejection before a customer ID is drawn; putIfAbsent below settles races
+        if (email != null && customerIdsByEmail.containsKey(Customer.normalizeEmail(email))) {
+            throw new InvalidAccountException("Customer with email " + email + " already exists");
         }
         
         Customer customer = new Customer(firstName, lastName, email);
+        if (customerIdsByEmail.putIfAbsent(customer.getEmail(), customer.getCustomerId()) != null) {
+            throw new InvalidAccountException("Customer with email " + email + " already exists");
+        }
+        customer.setListener(customerEventHandler);
         customers.put(customer.getCustomerId(), customer);
+        aggregates.customerAdded(customer);
+        if (journal != null) {
+            journal.appendCustomerCreated(customer);
+            journal.awaitDurable();
+        }
         return customer;
     }
     
@@ -58,13 +113,28 @@ public class BankingService {
      * @throws AccountNotFoundException if customer not found
      */
     public Customer getCustomer(String customerId) throws AccountNotFoundException {
-        Customer customer = customers.get(customerId);
+        Customer customer = customerId != null ? customers.get(customerId) : null;
         if (customer == null) {
             throw new AccountNotFoundException("Customer not found: " + customerId);
         }
         return customer;
     }
     
+    /**
+     * Get customer by email address
+     * @param email The email address, in any letter case
+     * @return The Customer object
+     * @throws AccountNotFoundException if no customer uses the address
+     */
+    public Customer getCustomerByEmail(String email) throws AccountNotFoundException {
+        String customerId = email != null ? customerIdsByEmail.get(Customer.normalizeEmail(email)) : null;
+        Customer customer = customerId != null ? customers.get(customerId) : null;
+        if (customer == null) {
+            throw new AccountNotFoundException("Customer not found: " + email);
+        }
+        return customer;
+    }
+    
     /**
      * Get all customers
      * @return List of all customers
@@ -100,8 +170,7 @@ public class BankingService {
         Customer customer = getCustomer(customerId);
         
         SavingsAccount account = new SavingsAccount(customer.getFullName(), initialBalance);
-        customer.addAccount(account);
-        accounts.put(account.getAccountNumber(), account);
+        registerAccount(customer, account);
         
         return account;
     }
@@ -121,8 +190,7 @@ public class BankingService {
         Customer customer = getCustomer(customerId);
         
         CheckingAccount account = new CheckingAccount(customer.getFullName(), initialBalance, overdraftProtection);
-        customer.addAccount(account);
-        accounts.put(account.getAccountNumber(), account);
+        registerAccount(customer, account);
         
         return account;
     }
@@ -140,6 +208,130 @@ public class BankingService {
         return createCheckingAccount(customerId, initialBalance, true);
     }
     
+    /**
+     * Journal a newly constructed account with its opening postings and make it visible
+     */
+    private void registerAccount(Customer customer, Account account) {
+        beginJournalGroup(account);
+        try {
+            if (journal != null) {
+                journal.appendAccountOpened(account, customer.getCustomerId());
+                List<Transaction> openingTransactions = account.getTransactionHistory();
+                for (int i = 0; i < openingTransactions.size(); i++) {
+                    journal.appendPosting(account, openingTransactions.get(i), i);
+                }
+            }
+            account.setListener(accountEventHandler);
+            customer.addAccount(account);
+            accounts.put(account.getAccountNumber(), account);
+            aggregates.accountAdded(account);
+        } finally {
+            endJournalGroup(account);
+        }
+        awaitJournal();
+    }
+    
+    /**
+     * Recovery: recompute the bank-wide totals once restored customers and accounts are complete
+     */
+    public void rebuildAggregates() {
+        aggregates.rebuild(accounts.values(), customers.values());
+    }
+    
+    /**
+     * Recovery: register a customer read back from persistent state without journaling it
+     * @param customer The restored customer
+     */
+    public void restoreCustomer(Customer customer) {
+        customerIdsByEmail.put(customer.getEmail(), customer.getCustomerId());
+        customer.setListener(customerEventHandler);
+        customers.put(customer.getCustomerId(), customer);
+    }
+    
+    /**
+     * Recovery: apply journaled customer details and move the customer's email index entry
+     * @param customer The restored customer
+     * @param email The normalized email address
+     */
+    public void restoreCustomerDetails(Customer customer, String firstName, String lastName, String email, 
+                                       String phoneNumber, String address) {
+        customerIdsByEmail.remove(customer.getEmail(), customer.getCustomerId());
+        customer.restoreDetails(firstName, lastName, email, phoneNumber, address);
+        customerIdsByEmail.put(email, customer.getCustomerId());
+    }
+    
+    /**
+     * Recovery: register an account read back from persistent state without journaling it
+     * @param customerId The owning customer's ID
+     * @param account The restored account
+     * @throws AccountNotFoundException if the customer has not been restored
+     */
+    public void restoreAccount(String customerId, Account account) throws AccountNotFoundException {
+        Customer customer = getCustomer(customerId);
+        account.setListener(accountEventHandler);
+        customer.addAccount(account);
+        accounts.put(account.getAccountNumber(), account);
+    }
+    
+    /**
+     * Recovery: register a cross-shard transfer whose credit or reversal has not been applied
+     * @param transfer The pending transfer read from a snapshot or the journal
+     */
+    public void restorePendingTransfer(PendingTransfer transfer) {
+        pendingTransfers.put(transfer.getTransferId(), transfer);
+    }
+    
+    /**
+     * Recovery: forget a pending transfer whose settlement record was replayed
+     * @param transferId The transfer identifier
+     */
+    public void removePendingTransfer(long transferId) {
+        pendingTransfers.remove(transferId);
+    }
+    
+    /**
+     * @return Cross-shard transfers whose source is debited but whose credit or reversal is not applied yet
+     */
+    public List<PendingTransfer> getPendingTransfers() {
+        return new ArrayList<>(pendingTransfers.values());
+    }
+    
+    /**
+     * Recovery: finish the cross-shard transfers that a crash left between their phases
+     * Each transfer is credited to its destination, or reversed to its source if the
+     * destination refuses it, and journaled as one group together with its settlement.
+     * A transfer that can be neither credited nor reversed stays pending for the caller.
+     * @return Number of transfers resolved
+     */
+    public int resolvePendingTransfers() {
+        int resolved = 0;
+        for (PendingTransfer transfer : getPendingTransfers()) {
+            Account fromAccount = accounts.get(transfer.getFromAccountNumber());
+            Account toAccount = accounts.get(transfer.getToAccountNumber());
+            beginJournalGroup(fromAccount, toAccount);
+            try {
+                try {
+                    if (toAccount == null) {
+                        throw new InvalidTransactionException("Destination account " + transfer.getToAccountNumber() 
+                                                              + " does not exist");
+                    }
+                    toAccount.transferIn(transfer.getAmount(), transfer.getFromAccountNumber());
+                } catch (InvalidTransactionException e) {
+                    if (fromAccount == null) {
+                        continue; // Nowhere to return the funds to
+                    }
+                    fromAccount.reverseTransferOut(transfer.getAmount(), transfer.getToAccountNumber());
+                }
+                settlePendingTransfer(transfer);
+                resolved++;
+            } finally {
+                endJournalGroup(fromAccount, toAccount);
+            }
+        }
+        awaitJournal();
+        return resolved;
+    }
+    
     /**
      * Get account by account number
      * @param accountNumber The account number
@@ -147,7 +339,7 @@ public class BankingService {
      * @throws AccountNotFoundException if account not found
      */
     public Account getAccount(String accountNumber) throws AccountNotFoundException {
-        Account account = accounts.get(accountNumber);
+        Account account = accountNumber != null ? accounts.get(accountNumber) : null;
         if (account == null) {
             throw new AccountNotFoundException(accountNumber);
         }
@@ -186,7 +378,13 @@ public class BankingService {
     public void deposit(String accountNumber, double amount) 
             throws AccountNotFoundException, InvalidTransactionException {
         Account account = getAccount(accountNumber);
-        account.deposit(amount);
+        beginJournalGroup(account);
+        try {
+            account.deposit(amount);
+        } finally {
+            endJournalGroup(account);
+        }
+        awaitJournal();
     }
     
     /**
@@ -200,11 +398,66 @@ public class BankingService {
     public void withdraw(String accountNumber, double amount) 
             throws AccountNotFoundException, InsufficientFundsException, InvalidTransactionException {
         Account account = getAccount(accountNumber);
-        account.withdraw(amount);
+        beginJournalGroup(account);
+        try {
+            account.withdraw(amount);
+        } finally {
+            endJournalGroup(account);
+        }
+        awaitJournal();
+    }
+    
+    /**
+     * Deposit money without throwing on rejection
+     * @param accountNumber The account number
+     * @param amount The amount to deposit
+     * @return POSTED, or the reason the deposit was rejected
+     */
+    public PostingStatus tryDeposit(String accountNumber, double amount) {
+        Account account = accountNumber != null ? accounts.get(accountNumber) : null;
+        if (account == null) {
+            return PostingStatus.ACCOUNT_NOT_FOUND;
+        }
+        PostingStatus status;
+        beginJournalGroup(account);
+        try {
+            status = account.tryDeposit(amount);
+        } finally {
+            endJournalGroup(account);
+        }
+        if (status.isPosted()) {
+            awaitJournal();
+        }
+        return status;
+    }
+    
+    /**
+     * Withdraw money without throwing on a decline, for high-volume paths where declines are routine
+     * @param accountNumber The account number
+     * @param amount The amount to withdraw
+     * @return POSTED, or the reason the withdrawal was declined
+     */
+    public PostingStatus tryWithdraw(String accountNumber, double amount) {
+        Account account = accountNumber != null ? accounts.get(accountNumber) : null;
+        if (account == null) {
+            return PostingStatus.ACCOUNT_NOT_FOUND;
+        }
+        PostingStatus status;
+        beginJournalGroup(account);
+        try {
+            status = account.tryWithdraw(amount);
+        } finally {
+            endJournalGroup(account);
+        }
+        if (status.isPosted()) {
+            awaitJournal();
+        }
+        return status;
     }
     
     /**
      * Transfer money between accounts
+     * Either both the debit and the credit are recorded or neither is
      * @param fromAccountNumber Source account number
      * @param toAccountNumber Destination account number
      * @param amount Amount to transfer
@@ -221,9 +474,147 @@ public class BankingService {
         Account fromAccount = getAccount(fromAccountNumber);
         Account toAccount = getAccount(toAccountNumber);
         
-        // Perform transfer
-        fromAccount.transferOut(amount, toAccountNumber);
-        toAccount.transferIn(amount, fromAccountNumber);
+        // Both legs are applied atomically under both account locks
+        beginJournalGroup(fromAccount, toAccount);
+        try {
+            transferEngine.transfer(fromAccount, toAccount, amount);
+        } finally {
+            endJournalGroup(fromAccount, toAccount);
+        }
+        awaitJournal();
+    }
+    
+    /**
+     * Post a batch of credits and debits, e.g. a payroll file
+     * Postings are grouped by account, and each account is locked once to apply all of its
+     * postings in submission order. Rejected postings are reported in the result instead
+     * of thrown. Large batches apply different accounts in parallel; each account's
+     * postings are one journal group and the call returns once the batch is durable.
+     * @param postings The postings
+     * @return Outcome of every posting, in submission order
+     */
+    public PostingBatchResult postBatch(List<Posting> postings) {
+        return postBatch(postings.toArray(new Posting[0]));
+    }
+    
+    /**
+     * Post a stream of credits and debits as one batch
+     * @param postings The postings
+     * @return Outcome of every posting, in stream order
+     */
+    public PostingBatchResult postBatch(Stream<Posting> postings) {
+        return postBatch(postings.toArray(Posting[]::new));
+    }
+    
+    private PostingBatchResult postBatch(Posting[] batch) {
+        long start = System.nanoTime();
+        PostingStatus[] statuses = new PostingStatus[batch.length];
+        
+        // One validation pass: each distinct account is looked up once and numbered
+        Map<String, Integer> groupByAccountNumber = new HashMap<>();
+        List<Account> groupAccounts = new ArrayList<>();
+        int[] groupOf = new int[batch.length];
+        int[] groupSizes = new int[16];
+        int accepted = 0;
+        for (int i = 0; i < batch.length; i++) {
+            Posting posting = batch[i];
+            groupOf[i] = -1;
+            if (posting.getAmountCents() <= 0) {
+                statuses[i] = PostingStatus.INVALID_AMOUNT;
+                continue;
+            }
+            Integer group = groupByAccountNumber.get(posting.getAccountNumber());
+            if (group == null) {
+                Account account = posting.getAccountNumber() != null ? accounts.get(posting.getAccountNumber()) : null;
+                group = account == null ? -1 : groupAccounts.size();
+                groupByAccountNumber.put(posting.getAccountNumber(), group);
+                if (account != null) {
+                    groupAccounts.add(account);
+                    if (group == groupSizes.length) {
+                        groupSizes = Arrays.copyOf(groupSizes, group * 2);
+                    }
+                }
+            }
+            if (group < 0) {
+                statuses[i] = PostingStatus.ACCOUNT_NOT_FOUND;
+                continue;
+            }
+            groupOf[i] = group;
+            groupSizes[group]++;
+            accepted++;
+        }
+        
+        // Counting sort of the accepted positions by account, keeping submission order within an account
+        int groupCount = groupAccounts.size();
+        int[] groupStarts = new int[groupCount + 1];
+        for (int group = 0; group < groupCount; group++) {
+            groupStarts[group + 1] = groupStarts[group] + groupSizes[group];
+        }
+        int[] order = new int[accepted];
+        int[] next = Arrays.copyOf(groupStarts, groupCount);
+        for (int i = 0; i < batch.length; i++) {
+            if (groupOf[i] >= 0) {
+                order[next[groupOf[i]]++] = i;
+            }
+        }
+        
+        IntStream groups = IntStream.range(0, groupCount);
+        if (batch.length >= PARALLEL_BATCH_THRESHOLD) {
+            groups = groups.parallel();
+        }
+        int posted = groups.map(group -> {
+            Account account = groupAccounts.get(group);
+            beginJournalGroup(account);
+            try {
+                return account.applyPostings(batch, order, groupStarts[group], groupStarts[group + 1], statuses);
+            } finally {
+                endJournalGroup(account);
+            }
+        }).sum();
+        awaitJournalAppended(); // Groups may have been journaled on common-pool workers
+        return new PostingBatchResult(statuses, posted, groupCount, System.nanoTime() - start);
+    }
+    
+    /**
+     * Settle a batch of transfers by netting, e.g. sweeps or internal allocations
+     * Each account is locked once and only its net debit is checked; the batch is applied
+     * entirely or not at all, as one journal group. Every transfer is still itemized in
+     * both accounts' histories and journaled as a posting per leg.
+     * @param transfers The transfers
+     * @return Whether the batch settled, with the net positions and any rejections
+     * @throws AccountNotFoundException if a transfer names an unknown account
+     * @throws InvalidTransactionException if an amount is not positive or a transfer is to its own account
+     */
+    public NettingEngine.Result settleNetted(List<TransferInstruction> transfers) 
+            throws AccountNotFoundException, InvalidTransactionException {
+        Map<String, Account> involved = new HashMap<>();
+        for (TransferInstruction transfer : transfers) {
+            if (transfer.getAmountCents() <= 0) {
+                throw new InvalidTransactionException("Transaction amount must be positive");
+            }
+            if (transfer.getFromAccountNumber().equals(transfer.getToAccountNumber())) {
+                throw new InvalidTransactionException("Cannot transfer to the same account");
+            }
+            if (!involved.containsKey(transfer.getFromAccountNumber())) {
+                involved.put(transfer.getFromAccountNumber(), getAccount(transfer.getFromAccountNumber()));
+            }
+            if (!involved.containsKey(transfer.getToAccountNumber())) {
+                involved.put(transfer.getToAccountNumber(), getAccount(transfer.getToAccountNumber()));
+            }
+        }
+        
+        // The engine locks the same accounts again; holding them here keeps the group's
+        // records ahead of any later posting to those accounts
+        List<Account> lockOrder = new ArrayList<>(new TreeMap<>(involved).values());
+        NettingEngine.Result result;
+        beginJournalGroup(lockOrder);
+        try {
+            result = nettingEngine.settle(transfers, involved);
+        } finally {
+            endJournalGroup(lockOrder);
+        }
+        awaitJournal();
+        return result;
     }
     
     /**
@@ -237,6 +628,31 @@ public class BankingService {
         return account.getBalance();
     }
     
+    /**
+     * Get the balance an account had at a point in time
+     * @param accountNumber The account number
+     * @param instant The point in time
+     * @return The balance after the last transaction at or before the instant
+     * @throws AccountNotFoundException if account not found
+     */
+    public double getAccountBalanceAsOf(String accountNumber, Instant instant) throws AccountNotFoundException {
+        Account account = getAccount(accountNumber);
+        return Money.toDollars(account.getBalanceCentsAsOf(Timestamps.toMicros(instant)));
+    }
+    
+    /**
+     * Balances of every account at a point in time, e.g. for an end-of-day regulatory snapshot
+     * Accounts are looked up in parallel; each lookup is a binary search of its history
+     * @param instant The point in time
+     * @return Balance in cents by account number
+     */
+    public Map<String, Long> getBalancesAsOf(Instant instant) {
+        long timestampMicros = Timestamps.toMicros(instant);
+        return accounts.values().parallelStream()
+                       .collect(Collectors.toConcurrentMap(Account::getAccountNumber, 
+                                                           account -> account.getBalanceCentsAsOf(timestampMicros)));
+    }
+    
     /**
      * Write a check from a checking account
      * @param accountNumber The checking account number
@@ -254,18 +670,76 @@ public class BankingService {
         }
         
         CheckingAccount checkingAccount = (CheckingAccount) account;
-        checkingAccount.writeCheck(amount, payee);
+        beginJournalGroup(checkingAccount);
+        try {
+            checkingAccount.writeCheck(amount, payee);
+        } finally {
+            endJournalGroup(checkingAccount);
+        }
+        awaitJournal();
     }
     
     /**
      * Apply monthly maintenance to all active accounts
+     * Every account's interest period ends when the run starts
      */
     public void applyMonthlyMaintenanceToAllAccounts() {
+        long periodEndMicros = MicroClocks.transactions().currentTimeMicros();
         for (Account account : accounts.values()) {
             if (account.isActive()) {
-                account.applyMonthlyMaintenance();
+                runMaintenance(account, periodEndMicros);
             }
         }
+        awaitJournal();
+    }
+    
+    /**
+     * Close a month for all active accounts not yet maintained for it
+     * Interest periods end when the month ends, so the amounts do not depend on when the run happens
+     * @param period The month being closed
+     */
+    public void applyMonthlyMaintenanceToAllAccounts(YearMonth period) {
+        for (Account account : accounts.values()) {
+            if (account.isActive()) {
+                runMaintenance(account, period);
+            }
+        }
+        awaitJournal();
+    }
+    
+    /**
+     * Apply monthly maintenance to all active accounts in parallel
+     * Each account is journaled as one group on its worker thread, and the call returns
+     * once everything appended up to the end of the run is durable. Every account's
+     * interest period ends when the run starts, as in the sequential loop.
+     * @param engine Engine partitioning the accounts across its pool
+     * @return Report with throughput and per-partition timings
+     */
+    public MaintenanceEngine.Report applyMonthlyMaintenanceToAllAccounts(MaintenanceEngine engine) {
+        long periodEndMicros = MicroClocks.transactions().currentTimeMicros();
+        return runMaintenance(engine, account -> runMaintenance(account, periodEndMicros));
+    }
+    
+    /**
+     * Close a month for all active accounts in parallel
+     * @param period The month being closed
+     * @param engine Engine partitioning the accounts across its pool
+     * @return Report with throughput and per-partition timings
+     */
+    public MaintenanceEngine.Report applyMonthlyMaintenanceToAllAccounts(YearMonth period, MaintenanceEngine engine) {
+        return runMaintenance(engine, account -> runMaintenance(account, period));
+    }
+    
+    private MaintenanceEngine.Report runMaintenance(MaintenanceEngine engine, Consumer<Account> maintenance) {
+        MaintenanceEngine.Report report = engine.run(new ArrayList<>(accounts.values()), partition -> {
+            for (Account account : partition) {
+                if (account.isActive()) {
+                    maintenance.accept(account);
+                }
+            }
+        });
+        awaitJournalAppended();
+        return report;
     }
     
     /**
@@ -275,7 +749,36 @@ public class BankingService {
      */
     public void applyMonthlyMaintenanceToAccount(String accountNumber) throws AccountNotFoundException {
         Account account = getAccount(accountNumber);
-        account.applyMonthlyMaintenance();
+        beginJournalGroup(account);
+        try {
+            account.runMonthlyMaintenance();
+        } finally {
+            endJournalGroup(account);
+        }
+        awaitJournal();
+    }
+    
+    private void runMaintenance(Account account, long periodEndMicros) {
+        beginJournalGroup(account);
+        try {
+            account.runMonthlyMaintenance(periodEndMicros);
+        } finally {
+            endJournalGroup(account);
+        }
+    }
+    
+    /**
+     * Close a period for one account unless it was already closed
+     * Does not wait for the journal; callers wait once per batch with awaitJournal()
+     * @return true if maintenance was applied
+     */
+    boolean runMaintenance(Account account, YearMonth period) {
+        beginJournalGroup(account);
+        try {
+            return account.runMonthlyMaintenance(period);
+        } finally {
+            endJournalGroup(account);
+        }
     }
     
     /**
@@ -286,6 +789,7 @@ public class BankingService {
     public void deactivateAccount(String accountNumber) throws AccountNotFoundException {
         Account account = getAccount(accountNumber);
         account.deactivateAccount();
+        awaitJournal();
     }
     
     /**
@@ -296,6 +800,7 @@ public class BankingService {
     public void activateAccount(String accountNumber) throws AccountNotFoundException {
         Account account = getAccount(accountNumber);
         account.activateAccount();
+        awaitJournal();
     }
     
     /**
@@ -303,11 +808,7 @@ public class BankingService {
      * @return Total bank balance
      */
     public double getTotalBankBalance() {
-        double totalBalance = 0.0;
-        for (Account account : accounts.values()) {
-            totalBalance += account.getBalance();
-        }
-        return totalBalance;
+        return Money.toDollars(aggregates.getTotalBalanceCents());
     }
     
     /**
@@ -323,7 +824,7 @@ public class BankingService {
      * @return Active customer count
      */
     public int getActiveCustomerCount() {
-        return getActiveCustomers().size();
+        return aggregates.getActiveCustomerCount();
     }
     
     /**
@@ -339,7 +840,7 @@ public class BankingService {
      * @return Active account count
      */
     public int getActiveAccountCount() {
-        return getActiveAccounts().size();
+        return aggregates.getActiveAccountCount();
     }
     
     /**
@@ -347,14 +848,201 @@ public class BankingService {
      * @return Map of account type to count
      */
     public Map<String, Integer> getAccountTypeCounts() {
-        Map<String, Integer> typeCounts = new HashMap<>();
+        return aggregates.getAccountTypeCounts();
+    }
+    
+    // Journal helpers: each service operation is one atomic journal group. The group is
+    // published before the accounts it touches are unlocked, so every account's records
+    // reach the journal in the order of its history.
+    void beginJournalGroup(Account account) {
+        if (journal != null) {
+            account.getLock().lock();
+            journal.beginGroup();
+        }
+    }
+    
+    void endJournalGroup(Account account) {
+        if (journal != null) {
+            try {
+                journal.endGroup();
+            } finally {
+                account.getLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * Open a group over two accounts, locked in the TransferEngine lock order
+     * Either account may be null, e.g. a transfer whose destination does not exist
+     */
+    void beginJournalGroup(Account first, Account second) {
+        if (journal != null) {
+            if (first != null && second != null && TransferEngine.lockOrder(first, second) > 0) {
+                Account swap = first;
+                first = second;
+                second = swap;
+            }
+            if (first != null) {
+                first.getLock().lock();
+            }
+            if (second != null) {
+                second.getLock().lock();
+            }
+            journal.beginGroup();
+        }
+    }
+    
+    void endJournalGroup(Account first, Account second) {
+        if (journal != null) {
+            try {
+                journal.endGroup();
+            } finally {
+                if (second != null) {
+                    second.getLock().unlock();
+                }
+                if (first != null) {
+                    first.getLock().unlock();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Open a group over accounts that are already sorted in lock order
+     */
+    private void beginJournalGroup(List<Account> accountsInLockOrder) {
+        if (journal != null) {
+            for (Account account : accountsInLockOrder) {
+                account.getLock().lock();
+            }
+            journal.beginGroup();
+        }
+    }
+    
+    private void endJournalGroup(List<Account> accountsInLockOrder) {
+        if (journal != null) {
+            try {
+                journal.endGroup();
+            } finally {
+                for (int i = accountsInLockOrder.size() - 1; i >= 0; i--) {
+                    accountsInLockOrder.get(i).getLock().unlock();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Wait for the records published by the calling thread
+     * Work journaled on other threads must use awaitJournal(long) or awaitJournalAppended()
+     */
+    void awaitJournal() {
+        if (journal != null) {
+            journal.awaitDurable();
+        }
+    }
+    
+    /**
+     * Wait for records appended by another thread, such as a pipeline stage
+     * @param lsn Sequence number to wait for, from lastJournalLsn() on the appending thread
+     */
+    void awaitJournal(long lsn) {
+        if (journal != null && journal.getDurability() != Journal.Durability.ASYNC) {
+            journal.awaitDurable(lsn);
+        }
+    }
+    
+    /**
+     * Wait until every record appended so far, on any thread, is durable
+     * Used after work that was journaled on pool threads rather than the caller's
+     */
+    void awaitJournalAppended() {
+        if (journal != null) {
+            awaitJournal(journal.getAppendedLsn());
+        }
+    }
+    
+    /**
+     * Record the debit phase of a cross-shard transfer; call in the debit's journal group
+     * @return The pending transfer, settled later by settlePendingTransfer()
+     */
+    PendingTransfer beginPendingTransfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        PendingTransfer transfer = new PendingTransfer(IdGenerators.transactions().nextId(), fromAccountNumber, 
+                                                       toAccountNumber, Money.toCents(amount));
+        pendingTransfers.put(transfer.getTransferId(), transfer);
+        if (journal != null) {
+            journal.appendTransferPending(transfer);
+        }
+        return transfer;
+    }
+    
+    /**
+     * Record that a pending transfer was credited or reversed; call in that posting's journal group
+     */
+    void settlePendingTransfer(PendingTransfer transfer) {
+        pendingTransfers.remove(transfer.getTransferId());
+        if (journal != null) {
+            journal.appendTransferSettled(transfer.getTransferId());
+        }
+    }
+    
+    /** @return LSN of the last journal record published by the calling thread, or 0 */
+    long lastJournalLsn() {
+        return journal != null ? journal.getLastLsn() : 0;
+    }
+    
+    /**
+     * Keeps the email index in step with email changes made directly on a Customer,
+     * and journals activation changes
+     */
+    private final class CustomerEventHandler implements CustomerListener {
+        @Override
+        public void onEmailChange(Customer customer, String oldEmail, String newEmail) 
+                throws InvalidAccountException {
+            if (customerIdsByEmail.putIfAbsent(newEmail, customer.getCustomerId()) != null) {
+                throw new InvalidAccountException("Customer with email " + newEmail + " already exists");
+            }
+            customerIdsByEmail.remove(oldEmail, customer.getCustomerId());
+        }
         
-        for (Account account : accounts.values()) {
-            String type = account.getAccountType();
-            typeCounts.put(type, typeCounts.getOrDefault(type, 0) + 1);
+        @Override
+        public void onActivationChange(Customer customer, boolean active) {
+            aggregates.customerActivationChanged(active);
+            if (journal != null) {
+                journal.appendCustomerState(customer);
+            }
         }
         
-        return typeCounts;
+        @Override
+        public void onDetailsChange(Customer customer) {
+            if (journal != null) {
+                journal.appendCustomerState(customer);
+            }
+        }
+    }
+    
+    /**
+     * Forwards account mutations to the journal and the bank-wide totals
+     */
+    private final class AccountEventHandler implements AccountListener {
+        @Override
+        public void onTransaction(Account account, Transaction transaction) {
+            aggregates.balanceChanged(transaction.getSignedAmountCents());
+            if (journal != null) {
+                journal.appendPosting(account, transaction, account.getTransactionCount() - 1);
+            }
+        }
+        
+        @Override
+        public void onStateChange(Account account) {
+            if (journal != null) {
+                journal.appendAccountState(account);
+            }
+        }
+        
+        @Override
+        public void onActivationChange(Account account, boolean active) {
+            aggregates.accountActivationChanged(active);
+        }
     }
     
     // Bank information getters
@@ -366,10 +1054,14 @@ public class BankingService {
         return bankCode; 
     }
     
+    public Journal getJournal() { 
+        return journal; 
+    }
+    
     @Override
     public String toString() {
         return String.format("Bank: %s (%s) | Customers: %d | Accounts: %d | Total Balance: $%.2f",
-                           bankName, bankCode, customers.size(), accounts.size(), getTotalBankBalance());
+                           bankName, bankCode, getTotalCustomerCount(), getTotalAccountCount(), getTotalBankBalance());
     }
     
     /**
@@ -0,0 +1,478 @@
+package com.banking.service;
+
+import com.banking.exception.InvalidTransactionException;
+import com.banking.model.Account;
+import com.banking.model.Money;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pre-allocated ring-buffer command pipeline in front of a BankingService
+ * 
+ * Request threads claim a slot in a fixed ring, fill it in place and return a future.
+ * Four stages, each on its own thread, follow each other around the ring:
+ * validation, business logic, journaling and publishing. A stage takes every slot its
+ * upstream stage has finished in one batch, so the journaling stage waits for
+ * durability once per batch and the publishing stage completes a batch of futures at a
+ * time. Slots are reused once the publishing stage has passed them; producers wait
+ * when the ring is full.
+ * 
+ * Business logic runs before journaling because the journal records the postings an
+ * operation produces rather than the command itself.
+ */
+public class CommandPipeline implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int SPIN_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = 50_000;
+    
+    private enum CommandType { DEPOSIT, WITHDRAW, TRANSFER }
+    
+    /**
+     * One pre-allocated entry of the ring, reused for every command that lands on it
+     */
+    private static final class Slot {
+        volatile long sequence = -1;
+        CommandType type;
+        String fromAccountNumber;
+        String toAccountNumber;
+        double amount;
+        Account fromAccount;
+        Account toAccount;
+        Exception failure;
+        CompletableFuture<Void> result;
+        long stampNanos;
+        long lsn;
+        
+        void clear() {
+            type = null;
+            fromAccountNumber = null;
+            toAccountNumber = null;
+            fromAccount = null;
+            toAccount = null;
+            failure = null;
+            result = null;
+        }
+    }
+    
+    /**
+     * Point-in-time counters of one stage
+     */
+    public static final class StageStats {
+        private final String name;
+        private final long processed;
+        private final long batches;
+        private final long totalLatencyNanos;
+        private final long maxLatencyNanos;
+        private final long depth;
+        
+        StageStats(String name, long processed, long batches, long totalLatencyNanos, long maxLatencyNanos, long depth) {
+            this.name = name;
+            this.processed = processed;
+            this.batches = batches;
+            this.totalLatencyNanos = totalLatencyNanos;
+            this.maxLatencyNanos = maxLatencyNanos;
+            this.depth = depth;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public long getProcessed() {
+            return processed;
+        }
+        
+        public long getBatches() {
+            return batches;
+        }
+        
+        /**
+         * @return Mean time a command spent waiting for and passing through this stage
+         */
+        public double getAverageLatencyNanos() {
+            return processed == 0 ? 0.0 : (double) totalLatencyNanos / processed;
+        }
+        
+        public long getMaxLatencyNanos() {
+            return maxLatencyNanos;
+        }
+        
+        public double getAverageBatchSize() {
+            return batches == 0 ? 0.0 : (double) processed / batches;
+        }
+        
+        /**
+         * @return Commands finished upstream but not yet by this stage
+         */
+        public long getDepth() {
+            return depth;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%-10s processed=%d avgBatch=%.1f avgLatency=%.1fus maxLatency=%.1fus depth=%d",
+                                 name, processed, getAverageBatchSize(), getAverageLatencyNanos() / 1_000.0,
+                                 maxLatencyNanos / 1_000.0, depth);
+        }
+    }
+    
+    /**
+     * A consumer of the ring; each stage is the only writer of its cursor and counters
+     */
+    private abstract class Stage implements Runnable {
+        final String name;
+        final Stage upstream;
+        final Thread thread;
+        volatile long cursor = -1;
+        volatile long processed;
+        volatile long batches;
+        volatile long totalLatencyNanos;
+        volatile long maxLatencyNanos;
+        
+        Stage(String name, Stage upstream) {
+            this.name = name;
+            this.upstream = upstream;
+            this.thread = new Thread(this, "pipeline-" + name);
+            this.thread.setDaemon(true);
+        }
+        
+        abstract void handle(Slot slot);
+        
+        void endOfBatch() {
+        }
+        
+        /**
+         * @return Highest sequence this stage may process, or less than next if none
+         */
+        long available(long next) {
+            return upstream.cursor;
+        }
+        
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                long next = cursor + 1;
+                long last = available(next);
+                if (last < next) {
+                    if (!running && (upstream == null ? next >= claimed.get() : !upstream.thread.isAlive())) {
+                        return;
+                    }
+                    idle = idle(idle);
+                    continue;
+                }
+                idle = 0;
+                for (long sequence = next; sequence <= last; sequence++) {
+                    handle(ring[(int) sequence & mask]);
+                }
+                endOfBatch();
+                
+                // One clock read per batch: latency is measured from when the upstream stage let go
+                long now = System.nanoTime();
+                long total = 0;
+                long max = maxLatencyNanos;
+                for (long sequence = next; sequence <= last; sequence++) {
+                    Slot slot = ring[(int) sequence & mask];
+                    long latency = now - slot.stampNanos;
+                    total += latency;
+                    max = Math.max(max, latency);
+                    slot.stampNanos = now;
+                }
+                totalLatencyNanos += total;
+                maxLatencyNanos = max;
+                processed += last - next + 1;
+                batches++;
+                releaseBatch(next, last);
+                cursor = last;
+            }
+        }
+        
+        void releaseBatch(long first, long last) {
+        }
+        
+        StageStats snapshot() {
+            long upstreamCursor = upstream == null ? claimed.get() - 1 : upstream.cursor;
+            return new StageStats(name, processed, batches, totalLatencyNanos, maxLatencyNanos,
+                                  Math.max(0, upstreamCursor - cursor));
+        }
+    }
+    
+    private final BankingService bank;
+    private final TransferEngine transferEngine = new TransferEngine();
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Stage[] stages;
+    private final Stage publishStage;
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+    
+    public CommandPipeline(BankingService bank) {
+        this(bank, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param bank The bank the commands are applied to
+     * @param capacity Number of ring slots, a power of two
+     */
+    public CommandPipeline(BankingService bank, int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.bank = bank;
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        
+        Stage validation = new ValidationStage();
+        Stage business = new BusinessStage(validation);
+        Stage journaling = new JournalStage(business);
+        this.publishStage = new PublishStage(journaling);
+        this.stages = new Stage[] { validation, business, journaling, publishStage };
+        for (Stage stage : stages) {
+            stage.thread.start();
+        }
+    }
+    
+    /**
+     * Queue a deposit
+     * @return Future completed once the deposit is durable, or exceptionally with the
+     *         exception that rejected it
+     */
+    public CompletableFuture<Void> deposit(String accountNumber, double amount) {
+        return enqueue(CommandType.DEPOSIT, accountNumber, null, amount);
+    }
+    
+    /**
+     * Queue a withdrawal
+     * @return Future completed once the withdrawal is durable, or exceptionally with the
+     *         exception that rejected it
+     */
+    public CompletableFuture<Void> withdraw(String accountNumber, double amount) {
+        return enqueue(CommandType.WITHDRAW, accountNumber, null, amount);
+    }
+    
+    /**
+     * Queue a transfer; both legs are applied atomically as in BankingService.transfer
+     * @return Future completed once the transfer is durable, or exceptionally with the
+     *         exception that rejected it
+     */
+    public CompletableFuture<Void> transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        return enqueue(CommandType.TRANSFER, fromAccountNumber, toAccountNumber, amount);
+    }
+    
+    private CompletableFuture<Void> enqueue(CommandType type, String fromAccountNumber, String toAccountNumber,
+                                            double amount) {
+        inFlight.incrementAndGet();
+        if (!accepting) {
+            inFlight.decrementAndGet();
+            throw new IllegalStateException("Command pipeline is closed");
+        }
+        long sequence = claimed.getAndIncrement();
+        
+        // Wait until the publishing stage has released the slot's previous command
+        int idle = 0;
+        while (sequence - ring.length > publishStage.cursor) {
+            idle = idle(idle);
+        }
+        Slot slot = ring[(int) sequence & mask];
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        slot.type = type;
+        slot.fromAccountNumber = fromAccountNumber;
+        slot.toAccountNumber = toAccountNumber;
+        slot.amount = amount;
+        slot.result = result;
+        slot.stampNanos = System.nanoTime();
+        slot.sequence = sequence; // Publishes the filled slot to the validation stage
+        return result;
+    }
+    
+    /**
+     * Resolves the accounts and rejects commands that cannot succeed, without touching balances
+     */
+    private final class ValidationStage extends Stage {
+        ValidationStage() {
+            super("validate", null);
+        }
+        
+        @Override
+        long available(long next) {
+            // Producers fill slots out of order; only a contiguous run of filled slots is taken
+            long sequence = next;
+            while (ring[(int) sequence & mask].sequence == sequence) {
+                sequence++;
+            }
+            return sequence - 1;
+        }
+        
+        @Override
+        void handle(Slot slot) {
+            try {
+                if (Money.toCents(slot.amount) <= 0) {
+                    throw new InvalidTransactionException("Transaction amount must be positive");
+                }
+                slot.fromAccount = bank.getAccount(slot.fromAccountNumber);
+                if (slot.type == CommandType.TRANSFER) {
+                    if (slot.fromAccountNumber.equals(slot.toAccountNumber)) {
+                        throw new InvalidTransactionException("Cannot transfer to the same account");
+                    }
+                    slot.toAccount = bank.getAccount(slot.toAccountNumber);
+                }
+            } catch (Exception e) {
+                slot.failure = e;
+            }
+        }
+    }
+    
+    /**
+     * Applies the command through the Account template methods, one journal group per command
+     */
+    private final class BusinessStage extends Stage {
+        BusinessStage(Stage upstream) {
+            super("execute", upstream);
+        }
+        
+        @Override
+        void handle(Slot slot) {
+            if (slot.failure != null) {
+                return;
+            }
+            bank.beginJournalGroup(slot.fromAccount, slot.toAccount);
+            try {
+                switch (slot.type) {
+                    case DEPOSIT:
+                        slot.fromAccount.deposit(slot.amount);
+                        break;
+                    case WITHDRAW:
+                        slot.fromAccount.withdraw(slot.amount);
+                        break;
+                    case TRANSFER:
+                        transferEngine.transfer(slot.fromAccount, slot.toAccount, slot.amount);
+                        break;
+                }
+            } catch (Exception e) {
+                slot.failure = e;
+            } finally {
+                bank.endJournalGroup(slot.fromAccount, slot.toAccount);
+                slot.lsn = bank.lastJournalLsn();
+            }
+        }
+    }
+    
+    /**
+     * Makes a whole batch durable with a single journal wait
+     * The records were published on the business thread, so the wait is for the highest
+     * LSN recorded in the batch's slots rather than for this thread's own records
+     */
+    private final class JournalStage extends Stage {
+        private long batchLsn;
+        
+        JournalStage(Stage upstream) {
+            super("journal", upstream);
+        }
+        
+        @Override
+        void handle(Slot slot) {
+            batchLsn = Math.max(batchLsn, slot.lsn);
+        }
+        
+        @Override
+        void endOfBatch() {
+            bank.awaitJournal(batchLsn);
+        }
+    }
+    
+    /**
+     * Completes the callers' futures and hands the slots back to the producers
+     */
+    private final class PublishStage extends Stage {
+        private final List<CompletableFuture<Void>> completed = new ArrayList<>();
+        private final List<Exception> failures = new ArrayList<>();
+        
+        PublishStage(Stage upstream) {
+            super("publish", upstream);
+        }
+        
+        @Override
+        void handle(Slot slot) {
+            completed.add(slot.result);
+            failures.add(slot.failure);
+        }
+        
+        @Override
+        void releaseBatch(long first, long last) {
+            for (long sequence = first; sequence <= last; sequence++) {
+                ring[(int) sequence & mask].clear();
+            }
+            // Callbacks run after the slots are released so a slow callback cannot stall producers
+            cursor = last;
+            for (int i = 0; i < completed.size(); i++) {
+                if (failures.get(i) == null) {
+                    completed.get(i).complete(null);
+                } else {
+                    completed.get(i).completeExceptionally(failures.get(i));
+                }
+            }
+            inFlight.addAndGet(-completed.size());
+            completed.clear();
+            failures.clear();
+        }
+    }
+    
+    private static int idle(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        return idle + 1;
+    }
+    
+    /**
+     * @return Commands accepted but not yet published
+     */
+    public long getQueueDepth() {
+        return claimed.get() - 1 - publishStage.cursor;
+    }
+    
+    public int getCapacity() {
+        return ring.length;
+    }
+    
+    /**
+     * @return Counters of each stage, in pipeline order
+     */
+    public List<StageStats> getStageStats() {
+        List<StageStats> stats = new ArrayList<>(stages.length);
+        for (Stage stage : stages) {
+            stats.add(stage.snapshot());
+        }
+        return stats;
+    }
+    
+    /**
+     * Stop accepting commands, let every queued command finish and stop the stage threads
+     */
+    @Override
+    public void close() {
+        accepting = false;
+        try {
+            while (inFlight.get() > 0) {
+                Thread.sleep(1);
+            }
+            running = false;
+            for (Stage stage : stages) {
+                stage.thread.join();
+            }
+        } catch (InterruptedException e) {
+            running = false;
+            Thread.currentThread().interrupt();
+        }
+    }
+}
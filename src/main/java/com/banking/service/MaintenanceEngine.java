@@ -0,0 +1,215 @@
+package com.banking.service;
+
+import com.banking.model.Account;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * MaintenanceEngine applies month-end maintenance to many accounts on a fork-join pool
+ * 
+ * The accounts are cut into fixed partitions and each partition is processed by one worker.
+ * Fees and interest only depend on the account itself and every account is maintained
+ * exactly once under its own lock, so closing the same period gives the same balances
+ * and postings as the sequential loop; only the order in which accounts draw transaction
+ * ids differs.
+ * Workers record their timings in their own slot and share nothing but a progress counter.
+ */
+public class MaintenanceEngine {
+    public static final int DEFAULT_PARTITION_SIZE = 1_024;
+    
+    private final ForkJoinPool pool;
+    private final int partitionSize;
+    private final ProgressListener progressListener;
+    
+    /**
+     * Receives progress as partitions complete; called from worker threads
+     */
+    public interface ProgressListener {
+        void partitionCompleted(PartitionTiming timing, long completedAccounts, long totalAccounts);
+    }
+    
+    /**
+     * Timing of one partition
+     */
+    public static final class PartitionTiming {
+        private final int partition;
+        private final int accountCount;
+        private final long elapsedNanos;
+        private final String threadName;
+        
+        PartitionTiming(int partition, int accountCount, long elapsedNanos, String threadName) {
+            this.partition = partition;
+            this.accountCount = accountCount;
+            this.elapsedNanos = elapsedNanos;
+            this.threadName = threadName;
+        }
+        
+        public int getPartition() { 
+            return partition; 
+        }
+        
+        public int getAccountCount() { 
+            return accountCount; 
+        }
+        
+        public long getElapsedNanos() { 
+            return elapsedNanos; 
+        }
+        
+        public String getThreadName() { 
+            return threadName; 
+        }
+    }
+    
+    /**
+     * Outcome of a maintenance run
+     */
+    public static final class Report {
+        private final long accountCount;
+        private final long elapsedNanos;
+        private final int parallelism;
+        private final List<PartitionTiming> partitions;
+        
+        Report(long accountCount, long elapsedNanos, int parallelism, List<PartitionTiming> partitions) {
+            this.accountCount = accountCount;
+            this.elapsedNanos = elapsedNanos;
+            this.parallelism = parallelism;
+            this.partitions = partitions;
+        }
+        
+        public long getAccountCount() { 
+            return accountCount; 
+        }
+        
+        public long getElapsedNanos() { 
+            return elapsedNanos; 
+        }
+        
+        public int getParallelism() { 
+            return parallelism; 
+        }
+        
+        /** @return Partition timings in partition order */
+        public List<PartitionTiming> getPartitions() { 
+            return partitions; 
+        }
+        
+        public double getAccountsPerSecond() {
+            return elapsedNanos > 0 ? accountCount * 1_000_000_000.0 / elapsedNanos : 0.0;
+        }
+        
+        /** @return Time of the slowest partition, a sign of skew when far above the average */
+        public long getSlowestPartitionNanos() {
+            long slowest = 0;
+            for (PartitionTiming timing : partitions) {
+                slowest = Math.max(slowest, timing.getElapsedNanos());
+            }
+            return slowest;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Maintained %d accounts in %.1f ms (%.0f accounts/sec, %d partitions, parallelism %d, slowest partition %.1f ms)",
+                               accountCount, elapsedNanos / 1e6, getAccountsPerSecond(), partitions.size(), 
+                               parallelism, getSlowestPartitionNanos() / 1e6);
+        }
+    }
+    
+    /**
+     * Engine on the common fork-join pool with the default partition size
+     */
+    public MaintenanceEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARTITION_SIZE, null);
+    }
+    
+    /**
+     * @param pool Pool running the partitions
+     * @param partitionSize Accounts per partition
+     * @param progressListener Progress receiver, or null
+     */
+    public MaintenanceEngine(ForkJoinPool pool, int partitionSize, ProgressListener progressListener) {
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException("Partition size must be positive");
+        }
+        this.pool = pool;
+        this.partitionSize = partitionSize;
+        this.progressListener = progressListener;
+    }
+    
+    /**
+     * Run the partition task over all accounts and wait for completion
+     * @param accounts Accounts to maintain
+     * @param partitionTask Maintains one partition of accounts on a worker thread
+     * @return Report with throughput and per-partition timings
+     */
+    public Report run(List<Account> accounts, Consumer<List<Account>> partitionTask) {
+        int partitionCount = (accounts.size() + partitionSize - 1) / partitionSize;
+        PartitionTiming[] timings = new PartitionTiming[partitionCount];
+        AtomicLong completed = new AtomicLong();
+        
+        long start = System.nanoTime();
+        if (partitionCount > 0) {
+            pool.invoke(new PartitionAction(accounts, partitionTask, timings, completed, 0, partitionCount));
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        List<PartitionTiming> partitions = new ArrayList<>(partitionCount);
+        Collections.addAll(partitions, timings);
+        return new Report(accounts.size(), elapsed, pool.getParallelism(), Collections.unmodifiableList(partitions));
+    }
+    
+    public int getPartitionSize() { 
+        return partitionSize; 
+    }
+    
+    /**
+     * Splits a range of partitions in half until a single partition is left
+     */
+    private class PartitionAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final List<Account> accounts;
+        private final Consumer<List<Account>> partitionTask;
+        private final PartitionTiming[] timings;
+        private final AtomicLong completed;
+        private final int fromPartition;
+        private final int toPartition;
+        
+        PartitionAction(List<Account> accounts, Consumer<List<Account>> partitionTask, PartitionTiming[] timings, 
+                        AtomicLong completed, int fromPartition, int toPartition) {
+            this.accounts = accounts;
+            this.partitionTask = partitionTask;
+            this.timings = timings;
+            this.completed = completed;
+            this.fromPartition = fromPartition;
+            this.toPartition = toPartition;
+        }
+        
+        @Override
+        protected void compute() {
+            if (toPartition - fromPartition > 1) {
+                int middle = (fromPartition + toPartition) >>> 1;
+                invokeAll(new PartitionAction(accounts, partitionTask, timings, completed, fromPartition, middle),
+                          new PartitionAction(accounts, partitionTask, timings, completed, middle, toPartition));
+                return;
+            }
+            
+            int from = fromPartition * partitionSize;
+            int to = Math.min(from + partitionSize, accounts.size());
+            long start = System.nanoTime();
+            partitionTask.accept(accounts.subList(from, to));
+            PartitionTiming timing = new PartitionTiming(fromPartition, to - from, System.nanoTime() - start, 
+                                                         Thread.currentThread().getName());
+            timings[fromPartition] = timing;
+            long done = completed.addAndGet(to - from);
+            if (progressListener != null) {
+                progressListener.partitionCompleted(timing, done, accounts.size());
+            }
+        }
+    }
+}
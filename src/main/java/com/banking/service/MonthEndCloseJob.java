@@ -0,0 +1,269 @@
+package com.banking.service;
+
+import com.banking.model.Account;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MonthEndCloseJob applies the monthly maintenance of one period to every active account
+ * so that it can be interrupted and run again safely
+ * 
+ * Accounts are visited in account number order. Every account records the last period it
+ * was maintained for, which makes the job idempotent per account, and after each batch the
+ * job writes a checkpoint cursor so a re-run resumes after the last finished batch instead
+ * of rescanning from the start. The cursor is only written once the batch is durable in
+ * the journal, and is itself forced to disk before and after it replaces the previous
+ * one. An optional rate limit keeps the job from crowding out live traffic.
+ */
+public class MonthEndCloseJob {
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    
+    private static final String PERIOD_KEY = "period";
+    private static final String CURSOR_KEY = "cursor";
+    private static final String COMPLETED_KEY = "completed";
+    
+    private final BankingService bankingService;
+    private final YearMonth period;
+    private final Path checkpointFile;
+    private final int batchSize;
+    private final int maxAccountsPerSecond;
+    private volatile boolean stopRequested;
+    
+    /**
+     * Outcome of one run of the job
+     */
+    public static final class Result {
+        private final YearMonth period;
+        private final String resumedAfter;
+        private final long maintainedCount;
+        private final long alreadyMaintainedCount;
+        private final long elapsedNanos;
+        private final boolean completed;
+        
+        Result(YearMonth period, String resumedAfter, long maintainedCount, long alreadyMaintainedCount, 
+               long elapsedNanos, boolean completed) {
+            this.period = period;
+            this.resumedAfter = resumedAfter;
+            this.maintainedCount = maintainedCount;
+            this.alreadyMaintainedCount = alreadyMaintainedCount;
+            this.elapsedNanos = elapsedNanos;
+            this.completed = completed;
+        }
+        
+        public YearMonth getPeriod() { 
+            return period; 
+        }
+        
+        /** @return Account number the run resumed after, or null if it started from the beginning */
+        public String getResumedAfter() { 
+            return resumedAfter; 
+        }
+        
+        public long getMaintainedCount() { 
+            return maintainedCount; 
+        }
+        
+        /** @return Accounts skipped because they had already been maintained for the period */
+        public long getAlreadyMaintainedCount() { 
+            return alreadyMaintainedCount; 
+        }
+        
+        public long getElapsedNanos() { 
+            return elapsedNanos; 
+        }
+        
+        /** @return false if the run was stopped before reaching the last account */
+        public boolean isCompleted() { 
+            return completed; 
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Month-end %s: %d maintained, %d already maintained, %.1f ms%s%s",
+                               period, maintainedCount, alreadyMaintainedCount, elapsedNanos / 1e6,
+                               resumedAfter != null ? ", resumed after " + resumedAfter : "",
+                               completed ? "" : ", stopped");
+        }
+    }
+    
+    /**
+     * Job without a rate limit
+     * @param bankingService The bank to close
+     * @param period The period being closed
+     * @param checkpointFile File holding the cursor between runs
+     */
+    public MonthEndCloseJob(BankingService bankingService, YearMonth period, Path checkpointFile) {
+        this(bankingService, period, checkpointFile, DEFAULT_BATCH_SIZE, 0);
+    }
+    
+    /**
+     * @param bankingService The bank to close
+     * @param period The period being closed
+     * @param checkpointFile File holding the cursor between runs
+     * @param batchSize Accounts between checkpoints
+     * @param maxAccountsPerSecond Rate limit, or 0 for none
+     */
+    public MonthEndCloseJob(BankingService bankingService, YearMonth period, Path checkpointFile, 
+                            int batchSize, int maxAccountsPerSecond) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (maxAccountsPerSecond < 0) {
+            throw new IllegalArgumentException("Rate limit cannot be negative");
+        }
+        this.bankingService = bankingService;
+        this.period = period;
+        this.checkpointFile = checkpointFile;
+        this.batchSize = batchSize;
+        this.maxAccountsPerSecond = maxAccountsPerSecond;
+    }
+    
+    /**
+     * Run or resume the job until every account is maintained or stop() is called
+     * @return Result of this run
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    public Result run() throws IOException {
+        stopRequested = false;
+        long start = System.nanoTime();
+        
+        Properties checkpoint = readCheckpoint();
+        boolean samePeriod = period.toString().equals(checkpoint.getProperty(PERIOD_KEY));
+        String cursor = samePeriod ? checkpoint.getProperty(CURSOR_KEY) : null;
+        if (samePeriod && Boolean.parseBoolean(checkpoint.getProperty(COMPLETED_KEY))) {
+            return new Result(period, cursor, 0, 0, System.nanoTime() - start, true);
+        }
+        
+        List<Account> ordered = bankingService.getAllAccounts();
+        ordered.sort(Comparator.comparing(Account::getAccountNumber));
+        int index = cursor != null ? firstAfter(ordered, cursor) : 0;
+        
+        long maintained = 0;
+        long alreadyMaintained = 0;
+        long visited = 0;
+        while (index < ordered.size() && !stopRequested) {
+            int end = Math.min(index + batchSize, ordered.size());
+            for (int i = index; i < end; i++) {
+                Account account = ordered.get(i);
+                if (!account.isActive()) {
+                    continue;
+                }
+                if (bankingService.runMaintenance(account, period)) {
+                    maintained++;
+                } else {
+                    alreadyMaintained++;
+                }
+            }
+            visited += end - index;
+            index = end;
+            
+            // The cursor must never get ahead of what the journal holds
+            bankingService.awaitJournal();
+            writeCheckpoint(ordered.get(end - 1).getAccountNumber(), index == ordered.size());
+            throttle(start, visited);
+        }
+        if (ordered.isEmpty()) {
+            writeCheckpoint(null, true);
+        }
+        
+        return new Result(period, cursor, maintained, alreadyMaintained, System.nanoTime() - start, 
+                          index == ordered.size());
+    }
+    
+    /**
+     * Ask a running job to stop after the current batch
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+    
+    public YearMonth getPeriod() { 
+        return period; 
+    }
+    
+    public Path getCheckpointFile() { 
+        return checkpointFile; 
+    }
+    
+    private static int firstAfter(List<Account> ordered, String cursor) {
+        int low = 0;
+        int high = ordered.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ordered.get(middle).getAccountNumber().compareTo(cursor) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    private void throttle(long startNanos, long visited) {
+        if (maxAccountsPerSecond == 0) {
+            return;
+        }
+        long dueNanos = startNanos + visited * TimeUnit.SECONDS.toNanos(1) / maxAccountsPerSecond;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopRequested = true;
+            }
+        }
+    }
+    
+    private Properties readCheckpoint() throws IOException {
+        Properties checkpoint = new Properties();
+        if (Files.exists(checkpointFile)) {
+            try (InputStream in = Files.newInputStream(checkpointFile)) {
+                checkpoint.load(in);
+            }
+        }
+        return checkpoint;
+    }
+    
+    private void writeCheckpoint(String cursor, boolean completed) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty(PERIOD_KEY, period.toString());
+        if (cursor != null) {
+            checkpoint.setProperty(CURSOR_KEY, cursor);
+        }
+        checkpoint.setProperty(COMPLETED_KEY, Boolean.toString(completed));
+        
+        Path directory = checkpointFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(checkpointFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            checkpoint.store(Channels.newOutputStream(channel), "Month-end close checkpoint");
+            channel.force(true); // The contents must be on disk before the rename can expose them
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(directory);
+    }
+    
+    /**
+     * Make the rename durable by forcing the directory entry to disk
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms cannot open or force a directory; the rename is then as durable as the OS makes it
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.banking.service;
+
+import com.banking.model.Account;
+import com.banking.model.PostingStatus;
+import com.banking.model.TransferInstruction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * NettingEngine settles a batch of transfers between a set of accounts by net position
+ * 
+ * The transfers are grouped per account and every account is locked once, in account
+ * number order as in TransferEngine. Only each account's net debit is checked against
+ * its withdrawal rules; if any account cannot settle, nothing is applied. Otherwise
+ * each account posts its itemized legs and moves its balance once by the net amount,
+ * so lock acquisitions grow with the number of accounts rather than transfers.
+ * 
+ * Journal records still grow with the number of transfers: every leg is journaled as its
+ * own posting, because replay restores histories posting by posting and each leg carries
+ * its own transaction number, counterparty and running balance. The whole batch is one
+ * journal group, so it costs a single publish and a single durability wait however
+ * many legs it has; a per-account netted record would have to carry the same leg data
+ * and give the recovery code a second way to rebuild a history.
+ */
+public class NettingEngine {
+    
+    /**
+     * Outcome of a netted settlement
+     */
+    public static final class Result {
+        private final boolean settled;
+        private final int transferCount;
+        private final Map<String, Long> netPositions;
+        private final Map<String, PostingStatus> rejections;
+        private final long elapsedNanos;
+        
+        Result(boolean settled, int transferCount, Map<String, Long> netPositions, 
+               Map<String, PostingStatus> rejections, long elapsedNanos) {
+            this.settled = settled;
+            this.transferCount = transferCount;
+            this.netPositions = Collections.unmodifiableMap(netPositions);
+            this.rejections = Collections.unmodifiableMap(rejections);
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        /** @return true if every transfer was applied, false if none was */
+        public boolean isSettled() { 
+            return settled; 
+        }
+        
+        public int getTransferCount() { 
+            return transferCount; 
+        }
+        
+        public int getAccountCount() {
+            return netPositions.size();
+        }
+        
+        /** @return Net position in cents by account number, in lock order */
+        public Map<String, Long> getNetPositions() { 
+            return netPositions; 
+        }
+        
+        /** @return Accounts that could not settle their net position, with the reason */
+        public Map<String, PostingStatus> getRejections() { 
+            return rejections; 
+        }
+        
+        public long getElapsedNanos() { 
+            return elapsedNanos; 
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s %d transfers between %d accounts in %.1f ms%s", settled ? "Settled" : "Rejected",
+                                 transferCount, netPositions.size(), elapsedNanos / 1e6, 
+                                 rejections.isEmpty() ? "" : " " + rejections);
+        }
+    }
+    
+    /**
+     * One account's side of the batch
+     */
+    private static final class Position {
+        final Account account;
+        final List<TransferInstruction> incoming = new ArrayList<>();
+        final List<TransferInstruction> outgoing = new ArrayList<>();
+        long netCents;
+        
+        Position(Account account) {
+            this.account = account;
+        }
+    }
+    
+    /**
+     * Settle a batch of transfers
+     * The caller has checked that amounts are positive and that no transfer is to its own account.
+     * @param transfers The transfers, itemized in this order within each account
+     * @param accounts Every account the transfers name, by account number
+     * @return Whether the batch settled, with the net positions and any rejections
+     */
+    public Result settle(List<TransferInstruction> transfers, Map<String, Account> accounts) {
+        long start = System.nanoTime();
+        
+        // Sorted by account number, which is the multi-account lock order
+        TreeMap<String, Position> positions = new TreeMap<>();
+        for (TransferInstruction transfer : transfers) {
+            Position from = positions.computeIfAbsent(transfer.getFromAccountNumber(), 
+                                                      number -> new Position(accounts.get(number)));
+            Position to = positions.computeIfAbsent(transfer.getToAccountNumber(), 
+                                                    number -> new Position(accounts.get(number)));
+            from.outgoing.add(transfer);
+            from.netCents -= transfer.getAmountCents();
+            to.incoming.add(transfer);
+            to.netCents += transfer.getAmountCents();
+        }
+        
+        Map<String, Long> netPositions = new LinkedHashMap<>();
+        Map<String, PostingStatus> rejections = new LinkedHashMap<>();
+        List<Position> locked = new ArrayList<>(positions.size());
+        try {
+            for (Position position : positions.values()) {
+                position.account.getLock().lock();
+                locked.add(position);
+            }
+            for (Map.Entry<String, Position> entry : positions.entrySet()) {
+                netPositions.put(entry.getKey(), entry.getValue().netCents);
+                PostingStatus status = entry.getValue().account.checkNetPosition(entry.getValue().netCents);
+                if (status != PostingStatus.POSTED) {
+                    rejections.put(entry.getKey(), status);
+                }
+            }
+            if (rejections.isEmpty()) {
+                for (Position position : positions.values()) {
+                    position.account.settleNetted(position.incoming, position.outgoing);
+                }
+            }
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                locked.get(i).account.getLock().unlock();
+            }
+        }
+        return new Result(rejections.isEmpty(), transfers.size(), netPositions, rejections, System.nanoTime() - start);
+    }
+}
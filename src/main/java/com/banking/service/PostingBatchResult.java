@@ -0,0 +1,82 @@
+package com.banking.service;
+
+import com.banking.model.PostingStatus;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-posting outcome of a batch posted with BankingService.postBatch
+ * Statuses are held in the same order as the postings were submitted.
+ */
+public final class PostingBatchResult {
+    private final PostingStatus[] statuses;
+    private final int postedCount;
+    private final int accountCount;
+    private final long elapsedNanos;
+    
+    PostingBatchResult(PostingStatus[] statuses, int postedCount, int accountCount, long elapsedNanos) {
+        this.statuses = statuses;
+        this.postedCount = postedCount;
+        this.accountCount = accountCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    /**
+     * @param position Position of the posting in the submitted batch
+     * @return Its outcome
+     */
+    public PostingStatus getStatus(int position) {
+        return statuses[position];
+    }
+    
+    /** @return Outcomes in submission order */
+    public List<PostingStatus> getStatuses() {
+        return Collections.unmodifiableList(Arrays.asList(statuses));
+    }
+    
+    public int size() {
+        return statuses.length;
+    }
+    
+    public int getPostedCount() { 
+        return postedCount; 
+    }
+    
+    public int getRejectedCount() {
+        return statuses.length - postedCount;
+    }
+    
+    /**
+     * @param status An outcome
+     * @return Number of postings with that outcome
+     */
+    public int count(PostingStatus status) {
+        int count = 0;
+        for (PostingStatus each : statuses) {
+            if (each == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /** @return Number of distinct accounts the accepted postings touched */
+    public int getAccountCount() { 
+        return accountCount; 
+    }
+    
+    public long getElapsedNanos() { 
+        return elapsedNanos; 
+    }
+    
+    public double getPostingsPerSecond() {
+        return elapsedNanos > 0 ? statuses.length * 1_000_000_000.0 / elapsedNanos : 0.0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Posted %d of %d postings to %d accounts in %.1f ms (%.0f postings/sec)",
+                             postedCount, statuses.length, accountCount, elapsedNanos / 1e6, getPostingsPerSecond());
+    }
+}
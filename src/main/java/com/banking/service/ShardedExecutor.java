@@ -0,0 +1,309 @@
+package com.banking.service;
+
+import com.banking.model.Account;
+import com.banking.model.PendingTransfer;
+import com.banking.exception.InvalidTransactionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-writer execution mode for a BankingService
+ * 
+ * Accounts are partitioned by account number into shards. Each shard is owned by one
+ * thread that drains a queue of commands, so every mutation of an account happens on
+ * its shard's thread and the account locks are never contended by writers. A shard
+ * executes a batch of commands, waits once for the journal to make the batch durable,
+ * and only then completes the callers' futures.
+ * 
+ * A transfer between two shards runs as a two-phase message exchange: the source shard
+ * debits and sends a credit message to the destination shard, which validates and
+ * applies the credit under its own account lock; if the credit is refused, a reversal
+ * message goes back to the source shard. The debit is journaled together with a
+ * pending-transfer record and the credit or reversal together with its settlement
+ * record, so after a crash between the phases recovery finds the unsettled transfer
+ * and completes or reverses it (see BankingService.resolvePendingTransfers()).
+ */
+public class ShardedExecutor implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH = 256;
+    
+    private final BankingService bank;
+    private final TransferEngine transferEngine = new TransferEngine();
+    private final Shard[] shards;
+    private final AtomicLong inFlight = new AtomicLong();
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+    
+    /**
+     * A unit of work executed on a shard thread
+     */
+    private interface Command {
+        void execute(Shard shard);
+    }
+    
+    /**
+     * One partition of the accounts and the thread that owns it
+     */
+    private final class Shard implements Runnable {
+        private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+        private final List<Command> batch = new ArrayList<>();
+        private final List<Runnable> afterDurable = new ArrayList<>();
+        private final int maxBatch;
+        private final Thread thread;
+        
+        Shard(int index, int maxBatch) {
+            this.maxBatch = maxBatch;
+            this.thread = new Thread(this, "shard-" + index);
+            this.thread.setDaemon(true);
+        }
+        
+        void submit(Command command) {
+            queue.add(command);
+        }
+        
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                try {
+                    Command first = queue.poll(10, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (Command command : batch) {
+                    command.execute(this);
+                }
+                batch.clear();
+                
+                // One durability wait covers the whole batch
+                bank.awaitJournal();
+                for (Runnable action : afterDurable) {
+                    action.run();
+                }
+                afterDurable.clear();
+            }
+        }
+    }
+    
+    /**
+     * @param bank The bank whose accounts are partitioned
+     * @param shardCount Number of shards, each with its own thread
+     */
+    public ShardedExecutor(BankingService bank, int shardCount) {
+        this(bank, shardCount, DEFAULT_MAX_BATCH);
+    }
+    
+    /**
+     * @param bank The bank whose accounts are partitioned
+     * @param shardCount Number of shards, each with its own thread
+     * @param maxBatch Most commands a shard executes per journal durability wait
+     */
+    public ShardedExecutor(BankingService bank, int shardCount, int maxBatch) {
+        if (shardCount < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("Shard count and batch size must be positive");
+        }
+        this.bank = bank;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, maxBatch);
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+    
+    /**
+     * @param accountNumber The account number
+     * @return Index of the shard that owns the account
+     */
+    public int shardOf(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+    
+    /**
+     * Deposit money on the account's shard
+     * @return Future completed once the deposit is durable, or exceptionally with the
+     *         AccountNotFoundException or InvalidTransactionException that rejected it
+     */
+    public CompletableFuture<Void> deposit(String accountNumber, double amount) {
+        CompletableFuture<Void> result = track();
+        submit(accountNumber, shard -> {
+            try {
+                Account account = bank.getAccount(accountNumber);
+                bank.beginJournalGroup(account);
+                try {
+                    account.deposit(amount);
+                } finally {
+                    bank.endJournalGroup(account);
+                }
+                shard.afterDurable.add(() -> result.complete(null));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Withdraw money on the account's shard
+     * @return Future completed once the withdrawal is durable, or exceptionally with the
+     *         exception that rejected it
+     */
+    public CompletableFuture<Void> withdraw(String accountNumber, double amount) {
+        CompletableFuture<Void> result = track();
+        submit(accountNumber, shard -> {
+            try {
+                Account account = bank.getAccount(accountNumber);
+                bank.beginJournalGroup(account);
+                try {
+                    account.withdraw(amount);
+                } finally {
+                    bank.endJournalGroup(account);
+                }
+                shard.afterDurable.add(() -> result.complete(null));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Transfer money, in one step when both accounts share a shard and in two phases otherwise
+     * @return Future completed once the credit is durable, or exceptionally with the
+     *         exception that rejected or reversed the transfer
+     */
+    public CompletableFuture<Void> transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        CompletableFuture<Void> result = track();
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            result.completeExceptionally(new InvalidTransactionException("Cannot transfer to the same account"));
+            return result;
+        }
+        if (shardOf(fromAccountNumber) == shardOf(toAccountNumber)) {
+            submit(fromAccountNumber, shard -> {
+                try {
+                    Account fromAccount = bank.getAccount(fromAccountNumber);
+                    Account toAccount = bank.getAccount(toAccountNumber);
+                    bank.beginJournalGroup(fromAccount, toAccount);
+                    try {
+                        transferEngine.transfer(fromAccount, toAccount, amount);
+                    } finally {
+                        bank.endJournalGroup(fromAccount, toAccount);
+                    }
+                    shard.afterDurable.add(() -> result.complete(null));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            return result;
+        }
+        
+        submit(fromAccountNumber, shard -> {
+            try {
+                // Only the source account is touched here; the destination is validated by its own shard
+                Account fromAccount = bank.getAccount(fromAccountNumber);
+                Account toAccount = bank.getAccount(toAccountNumber);
+                PendingTransfer pending;
+                bank.beginJournalGroup(fromAccount);
+                try {
+                    fromAccount.transferOut(amount, toAccountNumber);
+                    pending = bank.beginPendingTransfer(fromAccountNumber, toAccountNumber, amount);
+                } finally {
+                    bank.endJournalGroup(fromAccount);
+                }
+                shard.afterDurable.add(() -> submit(toAccountNumber,
+                    credit -> credit(credit, fromAccount, toAccount, pending, result)));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Second phase of a cross-shard transfer, run on the destination shard
+     */
+    private void credit(Shard shard, Account fromAccount, Account toAccount, PendingTransfer pending,
+                        CompletableFuture<Void> result) {
+        bank.beginJournalGroup(toAccount);
+        try {
+            toAccount.transferIn(pending.getAmount(), fromAccount.getAccountNumber());
+            bank.settlePendingTransfer(pending);
+            shard.afterDurable.add(() -> result.complete(null));
+        } catch (InvalidTransactionException | RuntimeException e) {
+            shard.afterDurable.add(() -> submit(fromAccount.getAccountNumber(),
+                reversal -> reverse(reversal, fromAccount, pending, result, e)));
+        } finally {
+            bank.endJournalGroup(toAccount);
+        }
+    }
+    
+    /**
+     * Compensation of a refused credit, run on the source shard
+     */
+    private void reverse(Shard shard, Account fromAccount, PendingTransfer pending,
+                         CompletableFuture<Void> result, Exception cause) {
+        bank.beginJournalGroup(fromAccount);
+        try {
+            fromAccount.reverseTransferOut(pending.getAmount(), pending.getToAccountNumber());
+            bank.settlePendingTransfer(pending);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        } finally {
+            bank.endJournalGroup(fromAccount);
+        }
+        shard.afterDurable.add(() -> result.completeExceptionally(cause));
+    }
+    
+    /**
+     * Count an operation as in flight until its future completes
+     */
+    private CompletableFuture<Void> track() {
+        if (!accepting) {
+            throw new IllegalStateException("Sharded executor is closed");
+        }
+        inFlight.incrementAndGet();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        result.whenComplete((ignored, failure) -> inFlight.decrementAndGet());
+        return result;
+    }
+    
+    private void submit(String accountNumber, Command command) {
+        shards[shardOf(accountNumber)].submit(command);
+    }
+    
+    public int getShardCount() {
+        return shards.length;
+    }
+    
+    /**
+     * Stop accepting work, let every operation in flight finish, including the later
+     * phases of cross-shard transfers, and stop the shard threads
+     */
+    @Override
+    public void close() {
+        accepting = false;
+        try {
+            while (inFlight.get() > 0) {
+                Thread.sleep(1);
+            }
+            running = false;
+            for (Shard shard : shards) {
+                shard.thread.join();
+            }
+        } catch (InterruptedException e) {
+            running = false;
+            Thread.currentThread().interrupt();
+        }
+    }
+}
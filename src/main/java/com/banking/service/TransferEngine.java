@@ -0,0 +1,71 @@
+package com.banking.service;
+
+import com.banking.model.Account;
+import com.banking.exception.InsufficientFundsException;
+import com.banking.exception.InvalidTransactionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * TransferEngine applies both legs of a transfer as a single atomic step
+ * 
+ * The two account locks are always acquired in account number order, so concurrent
+ * A->B and B->A transfers cannot deadlock. While both locks are held the destination
+ * is validated before the source is debited, and a destination failure that still
+ * slips through is compensated by crediting the source back.
+ */
+public class TransferEngine {
+    
+    /**
+     * Transfer money from one account to another
+     * @param fromAccount Source account
+     * @param toAccount Destination account
+     * @param amount Amount to transfer
+     * @throws InsufficientFundsException if insufficient funds in source account
+     * @throws InvalidTransactionException if either leg of the transfer is invalid
+     */
+    public void transfer(Account fromAccount, Account toAccount, double amount) 
+            throws InsufficientFundsException, InvalidTransactionException {
+        if (fromAccount == toAccount) {
+            throw new InvalidTransactionException("Cannot transfer to the same account");
+        }
+        
+        boolean sourceFirst = lockOrder(fromAccount, toAccount) < 0;
+        ReentrantLock first = sourceFirst ? fromAccount.getLock() : toAccount.getLock();
+        ReentrantLock second = sourceFirst ? toAccount.getLock() : fromAccount.getLock();
+        
+        first.lock();
+        try {
+            second.lock();
+            try {
+                applyTransfer(fromAccount, toAccount, amount);
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+    
+    /**
+     * Total order used for multi-account locking
+     * @return Negative if the first account must be locked before the second
+     */
+    static int lockOrder(Account first, Account second) {
+        return first.getAccountNumber().compareTo(second.getAccountNumber());
+    }
+    
+    private void applyTransfer(Account fromAccount, Account toAccount, double amount) 
+            throws InsufficientFundsException, InvalidTransactionException {
+        String fromAccountNumber = fromAccount.getAccountNumber();
+        String toAccountNumber = toAccount.getAccountNumber();
+        
+        toAccount.validateTransferIn(amount);
+        fromAccount.transferOut(amount, toAccountNumber);
+        try {
+            toAccount.transferIn(amount, fromAccountNumber);
+        } catch (InvalidTransactionException e) {
+            fromAccount.reverseTransferOut(amount, toAccountNumber);
+            throw e;
+        }
+    }
+}
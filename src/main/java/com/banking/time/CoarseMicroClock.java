@@ -0,0 +1,68 @@
+package com.banking.time;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock that serves a cached time refreshed by a background thread
+ * A read is a single volatile load, so high-rate paths such as posting pay nothing for
+ * timestamps; the price is a resolution of one refresh interval. Readings never go
+ * backwards even if the system clock is stepped back.
+ */
+public final class CoarseMicroClock implements MicroClock, AutoCloseable {
+    private final MicroClock source;
+    private final long refreshIntervalNanos;
+    private final Thread refresher;
+    private volatile long currentMicros;
+    private volatile boolean running = true;
+    
+    /**
+     * @param refreshIntervalMicros How often the cached time is refreshed
+     */
+    public CoarseMicroClock(long refreshIntervalMicros) {
+        this(SystemMicroClock.INSTANCE, refreshIntervalMicros);
+    }
+    
+    /**
+     * @param source Clock sampled by the refresher
+     * @param refreshIntervalMicros How often the cached time is refreshed
+     */
+    public CoarseMicroClock(MicroClock source, long refreshIntervalMicros) {
+        if (refreshIntervalMicros <= 0) {
+            throw new IllegalArgumentException("Refresh interval must be positive");
+        }
+        this.source = source;
+        this.refreshIntervalNanos = refreshIntervalMicros * 1_000L;
+        this.currentMicros = source.currentTimeMicros();
+        this.refresher = new Thread(this::refreshLoop, "coarse-clock");
+        this.refresher.setDaemon(true);
+        this.refresher.start();
+    }
+    
+    @Override
+    public long currentTimeMicros() {
+        return currentMicros;
+    }
+    
+    private void refreshLoop() {
+        while (running) {
+            LockSupport.parkNanos(refreshIntervalNanos);
+            long now = source.currentTimeMicros();
+            if (now > currentMicros) {
+                currentMicros = now;
+            }
+        }
+    }
+    
+    public long getRefreshIntervalMicros() {
+        return refreshIntervalNanos / 1_000L;
+    }
+    
+    /**
+     * Stop the refresher; the clock keeps returning the last cached time
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(refresher);
+    }
+}
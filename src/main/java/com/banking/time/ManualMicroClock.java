@@ -0,0 +1,44 @@
+package com.banking.time;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deterministic clock for tests, demos and benchmarks
+ * Starts at a fixed time and moves only when told to, or by a fixed step on every
+ * read, so repeated runs produce identical timestamps.
+ */
+public final class ManualMicroClock implements MicroClock {
+    private final AtomicLong currentMicros;
+    private final long stepMicros;
+    
+    /**
+     * @param startMicros First time returned
+     * @param stepMicros Amount the clock advances after each read; 0 for a clock that stands still
+     */
+    public ManualMicroClock(long startMicros, long stepMicros) {
+        if (stepMicros < 0) {
+            throw new IllegalArgumentException("Step cannot be negative");
+        }
+        this.currentMicros = new AtomicLong(startMicros);
+        this.stepMicros = stepMicros;
+    }
+    
+    @Override
+    public long currentTimeMicros() {
+        return stepMicros == 0 ? currentMicros.get() : currentMicros.getAndAdd(stepMicros);
+    }
+    
+    /**
+     * @param micros Amount to move the clock forward
+     */
+    public void advance(long micros) {
+        currentMicros.addAndGet(micros);
+    }
+    
+    /**
+     * @param micros New current time
+     */
+    public void set(long micros) {
+        currentMicros.set(micros);
+    }
+}
@@ -0,0 +1,13 @@
+package com.banking.time;
+
+/**
+ * Source of wall-clock timestamps in microseconds since the epoch (UTC)
+ * Implementations must be safe to call from many threads at once
+ */
+public interface MicroClock {
+    
+    /**
+     * @return The current time in microseconds since 1970-01-01T00:00Z
+     */
+    long currentTimeMicros();
+}
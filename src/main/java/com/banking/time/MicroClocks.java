@@ -0,0 +1,24 @@
+package com.banking.time;
+
+/**
+ * Registry of the clock that timestamps transactions
+ * The default reads the system clock on every call; a CoarseMicroClock can be installed
+ * for high posting rates and a ManualMicroClock for reproducible runs
+ */
+public final class MicroClocks {
+    private static volatile MicroClock transactionClock = SystemMicroClock.INSTANCE;
+    
+    private MicroClocks() {
+    }
+    
+    public static MicroClock transactions() {
+        return transactionClock;
+    }
+    
+    public static void setTransactionClock(MicroClock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        transactionClock = clock;
+    }
+}
@@ -0,0 +1,71 @@
+package com.banking.time;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Conversions between epoch-microsecond timestamps and java.time values
+ * Local date-times use the system default time zone, as LocalDateTime.now() does
+ */
+public final class Timestamps {
+    
+    private Timestamps() {
+    }
+    
+    /**
+     * @param micros Microseconds since the epoch
+     * @return The local date-time in the system default zone
+     */
+    public static LocalDateTime toLocalDateTime(long micros) {
+        return LocalDateTime.ofInstant(toInstant(micros), ZoneId.systemDefault());
+    }
+    
+    /**
+     * @param dateTime Local date-time in the system default zone
+     * @return Microseconds since the epoch
+     */
+    public static long fromLocalDateTime(LocalDateTime dateTime) {
+        return toMicros(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+    
+    /**
+     * @param period A calendar month
+     * @return Microseconds since the epoch at midnight starting the following month, in the system default zone
+     */
+    public static long endOfMonth(YearMonth period) {
+        return fromLocalDateTime(period.plusMonths(1).atDay(1).atStartOfDay());
+    }
+    
+    /**
+     * @param instant A point in time
+     * @return Microseconds since the epoch, truncating any finer precision
+     */
+    public static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+    
+    public static Instant toInstant(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+    
+    /**
+     * @param micros Microseconds since the epoch
+     * @param formatter A formatter with a zone, e.g. from {@link #systemZoneFormatter(String)}
+     * @return The formatted time
+     */
+    public static String format(long micros, DateTimeFormatter formatter) {
+        return formatter.format(toInstant(micros));
+    }
+    
+    /**
+     * Formatters are immutable and thread-safe, so callers keep the result in a constant
+     * @param pattern A DateTimeFormatter pattern
+     * @return A formatter for instants in the system default zone
+     */
+    public static DateTimeFormatter systemZoneFormatter(String pattern) {
+        return DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault());
+    }
+}